@@ -0,0 +1,94 @@
+package com.suhyun444.lifehub.card;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.StatementRow;
+import com.suhyun444.lifehub.card.Parser.StatementRowHandler;
+
+// 국민은행 행 해석 비용. 결과는 ops/s가 초당 행 수이고, -prof gc의 gc.alloc.rate.norm이 행당 할당 바이트다.
+// ./gradlew jmh -PjmhArgs="StatementDecodingBenchmark -prof gc"
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementDecodingBenchmark {
+    private static final int ROWS = 1000;
+
+    private final KookminTransactionParser parser = new KookminTransactionParser();
+    private StatementRow[] rows;
+
+    @Setup
+    public void setUp()
+    {
+        rows = new StatementRow[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            StatementRow row = new StatementRow();
+            row.reset(5 + i);
+            row.set(0, String.format("2024.%02d.%02d 12:%02d:00", 1 + i % 12, 1 + i % 28, i % 60));
+            row.set(2, "스타벅스 동백점 " + (i % 50));
+            row.set(4, String.format("%,d", 1000 + i * 37));
+            row.set(7, "체크카드");
+            rows[i] = row;
+        }
+    }
+
+    // 바꾸기 전 parseRow: 금액 replaceAll 두 번, 키는 문자열 연결 뒤 replaceAll
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void regexDecoding(Blackhole blackhole)
+    {
+        for (StatementRow row : rows) {
+            blackhole.consume(legacyParseRow(row));
+        }
+    }
+
+    // 지금의 행 핸들러. 합계 행 처리 때문에 한 행씩 복사하는 비용까지 들어있다.
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void cellDecoder(Blackhole blackhole)
+    {
+        StatementRowHandler handler = parser.newRowHandler(blackhole::consume);
+        for (StatementRow row : rows) {
+            handler.handleRow(row);
+        }
+        handler.endSheet();
+    }
+
+    private static Transaction legacyParseRow(StatementRow row)
+    {
+        if(Integer.parseInt(row.get(4).replaceAll(",","")) == 0) return null;
+        Transaction transaction = new Transaction();
+        transaction.setId(null);
+        transaction.setDate(row.get(0));
+        transaction.setMerchant(row.get(2));
+
+        String withdrawalStr = row.get(4).replaceAll(",", "");
+        transaction.setAmount(Integer.parseInt(withdrawalStr));
+        transaction.setStatus(PaymentStatus.completed);
+        transaction.setPaymentMethod(row.get(7));
+
+        String transactionKey = transaction.getDate()+"_"+transaction.getAmount()+"_"+transaction.getMerchant();
+        transactionKey = transactionKey.replaceAll("\\s+","");
+        transaction.setTransactionKey(transactionKey);
+
+        return transaction;
+    }
+}
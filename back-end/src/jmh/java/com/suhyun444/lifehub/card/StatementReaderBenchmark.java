@@ -0,0 +1,131 @@
+package com.suhyun444.lifehub.card;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.StatementReader;
+
+// 같은 내용의 csv, xls, xlsx 파일을 처음부터 끝까지 Transaction으로 읽는 시간. 점수는 파일 하나당 밀리초다.
+// ./gradlew jmh -PjmhArgs="StatementReaderBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementReaderBenchmark {
+    private static final int ROWS = 20_000;
+
+    private final KookminTransactionParser parser = new KookminTransactionParser();
+    private final StatementReader reader = new StatementReader();
+    private Path directory;
+    private Path csv;
+    private Path xls;
+    private Path xlsx;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("statement-bench");
+        csv = directory.resolve("statement.csv");
+        xls = directory.resolve("statement.xls");
+        xlsx = directory.resolve("statement.xlsx");
+        try (Writer writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 5; i++) writer.write("\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(date(i) + ",," + merchant(i) + ",,\"" + amount(i) + "\",,,체크카드\n");
+            }
+            writer.write(",,,,합계\n");
+        }
+        try (Workbook workbook = new HSSFWorkbook()) {
+            write(workbook, xls);
+        }
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            write(workbook, xlsx);
+            workbook.dispose();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(xls);
+        Files.deleteIfExists(xlsx);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void csv(Blackhole blackhole) throws IOException
+    {
+        reader.read(csv.toFile(), parser.newRowHandler(blackhole::consume));
+    }
+
+    @Benchmark
+    public void xls(Blackhole blackhole) throws IOException
+    {
+        reader.read(xls.toFile(), parser.newRowHandler(blackhole::consume));
+    }
+
+    @Benchmark
+    public void xlsx(Blackhole blackhole) throws IOException
+    {
+        reader.read(xlsx.toFile(), parser.newRowHandler(blackhole::consume));
+    }
+
+    private static void write(Workbook workbook, Path path) throws IOException
+    {
+        Sheet sheet = workbook.createSheet();
+        for (int i = 0; i < ROWS; i++) {
+            Row row = sheet.createRow(5 + i);
+            row.createCell(0).setCellValue(date(i));
+            row.createCell(2).setCellValue(merchant(i));
+            row.createCell(4).setCellValue(amount(i));
+            row.createCell(7).setCellValue("체크카드");
+        }
+        sheet.createRow(5 + ROWS).createCell(4).setCellValue("합계");
+        try (OutputStream os = Files.newOutputStream(path)) {
+            workbook.write(os);
+        }
+    }
+
+    private static String date(int i)
+    {
+        return String.format("2024.%02d.%02d 12:%02d:00", 1 + i % 12, 1 + i % 28, i % 60);
+    }
+
+    private static String merchant(int i)
+    {
+        return "스타벅스 동백점 " + (i % 500);
+    }
+
+    private static String amount(int i)
+    {
+        return String.format("%,d", 1000 + i * 37);
+    }
+}
@@ -0,0 +1,153 @@
+package com.suhyun444.lifehub.card;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// 업로드 행을 저장하는 두 경로의 시간. saveAll은 예전 경로(IDENTITY라 행마다 INSERT), bulk는 여러 행짜리 INSERT ... ON DUPLICATE KEY UPDATE다.
+// 기본은 H2(MODE=MySQL)이고, MariaDB는 접속 정보를 넘겨서 돌린다. 스키마는 Hibernate가 만든다.
+// ./gradlew jmh -PjmhArgs="TransactionInsertBenchmark"
+// ./gradlew jmh -PjmhArgs="TransactionInsertBenchmark -p url=jdbc:mariadb://localhost:3306/bench -p username=root -p password=secret"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionInsertBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+    @Param({"saveAll", "bulk"})
+    public String path;
+    @Param("jdbc:h2:mem:insertbench;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER")
+    public String url;
+    @Param("sa")
+    public String username;
+    @Param("")
+    public String password;
+
+    private EntityManagerFactory entityManagerFactory;
+    private JdbcTemplate jdbcTemplate;
+    private CategoryCodes categoryCodes;
+    private PaymentMethodCodes paymentMethodCodes;
+    private User user;
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, username, password);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        categoryCodes = new CategoryCodes(jdbcTemplate);
+        paymentMethodCodes = new PaymentMethodCodes(jdbcTemplate);
+        // 코드 컨버터가 생성자로 코드 테이블을 받으므로 스프링 없이도 빈 컨테이너를 넘겨준다.
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("categoryCodes", categoryCodes);
+        beanFactory.registerSingleton("paymentMethodCodes", paymentMethodCodes);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.suhyun444.lifehub.card.Entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+            "hibernate.hbm2ddl.auto", "create",
+            "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+            "hibernate.resource.beans.container", new SpringBeanContainer(beanFactory)));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        em.getTransaction().begin();
+        user = new User("bench@test.com");
+        em.persist(user);
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    // 저장한 엔티티는 id가 채워지므로 매번 새로 만들고, 테이블도 비운다.
+    @Setup(Level.Invocation)
+    public void prepare()
+    {
+        jdbcTemplate.update("DELETE FROM transaction");
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(Transaction.builder()
+                .transactionKey("2024.02." + (i % 28 + 1) + "_" + (i * 10) + "_상점" + i)
+                .date("2024.02." + (i % 28 + 1))
+                .merchant("상점" + i)
+                .amount(i * 10)
+                .category("식비")
+                .status(PaymentStatus.completed)
+                .paymentMethod("카드")
+                .user(user)
+                .build());
+        }
+    }
+
+    @Benchmark
+    public int insert()
+    {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            int inserted;
+            if (path.equals("saveAll")) {
+                TransactionRepository repository = new JpaRepositoryFactory(em).getRepository(TransactionRepository.class);
+                inserted = repository.saveAll(transactions).size();
+                em.flush();
+            } else {
+                // 서비스에서처럼 JPA 트랜잭션의 커넥션을 그대로 쓴다.
+                Connection connection = em.unwrap(Session.class).doReturningWork(c -> c);
+                JdbcTemplate template = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                inserted = new TransactionBulkInserter(template, categoryCodes, paymentMethodCodes).insertIgnoringDuplicates(transactions, user).size();
+            }
+            em.getTransaction().commit();
+            return inserted;
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        entityManagerFactory.close();
+    }
+}
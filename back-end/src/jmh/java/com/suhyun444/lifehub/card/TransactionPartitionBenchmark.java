@@ -0,0 +1,163 @@
+package com.suhyun444.lifehub.card;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.suhyun444.lifehub.card.Component.TransactionDateBackfill;
+import com.suhyun444.lifehub.card.Component.TransactionPartitioner;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// 월 조회(findLiveInMonth)를 파티션을 나누기 전과 후로 잰다. 파티션 문법이 있어야 해서 MariaDB에서만 돈다.
+// 가짜 거래를 여러 사용자와 여러 달에 고르게 넣고, partitioned=true면 TransactionPartitioner로 나눈 뒤 EXPLAIN PARTITIONS를 찍는다.
+// ./gradlew jmh -PjmhArgs="TransactionPartitionBenchmark -p url=jdbc:mariadb://localhost:3306/bench -p username=root -p password=secret"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionPartitionBenchmark {
+    private static final int CHUNK = 5_000;
+
+    @Param({"2000000"})
+    public int rows;
+    @Param({"100"})
+    public int users;
+    @Param({"36"})
+    public int months;
+    @Param({"false", "true"})
+    public boolean partitioned;
+    @Param("jdbc:mariadb://localhost:3306/bench")
+    public String url;
+    @Param("root")
+    public String username;
+    @Param("")
+    public String password;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager em;
+    private TransactionRepository repository;
+    private Long userId;
+    private YearMonth month;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, username, password);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        CategoryCodes categoryCodes = new CategoryCodes(jdbcTemplate);
+        PaymentMethodCodes paymentMethodCodes = new PaymentMethodCodes(jdbcTemplate);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("categoryCodes", categoryCodes);
+        beanFactory.registerSingleton("paymentMethodCodes", paymentMethodCodes);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.suhyun444.lifehub.card.Entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+            "hibernate.hbm2ddl.auto", "create",
+            "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+            "hibernate.resource.beans.container", new SpringBeanContainer(beanFactory)));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+
+        List<User> seeded = new ArrayList<>();
+        EntityManager setup = entityManagerFactory.createEntityManager();
+        setup.getTransaction().begin();
+        for (int u = 0; u < users; u++) {
+            User user = new User("bench" + u + "@test.com");
+            setup.persist(user);
+            seeded.add(user);
+        }
+        setup.getTransaction().commit();
+        setup.close();
+
+        YearMonth last = YearMonth.now();
+        YearMonth first = last.minusMonths(months - 1);
+        TransactionBulkInserter inserter = new TransactionBulkInserter(jdbcTemplate, categoryCodes, paymentMethodCodes);
+        for (int u = 0; u < users; u++) {
+            List<Transaction> chunk = new ArrayList<>(CHUNK);
+            for (int i = 0; i < rows / users; i++) {
+                YearMonth m = first.plusMonths(i % months);
+                String date = m.atDay(i / months % 28 + 1).toString();
+                chunk.add(Transaction.builder()
+                    .transactionKey(date + "_" + (i * 10) + "_상점" + i)
+                    .date(date)
+                    .merchant("상점" + (i % 500))
+                    .amount(i * 10)
+                    .category("식비")
+                    .status(PaymentStatus.completed)
+                    .paymentMethod("카드")
+                    .build());
+                if (chunk.size() == CHUNK) {
+                    inserter.insertIgnoringDuplicates(chunk, seeded.get(u));
+                    chunk = new ArrayList<>(CHUNK);
+                }
+            }
+            if (!chunk.isEmpty()) inserter.insertIgnoringDuplicates(chunk, seeded.get(u));
+        }
+
+        if (partitioned) {
+            new TransactionPartitioner(jdbcTemplate, new TransactionDateBackfill(jdbcTemplate, 1000), true, 3, "none").partitionTable(last);
+        }
+        jdbcTemplate.execute("ANALYZE TABLE transaction");
+
+        userId = seeded.get(users / 2).getId();
+        month = first.plusMonths(months / 2);
+        jdbcTemplate.queryForList("EXPLAIN PARTITIONS SELECT * FROM transaction WHERE user_id = ? AND is_deleted = FALSE "
+                + "AND transaction_date >= ? AND transaction_date < ?", userId, month.atDay(1), month.plusMonths(1).atDay(1))
+            .forEach(row -> System.out.println("EXPLAIN " + row));
+
+        em = entityManagerFactory.createEntityManager();
+        repository = new JpaRepositoryFactory(em).getRepository(TransactionRepository.class);
+    }
+
+    @Benchmark
+    public int findLiveInMonth()
+    {
+        int found = repository.findLiveInMonth(userId, month).size();
+        em.clear();
+        return found;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        em.close();
+        entityManagerFactory.close();
+    }
+}
@@ -3,6 +3,9 @@ package com.suhyun444.lifehub.User;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.suhyun444.lifehub.card.Entity.User;
@@ -10,4 +13,12 @@ import com.suhyun444.lifehub.card.Entity.User;
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByEmail(String email);
+
+    // 동시에 올라온 업로드가 서로의 증가분을 덮어쓰지 않도록 DB에서 바로 올린다.
+    @Modifying
+    @Query("UPDATE User u SET u.ledgerVersion = u.ledgerVersion + 1 WHERE u.id = :userId")
+    void incrementLedgerVersion(@Param("userId") Long userId);
+
+    @Query("SELECT u.ledgerVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findLedgerVersion(@Param("userId") Long userId);
 }
@@ -5,9 +5,14 @@
  */
 package com.suhyun444.lifehub.card;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatusCode;
@@ -20,6 +25,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -27,9 +34,15 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.suhyun444.lifehub.card.DTO.AmountUpdateDto;
 import com.suhyun444.lifehub.card.DTO.AnalysisDto;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto;
 import com.suhyun444.lifehub.card.DTO.CategoryUpdateDto;
+import com.suhyun444.lifehub.card.DTO.LedgerClearDto;
 import com.suhyun444.lifehub.card.DTO.PaymentStatus;
 import com.suhyun444.lifehub.card.DTO.TransactionDto;
+import com.suhyun444.lifehub.card.DTO.UploadJobDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionCreateDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionDto;
+import com.suhyun444.lifehub.card.Upload.UploadLimitExceededException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -40,6 +53,12 @@ public class CardController {
 
     @Autowired
     private TransactionService transactionService;
+    @Autowired
+    private UploadJobService uploadJobService;
+    @Autowired
+    private UploadSessionService uploadSessionService;
+    @Autowired
+    private LedgerClearService ledgerClearService;
     
     @GetMapping("api/user/me")
     public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal Object principal) {
@@ -49,53 +68,217 @@ public class CardController {
             "user", principal // 사용자 ID 또는 정보 반환
         ));
     }
+    // month(2024-02) 또는 from/to(2024-02-01, 양 끝 포함)를 주면 그 기간만 돌려준다. 없으면 전체 내역이다.
     @GetMapping("api/transactions")
-    public ResponseEntity<List<TransactionDto>> getTransactions(@AuthenticationPrincipal Long userId) {
+    public ResponseEntity<?> getTransactions(@RequestParam(value = "month", required = false) String month,
+                                             @RequestParam(value = "from", required = false) String from,
+                                             @RequestParam(value = "to", required = false) String to,
+                                             @AuthenticationPrincipal Long userId) {
+        try {
+            if (month != null) {
+                YearMonth yearMonth = YearMonth.parse(month);
+                return ResponseEntity.ok(transactionService.getTransactions(userId, yearMonth.atDay(1), yearMonth.atEndOfMonth()));
+            }
+            if (from != null && to != null) {
+                return ResponseEntity.ok(transactionService.getTransactions(userId, LocalDate.parse(from), LocalDate.parse(to)));
+            }
+            if (from != null || to != null) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Both from and to are required"));
+            }
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
         return ResponseEntity.ok(transactionService.getTransactions(userId));
     }
     
     @PatchMapping("api/transactions/{id}/category")
-    public ResponseEntity<TransactionDto> patchCategory(@PathVariable Long id,@RequestBody CategoryUpdateDto request) {        
-        return ResponseEntity.ok(transactionService.updateCategory(id,request.category()));
+    public ResponseEntity<?> patchCategory(@PathVariable Long id,@RequestBody CategoryUpdateDto request) {        
+        try {
+            return ResponseEntity.ok(transactionService.updateCategory(id,request.category()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
     @PatchMapping("api/transactions/{id}/amount")
     public ResponseEntity<?> patchAmount(@PathVariable Long id,@RequestBody AmountUpdateDto request) {        
         transactionService.updateAmount(id,request.amount());
         return ResponseEntity.ok(Map.of("message", "Success"));
     }
+    // 항목마다 결과를 돌려주므로 일부가 없거나 잘못돼도 200이다. 요청 자체가 잘못됐을 때만 400이다.
+    @PatchMapping("api/transactions/bulk")
+    public ResponseEntity<?> bulkEdit(@RequestBody BulkEditDto.Request request,
+                                      @AuthenticationPrincipal Long userId) {
+        try {
+            return ResponseEntity.ok(transactionService.bulkEdit(request.operations(), userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
     @DeleteMapping("api/transactions/{id}/delete")
     public ResponseEntity<?> deleteTransaction(@PathVariable Long id) {
         transactionService.deleteTransaction(id);
         return ResponseEntity.ok(Map.of("message", "Success"));
     }
+    @GetMapping("api/transactions/version")
+    public ResponseEntity<?> getDataVersion(@AuthenticationPrincipal Long userId) {
+        return ResponseEntity.ok(Map.of("dataVersion", transactionService.getDataVersion(userId)));
+    }
+    // 기본 응답은 이번 업로드로 추가된 행만 담는다. 예전 클라이언트는 full=true로 전체 내역을 받는다.
     @PostMapping("api/transactions/upload")
     public ResponseEntity<?> uploadTransactionsFromExcel(@RequestParam("file") MultipartFile file, 
+                                                        @RequestParam(value = "full", defaultValue = "false") boolean full,
                                                         @AuthenticationPrincipal Long userId) {
       try {
-
+            if (!full) {
+                return ResponseEntity.ok(transactionService.uploadStatement(file, userId));
+            }
             List<TransactionDto> transactions = transactionService.uploadAndParseExcel(file,userId);
             return ResponseEntity.ok(Map.of("transactions", transactions));
 
+        } catch (UploadLimitExceededException e) {
+            return ResponseEntity.status(413).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(429).header("Retry-After", "10").body(Map.of("message", "Server is busy, please retry later"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("message", "Failed to parse Excel file"));
+        }
+    }
+    @PostMapping("api/transactions/upload-batch")
+    public ResponseEntity<?> uploadTransactionBatch(@RequestParam("files") List<MultipartFile> files,
+                                                    @AuthenticationPrincipal Long userId) {
+        try {
+            return ResponseEntity.ok(transactionService.uploadStatementBatch(files, userId));
+        } catch (UploadLimitExceededException e) {
+            return ResponseEntity.status(413).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("message", "Failed to parse Excel file"));
+        }
+    }
+    @PostMapping("api/transactions/upload-jobs")
+    public ResponseEntity<?> submitUploadJob(@RequestParam("file") MultipartFile file,
+                                             @AuthenticationPrincipal Long userId) {
+        try {
+            return ResponseEntity.accepted().body(uploadJobService.submit(file, userId));
+        } catch (UploadLimitExceededException e) {
+            return ResponseEntity.status(413).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header("Retry-After", "30").body(Map.of("message", "Upload queue is full"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("message", "Failed to accept upload"));
+        }
+    }
+    @GetMapping("api/transactions/upload-jobs/{jobId}")
+    public ResponseEntity<UploadJobDto> getUploadJob(@PathVariable String jobId,
+                                                     @AuthenticationPrincipal Long userId) {
+        return ResponseEntity.of(uploadJobService.getJob(jobId, userId));
+    }
+    @PostMapping("api/transactions/upload-sessions")
+    public ResponseEntity<?> createUploadSession(@RequestBody UploadSessionCreateDto request,
+                                                 @AuthenticationPrincipal Long userId) {
+        try {
+            return ResponseEntity.status(201).body(uploadSessionService.create(request, userId));
+        } catch (UploadLimitExceededException e) {
+            return ResponseEntity.status(413).body(Map.of("message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(429).body(Map.of("message", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("message", "Failed to create upload session"));
+        }
+    }
+    @GetMapping("api/transactions/upload-sessions/{sessionId}")
+    public ResponseEntity<UploadSessionDto> getUploadSession(@PathVariable String sessionId,
+                                                             @AuthenticationPrincipal Long userId) {
+        return ResponseEntity.of(uploadSessionService.getSession(sessionId, userId));
+    }
+    // 본문은 조각의 바이트 그대로 받는다. 순서가 어긋나면 409와 함께 서버가 가진 위치를 알려준다.
+    @PutMapping("api/transactions/upload-sessions/{sessionId}")
+    public ResponseEntity<?> putUploadChunk(@PathVariable String sessionId,
+                                            @RequestParam("offset") long offset,
+                                            @RequestHeader(value = "X-Chunk-Sha256", required = false) String chunkSha256,
+                                            InputStream body,
+                                            @AuthenticationPrincipal Long userId) {
+        try {
+            return ResponseEntity.of(uploadSessionService.appendChunk(sessionId, userId, offset, body, chunkSha256));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return conflict(sessionId, userId, e);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("message", "Failed to store chunk"));
+        }
+    }
+    @PostMapping("api/transactions/upload-sessions/{sessionId}/complete")
+    public ResponseEntity<?> completeUploadSession(@PathVariable String sessionId,
+                                                   @AuthenticationPrincipal Long userId) {
+        try {
+            return ResponseEntity.of(uploadSessionService.complete(sessionId, userId));
+        } catch (UploadLimitExceededException e) {
+            return ResponseEntity.status(413).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return conflict(sessionId, userId, e);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(429).header("Retry-After", "10").body(Map.of("message", "Server is busy, please retry later"));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(Map.of("message", "Failed to parse Excel file"));
         }
     }
+    @DeleteMapping("api/transactions/upload-sessions/{sessionId}")
+    public ResponseEntity<?> cancelUploadSession(@PathVariable String sessionId,
+                                                 @AuthenticationPrincipal Long userId) throws Exception {
+        if (!uploadSessionService.cancel(sessionId, userId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+    private ResponseEntity<?> conflict(String sessionId, Long userId, IllegalStateException e) {
+        long offset = uploadSessionService.getSession(sessionId, userId).map(UploadSessionDto::offset).orElse(0L);
+        return ResponseEntity.status(409).body(Map.of("message", e.getMessage(), "offset", offset));
+    }
+    // async=true면 바로 작업 ID를 돌려주고, 지운 행 수는 clear-jobs로 조회한다.
     @DeleteMapping("api/transactions/clear")
-    public ResponseEntity<?> clearTransactions(@AuthenticationPrincipal Long userId)
+    public ResponseEntity<?> clearTransactions(@RequestParam(value = "async", defaultValue = "false") boolean async,
+                                               @AuthenticationPrincipal Long userId)
     {
         try
         {
-            transactionService.clearTransactions(userId);
-            return ResponseEntity.ok(Map.of("message","Success to Clear"));
+            if (async) {
+                return ResponseEntity.accepted().body(ledgerClearService.submit(userId));
+            }
+            LedgerClearDto result = ledgerClearService.clear(userId);
+            return ResponseEntity.ok(Map.of("message","Success to Clear",
+                                            "deletedTransactions", result.deletedTransactions(),
+                                            "deletedAnalyses", result.deletedAnalyses()));
+        }
+        catch(RejectedExecutionException e)
+        {
+            return ResponseEntity.status(503).header("Retry-After", "30").body(Map.of("message", "Clear queue is full"));
         }
         catch(Exception e)
         {
             return ResponseEntity.status(500).body(Map.of("message","Failed to Clear"));
         }
     }
+    @GetMapping("api/transactions/clear-jobs/{jobId}")
+    public ResponseEntity<LedgerClearDto> getClearJob(@PathVariable String jobId,
+                                                      @AuthenticationPrincipal Long userId) {
+        return ResponseEntity.of(ledgerClearService.getJob(jobId, userId));
+    }
     @PostMapping("api/analysis")
     public ResponseEntity<AnalysisDto.Response> analyzeSpending(@RequestBody AnalysisDto.Request request, 
                                                                 @AuthenticationPrincipal Long userId) 
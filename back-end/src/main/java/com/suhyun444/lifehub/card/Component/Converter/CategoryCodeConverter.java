@@ -0,0 +1,31 @@
+package com.suhyun444.lifehub.card.Component.Converter;
+
+import org.springframework.context.annotation.Lazy;
+
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// 엔티티에서는 카테고리 이름 그대로 쓰고, DB에는 조회 테이블의 smallint 코드로 저장한다.
+// 생성자 주입은 Spring Boot가 Hibernate에 넘겨주는 SpringBeanContainer가 해준다.
+// 코드 테이블은 트랜잭션 매니저를, 트랜잭션 매니저는 EntityManagerFactory를 기다리므로 처음 쓸 때 가져온다.
+@Converter
+public class CategoryCodeConverter implements AttributeConverter<String, Short> {
+
+    private final CategoryCodes categoryCodes;
+
+    public CategoryCodeConverter(@Lazy CategoryCodes categoryCodes) {
+        this.categoryCodes = categoryCodes;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String attribute) {
+        return attribute == null ? null : categoryCodes.code(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short dbData) {
+        return dbData == null ? null : categoryCodes.name(dbData);
+    }
+}
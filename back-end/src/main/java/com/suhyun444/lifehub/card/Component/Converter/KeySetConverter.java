@@ -0,0 +1,42 @@
+package com.suhyun444.lifehub.card.Component.Converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Converter
+public class KeySetConverter implements AttributeConverter<Set<String>, String> {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> attribute) {
+        if (attribute == null || attribute.isEmpty()) {
+            return "[]";
+        }
+        try {
+            return objectMapper.writeValueAsString(attribute);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON 변환 실패", e);
+        }
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String dbData) {
+        if (dbData == null || dbData.isEmpty()) {
+            return new HashSet<>();
+        }
+        try {
+            return objectMapper.readValue(dbData, new TypeReference<HashSet<String>>() {});
+        } catch (JsonProcessingException e) {
+            // 키 목록을 못 읽으면 경계 날짜의 행은 DB에서 다시 확인하게 된다.
+            return new HashSet<>();
+        }
+    }
+}
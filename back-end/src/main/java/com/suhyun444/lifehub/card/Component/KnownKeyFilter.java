@@ -0,0 +1,204 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.card.Repository.TransactionTombstones;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// 사용자별로 이미 저장된 키 해시의 블룸 필터를 들고 있다가, "확실히 없다"고 나오는 키는 DB 조회에서 뺀다.
+// 처음 업로드할 때 그 사용자의 키로 만들고, 정한 용량을 넘게 추가되면 버렸다가 두 배 크기로 다시 만든다.
+// 필터가 놓친 키(다른 인스턴스가 넣은 행 등)는 (user, keyHash) 유니크 키가 ON DUPLICATE KEY UPDATE에서 걸러낸다.
+// 아낀 조회 수와 거짓 양성 비율은 /actuator/metrics의 upload.key-filter.* 로 볼 수 있다.
+@Component
+public class KnownKeyFilter {
+    private static final int MIN_CAPACITY = 1024;
+    // 거짓 양성 1%를 목표로 원소당 10비트, 해시 7개를 쓴다.
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTombstones tombstones;
+    private final Duration idleTimeout;
+    private final int maxUsers;
+    private final Map<Long, Bloom> filters = new ConcurrentHashMap<>();
+    private volatile Instant lastSweep = Instant.now();
+
+    private final Counter checks;
+    private final Counter saved;
+    private final Counter falsePositives;
+    private final Counter builds;
+
+    public KnownKeyFilter(TransactionRepository transactionRepository,
+                          TransactionTombstones tombstones,
+                          @Value("${upload.key-filter.idle-minutes:30}") long idleMinutes,
+                          @Value("${upload.key-filter.max-users:1000}") int maxUsers,
+                          MeterRegistry meterRegistry)
+    {
+        this.transactionRepository = transactionRepository;
+        this.tombstones = tombstones;
+        this.idleTimeout = Duration.ofMinutes(idleMinutes);
+        this.maxUsers = maxUsers;
+        this.checks = Counter.builder("upload.key-filter.checks").register(meterRegistry);
+        this.saved = Counter.builder("upload.key-filter.probes.saved").register(meterRegistry);
+        this.falsePositives = Counter.builder("upload.key-filter.false-positives").register(meterRegistry);
+        this.builds = Counter.builder("upload.key-filter.builds").register(meterRegistry);
+        // 저장되지 않은 키 가운데 필터가 "있을 수도 있다"고 해서 DB까지 간 비율.
+        Gauge.builder("upload.key-filter.false-positive.rate", this, f -> {
+            double negatives = f.saved.count() + f.falsePositives.count();
+            return negatives == 0 ? 0 : f.falsePositives.count() / negatives;
+        }).register(meterRegistry);
+        Gauge.builder("upload.key-filter.users", filters, Map::size).register(meterRegistry);
+    }
+
+    // DB에서 확인해야 하는 해시만 돌려준다. 나머지는 저장된 적이 없는 키다.
+    public List<Long> mightExist(Long userId, List<Long> hashes)
+    {
+        Bloom bloom = filterFor(userId);
+        List<Long> maybe = new ArrayList<>();
+        for (Long hash : hashes) {
+            if (bloom.mightContain(hash)) maybe.add(hash);
+        }
+        checks.increment(hashes.size());
+        saved.increment(hashes.size() - maybe.size());
+        return maybe;
+    }
+
+    // mightExist가 돌려준 해시 중 실제로 없던 수를 거짓 양성으로 센다.
+    public void recordProbe(int probed, int found)
+    {
+        falsePositives.increment(Math.max(0, probed - found));
+    }
+
+    public void add(Long userId, Collection<Long> hashes)
+    {
+        Bloom bloom = filters.get(userId);
+        if (bloom == null) return;
+        hashes.forEach(bloom::put);
+        if (bloom.isFull()) filters.remove(userId, bloom);
+    }
+
+    // 거래 내역을 비우면 필터도 버린다. 다음 업로드 때 빈 내역으로 다시 만든다.
+    public void evict(Long userId)
+    {
+        filters.remove(userId);
+    }
+
+    private Bloom filterFor(Long userId)
+    {
+        sweep();
+        Bloom bloom = filters.get(userId);
+        if (bloom == null) {
+            // DB를 읽는 동안 맵의 락을 잡지 않도록 밖에서 만들고 넣는다. 동시에 만들면 먼저 넣은 쪽을 쓴다.
+            Bloom built = build(userId);
+            bloom = filters.putIfAbsent(userId, built);
+            if (bloom == null) bloom = built;
+        }
+        bloom.touch();
+        return bloom;
+    }
+
+    // 지운 거래의 툼스톤도 넣어서, 다시 올린 행이 DB 확인까지 가서 툼스톤에 걸리게 한다.
+    private Bloom build(Long userId)
+    {
+        List<Long> hashes = transactionRepository.findKeyHashes(userId);
+        List<String> unhashed = transactionRepository.findKeysWithoutHash(userId);
+        List<Long> purged = tombstones.findHashes(userId);
+        int count = hashes.size() + unhashed.size() + purged.size();
+        Bloom bloom = new Bloom(Math.max(MIN_CAPACITY, count * 2));
+        hashes.forEach(bloom::put);
+        purged.forEach(bloom::put);
+        unhashed.forEach(key -> bloom.put(Transaction.hashKey(key)));
+        builds.increment();
+        return bloom;
+    }
+
+    // 한동안 업로드하지 않은 사용자의 필터를 버리고, 그래도 많으면 오래 안 쓴 순서로 버린다.
+    private void sweep()
+    {
+        Instant now = Instant.now();
+        if (filters.size() <= maxUsers && lastSweep.plus(SWEEP_INTERVAL).isAfter(now)) return;
+        lastSweep = now;
+        Instant threshold = now.minus(idleTimeout);
+        filters.values().removeIf(bloom -> bloom.lastUsed.isBefore(threshold));
+        int excess = filters.size() - maxUsers;
+        if (excess <= 0) return;
+        filters.entrySet().stream()
+            .sorted(Comparator.comparing(entry -> entry.getValue().lastUsed))
+            .limit(excess)
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(filters::remove);
+    }
+
+    // 키 해시가 이미 SHA-256에서 나온 값이라 두 32비트 반쪽으로 이중 해싱해서 비트 위치를 만든다.
+    private static class Bloom {
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int capacity;
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile Instant lastUsed = Instant.now();
+
+        Bloom(int capacity)
+        {
+            this.capacity = capacity;
+            this.numBits = (long) capacity * BITS_PER_KEY;
+            this.bits = new AtomicLongArray((int) ((numBits + 63) / 64));
+        }
+
+        void put(long hash)
+        {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, numBits);
+                long mask = 1L << index;
+                int word = (int) (index >>> 6);
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) break;
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+            size.incrementAndGet();
+        }
+
+        boolean mightContain(long hash)
+        {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, numBits);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) return false;
+            }
+            return true;
+        }
+
+        boolean isFull()
+        {
+            return size.get() > capacity;
+        }
+
+        void touch()
+        {
+            lastUsed = Instant.now();
+        }
+    }
+}
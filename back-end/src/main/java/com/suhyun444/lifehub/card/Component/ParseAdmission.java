@@ -0,0 +1,98 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// 동시에 POI를 돌리는 업로드들이 힙 예산을 넘지 않게 한다. 예산은 KB 단위 허가(permit)로 나눈 공정 세마포어다.
+// 예산이 모자라면 max-wait 동안 줄을 서고, 그래도 안 되면 RejectedExecutionException으로 돌려보낸다.
+// 대기열 길이, 대기 시간, 거절 수, 사용 중인 예산은 /actuator/metrics의 upload.admission.* 로 볼 수 있다.
+@Component
+public class ParseAdmission {
+    private static final long KB = 1024;
+    // 파일 크기 대비 대략적인 파싱 중 힙 사용량. xlsx는 압축된 XML의 공유 문자열 테이블을 통째로 올리고,
+    // xls는 파일을 매핑해서 읽되 SST 레코드를 힙에 올린다. CSV는 매핑된 파일을 훑기만 하므로 만들어진 행 몫만 잡는다.
+    // 행 버퍼와 파이프라인 큐 몫으로 고정 비용을 더한다.
+    private static final int OOXML_FACTOR = 6;
+    private static final int OLE2_FACTOR = 3;
+    private static final int TEXT_FACTOR = 1;
+    private static final long BASE_COST = 2 * KB * KB;
+
+    private final Semaphore budget;
+    private final int budgetPermits;
+    private final long maxWaitMillis;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ParseAdmission(@Value("${upload.admission.budget-bytes:0}") long budgetBytes,
+                          @Value("${upload.admission.max-wait-ms:5000}") long maxWaitMillis,
+                          MeterRegistry meterRegistry)
+    {
+        // 설정하지 않으면 최대 힙의 4분의 1을 파싱에 쓴다.
+        long bytes = budgetBytes > 0 ? budgetBytes : Runtime.getRuntime().maxMemory() / 4;
+        this.budgetPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / KB));
+        this.budget = new Semaphore(budgetPermits, true);
+        this.maxWaitMillis = maxWaitMillis;
+        this.waitTimer = Timer.builder("upload.admission.wait").register(meterRegistry);
+        this.rejected = Counter.builder("upload.admission.rejected").register(meterRegistry);
+        Gauge.builder("upload.admission.queue.depth", budget, Semaphore::getQueueLength).register(meterRegistry);
+        Gauge.builder("upload.admission.budget.used.bytes", budget, b -> (double) (budgetPermits - b.availablePermits()) * KB)
+            .register(meterRegistry);
+    }
+
+    public Permit acquire(SpooledUpload upload) throws IOException, InterruptedException
+    {
+        int permits = permitsFor(estimateBytes(upload));
+        long start = System.nanoTime();
+        boolean admitted = budget.tryAcquire(permits, maxWaitMillis, TimeUnit.MILLISECONDS);
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!admitted) {
+            rejected.increment();
+            throw new RejectedExecutionException("Too many statements are being parsed");
+        }
+        return new Permit(permits);
+    }
+
+    public static long estimateBytes(SpooledUpload upload) throws IOException
+    {
+        FileMagic magic = FileMagic.valueOf(upload.getFile());
+        int factor = magic == FileMagic.OOXML ? OOXML_FACTOR : magic == FileMagic.OLE2 ? OLE2_FACTOR : TEXT_FACTOR;
+        return BASE_COST + upload.getSize() * factor;
+    }
+
+    // 예산보다 큰 파일은 예산 전체를 잡고 혼자 돈다. 영원히 기다리게 두지 않는다.
+    private int permitsFor(long bytes)
+    {
+        return (int) Math.min(budgetPermits, Math.max(1, (bytes + KB - 1) / KB));
+    }
+
+    public class Permit implements AutoCloseable {
+        private final int permits;
+        private boolean released = false;
+
+        private Permit(int permits)
+        {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close()
+        {
+            if (released) return;
+            released = true;
+            budget.release(permits);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Entity.ImportWatermark;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+import com.suhyun444.lifehub.card.Repository.ImportWatermarkRepository;
+import com.suhyun444.lifehub.card.Repository.TransactionTombstones;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// 지운 지 보관 기간이 지난 거래 내역을 실제로 지운다.
+// 가져오기가 끝난 구간의 행만 지우도록 워터마크가 덮는 행만 고른다.
+// 지운 행은 같은 명세서를 다시 올렸을 때 되살아나지 않도록, 지우기 전에 (사용자, 키 해시) 툼스톤을 남긴다.
+@Slf4j
+@Component
+public class SoftDeleteCompactor {
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportWatermarkRepository importWatermarkRepository;
+    private final TransactionTombstones tombstones;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Duration retention;
+    private final Counter reclaimed;
+
+    public SoftDeleteCompactor(JdbcTemplate jdbcTemplate,
+                               ImportWatermarkRepository importWatermarkRepository,
+                               TransactionTombstones tombstones,
+                               @Value("${transaction.compaction.batch-size:500}") int batchSize,
+                               @Value("${transaction.compaction.pause-ms:200}") long pauseMillis,
+                               @Value("${transaction.compaction.retention-days:30}") long retentionDays,
+                               MeterRegistry meterRegistry)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.importWatermarkRepository = importWatermarkRepository;
+        this.tombstones = tombstones;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.retention = Duration.ofDays(retentionDays);
+        this.reclaimed = Counter.builder("transaction.compaction.reclaimed").register(meterRegistry);
+    }
+
+    public record Result(int scanned, int reclaimed, int kept) {}
+
+    @Scheduled(cron = "${transaction.compaction.cron:0 30 4 * * *}")
+    public void scheduledRun()
+    {
+        try {
+            long started = System.nanoTime();
+            Result result = compact();
+            log.info("Compaction reclaimed {} of {} soft-deleted transactions ({} kept outside watermark) in {} ms",
+                    result.reclaimed(), result.scanned(), result.kept(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Soft-delete compaction stopped", e);
+        }
+    }
+
+    // id 순서로 batchSize 행씩 훑고 배치마다 쉬어서, 한 번에 잡는 락은 그 배치뿐이고 앞단 조회가 끼어들 틈을 남긴다.
+    public Result compact()
+    {
+        LocalDateTime now = LocalDateTime.now();
+        stampLegacyRows(now);
+
+        LocalDateTime cutoff = now.minus(retention);
+        Map<Long, List<ImportWatermark>> watermarks = new HashMap<>();
+        long lastId = 0;
+        int scanned = 0;
+        int deleted = 0;
+        while (true) {
+            List<Candidate> batch = jdbcTemplate.query(
+                "SELECT id, user_id, date, transaction_key FROM transaction "
+                    + "WHERE id > ? AND is_deleted = true AND deleted_at < ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Candidate(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4)),
+                lastId, cutoff, batchSize);
+            if (batch.isEmpty()) break;
+            scanned += batch.size();
+            lastId = batch.get(batch.size() - 1).id();
+
+            List<Object[]> covered = new ArrayList<>();
+            List<Object[]> purgedKeys = new ArrayList<>();
+            for (Candidate candidate : batch) {
+                LocalDate date = StatementDates.parseDate(candidate.date());
+                List<ImportWatermark> userWatermarks = watermarks.computeIfAbsent(candidate.userId(), importWatermarkRepository::findAllByUserId);
+                if (userWatermarks.stream().anyMatch(watermark -> watermark.covers(date, candidate.transactionKey()))) {
+                    covered.add(new Object[]{candidate.id()});
+                    purgedKeys.add(new Object[]{candidate.userId(), Transaction.hashKey(candidate.transactionKey())});
+                }
+            }
+            if (!covered.isEmpty()) {
+                // 툼스톤을 먼저 남긴다. 지우기 전에 멈추면 툼스톤만 남지만, 행이 아직 있어서 결과는 같다.
+                tombstones.record(purgedKeys, now);
+                for (int count : jdbcTemplate.batchUpdate("DELETE FROM transaction WHERE id = ? AND is_deleted = true", covered)) {
+                    deleted += count;
+                }
+            }
+            if (batch.size() < batchSize || !pause()) break;
+        }
+        reclaimed.increment(deleted);
+        return new Result(scanned, deleted, scanned - deleted);
+    }
+
+    // deletedAt이 생기기 전에 지운 행은 지금 지운 것으로 보고 보관 기간을 새로 센다.
+    private void stampLegacyRows(LocalDateTime now)
+    {
+        while (jdbcTemplate.update(
+                "UPDATE transaction SET deleted_at = ? WHERE is_deleted = true AND deleted_at IS NULL LIMIT ?",
+                now, batchSize) > 0) {
+            if (!pause()) return;
+        }
+    }
+
+    private boolean pause()
+    {
+        if (pauseMillis <= 0) return true;
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Candidate(long id, long userId, String date, String transactionKey) {}
+}
@@ -0,0 +1,114 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+
+import lombok.extern.slf4j.Slf4j;
+
+// category, payment_method 문자열 컬럼을 쓰던 DB를 코드 컬럼으로 옮긴다.
+// ddl-auto=update는 새 코드 컬럼을 0으로 채워 추가만 하고 예전 NOT NULL 컬럼은 그대로 두므로,
+// 기동 직후 예전 컬럼을 NULL 허용으로 바꿔 새 INSERT가 막히지 않게 하고, 코드는 TransactionKeyBackfill처럼 id 순서로 채운다.
+// 예전 컬럼은 지우지 않는다. 다 옮겨진 것을 확인한 뒤 손으로 DROP한다.
+@Slf4j
+@Component
+public class TransactionCodeMigration {
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryCodes categoryCodes;
+    private final PaymentMethodCodes paymentMethodCodes;
+    private final int batchSize;
+
+    public TransactionCodeMigration(JdbcTemplate jdbcTemplate,
+                                    CategoryCodes categoryCodes,
+                                    PaymentMethodCodes paymentMethodCodes,
+                                    @Value("${transaction.code-backfill.batch-size:1000}") int batchSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryCodes = categoryCodes;
+        this.paymentMethodCodes = paymentMethodCodes;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        try {
+            if (!relaxLegacyColumns()) return;
+        } catch (RuntimeException e) {
+            log.warn("Could not relax legacy category/payment_method columns", e);
+            return;
+        }
+        Thread.ofVirtual().name("transaction-code-backfill").start(() -> {
+            try {
+                int filled = backfill();
+                if (filled > 0) log.info("Filled category/payment method codes for {} transactions", filled);
+            } catch (RuntimeException e) {
+                log.warn("Transaction code backfill stopped", e);
+            }
+        });
+    }
+
+    // 예전 컬럼이 있으면 NULL을 허용하게 바꾸고 true를 돌려준다.
+    public boolean relaxLegacyColumns()
+    {
+        if (!hasColumn("transaction", "category")) return false;
+        jdbcTemplate.execute("ALTER TABLE transaction MODIFY category VARCHAR(255) NULL");
+        jdbcTemplate.execute("ALTER TABLE transaction MODIFY payment_method VARCHAR(255) NULL");
+        if (hasColumn("transaction_import_stage", "payment_method")) {
+            jdbcTemplate.execute("ALTER TABLE transaction_import_stage MODIFY payment_method VARCHAR(255) NULL");
+        }
+        return true;
+    }
+
+    // 옮긴 행은 예전 값을 비워서 다음 기동 때 다시 읽지 않는다.
+    public int backfill()
+    {
+        long lastId = 0;
+        int filled = 0;
+        while (true) {
+            // 행을 다 읽고 연결을 돌려준 뒤에 코드를 찾는다. 읽는 중에 코드를 넣으면 연결을 하나 더 잡는다.
+            List<Object[]> batch = jdbcTemplate.query(
+                "SELECT id, category, payment_method FROM transaction WHERE id > ? AND category IS NOT NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{rs.getString(2), rs.getString(3), rs.getLong(1)},
+                lastId, batchSize);
+            if (batch.isEmpty()) return filled;
+
+            for (Object[] row : batch) {
+                row[0] = categoryCodes.code((String) row[0]);
+                row[1] = row[1] == null ? null : paymentMethodCodes.code((String) row[1]);
+            }
+            jdbcTemplate.batchUpdate("UPDATE transaction SET category_code = ?, payment_method_code = COALESCE(?, payment_method_code), "
+                    + "category = NULL, payment_method = NULL WHERE id = ?", batch);
+            filled += batch.size();
+            lastId = (Long) batch.get(batch.size() - 1)[2];
+        }
+    }
+
+    private boolean hasColumn(String table, String column)
+    {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            // MariaDB는 소문자, H2는 대문자로 이름을 돌려준다.
+            return hasColumn(connection, table, column) || hasColumn(connection, table.toUpperCase(), column.toUpperCase());
+        });
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException
+    {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, column)) {
+            return columns.next();
+        }
+    }
+}
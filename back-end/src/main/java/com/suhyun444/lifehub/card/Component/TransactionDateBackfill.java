@@ -0,0 +1,69 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+
+import lombok.extern.slf4j.Slf4j;
+
+// transactionDate 컬럼이 생기기 전에 저장된 행의 날짜를 date 문자열에서 채운다. TransactionKeyBackfill과 같은 방식이다.
+// 형식을 알 수 없는 날짜는 새로 가져오는 행과 같이 StatementDates.UNDATED로 채우며, 그런 행은 월/기간 조회에 나오지 않는다.
+// 끝나기 전(isComplete가 false)에는 가져오기가 중복 확인을 날짜 범위로 좁히지 않는다.
+@Slf4j
+@Component
+public class TransactionDateBackfill {
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile boolean complete;
+
+    public TransactionDateBackfill(JdbcTemplate jdbcTemplate,
+                                   @Value("${transaction.date-backfill.batch-size:1000}") int batchSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        Thread.ofVirtual().name("transaction-date-backfill").start(() -> {
+            try {
+                int filled = backfill();
+                if (filled > 0) log.info("Filled transaction date for {} transactions", filled);
+            } catch (RuntimeException e) {
+                log.warn("Transaction date backfill stopped", e);
+            }
+        });
+    }
+
+    public int backfill()
+    {
+        long lastId = 0;
+        int filled = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(
+                "SELECT id, date FROM transaction WHERE id > ? AND transaction_date IS NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{StatementDates.parseDateOrUndated(rs.getString(2)), rs.getLong(1)},
+                lastId, batchSize);
+            if (batch.isEmpty()) {
+                complete = true;
+                return filled;
+            }
+
+            jdbcTemplate.batchUpdate("UPDATE transaction SET transaction_date = ? WHERE id = ? AND transaction_date IS NULL", batch);
+            filled += batch.size();
+            lastId = (Long) batch.get(batch.size() - 1)[1];
+        }
+    }
+
+    public boolean isComplete()
+    {
+        return complete;
+    }
+}
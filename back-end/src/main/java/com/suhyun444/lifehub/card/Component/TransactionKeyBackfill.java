@@ -0,0 +1,124 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+
+import lombok.extern.slf4j.Slf4j;
+
+// keyHash 컬럼이 생기기 전에 저장된 행의 해시를 채운다. 기동이 끝나면 가상 스레드 하나에서 돈다.
+// id 순서로 batchSize 행씩 읽고 바로 갱신하므로, 한 번에 잡는 락은 그 배치뿐이고 중간에 멈춰도 다음 기동에 이어서 한다.
+// 다 채운 뒤에는 예전 전역 transaction_key 유일 인덱스를 지운다. 그 전까지는 해시가 빈 행의 중복을 그 인덱스가 막는다.
+// 끝나기 전(isComplete가 false)에는 가져오기가 해시가 빈 행도 키 문자열로 찾는다.
+@Slf4j
+@Component
+public class TransactionKeyBackfill {
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile boolean complete;
+
+    public TransactionKeyBackfill(JdbcTemplate jdbcTemplate,
+                                  @Value("${transaction.key-backfill.batch-size:1000}") int batchSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        Thread.ofVirtual().name("key-hash-backfill").start(() -> {
+            try {
+                int filled = backfill();
+                if (filled > 0) log.info("Filled key hash for {} transactions", filled);
+                List<String> dropped = dropLegacyKeyIndexes();
+                if (!dropped.isEmpty()) log.info("Dropped legacy transaction_key unique indexes {}", dropped);
+            } catch (RuntimeException e) {
+                log.warn("Key hash backfill stopped", e);
+            }
+        });
+    }
+
+    public int backfill()
+    {
+        long lastId = 0;
+        int filled = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(
+                "SELECT id, transaction_key FROM transaction WHERE id > ? AND key_hash IS NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{Transaction.hashKey(rs.getString(2)), rs.getLong(1)},
+                lastId, batchSize);
+            if (batch.isEmpty()) {
+                // 새로 들어가는 행은 모두 해시를 갖고 들어가므로 한 번 다 돌면 다시 비지 않는다.
+                complete = true;
+                return filled;
+            }
+
+            jdbcTemplate.batchUpdate("UPDATE transaction SET key_hash = ? WHERE id = ? AND key_hash IS NULL", batch);
+            filled += batch.size();
+            lastId = (Long) batch.get(batch.size() - 1)[1];
+        }
+    }
+
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    // transaction_key 하나만으로 된 유일 인덱스를 지운다. 다른 사용자의 같은 키를 막고, 가져오기의 ON DUPLICATE KEY가 그 충돌을 조용히 건너뛰게 한다.
+    // 해시가 빈 행이 남아 있으면 지우지 않는다.
+    public List<String> dropLegacyKeyIndexes()
+    {
+        if (!complete) return List.of();
+        List<String> indexes = findLegacyKeyIndexes();
+        if (indexes.isEmpty()) return indexes;
+        if (!isMariaDb()) {
+            log.warn("Legacy transaction_key unique indexes {} remain, drop them by hand", indexes);
+            return List.of();
+        }
+        for (String index : indexes) {
+            jdbcTemplate.execute("ALTER TABLE transaction DROP INDEX `" + index + "`");
+        }
+        return indexes;
+    }
+
+    public List<String> findLegacyKeyIndexes()
+    {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? "TRANSACTION" : "transaction";
+            Map<String, List<String>> columns = new LinkedHashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index == null || column == null) continue;
+                    columns.computeIfAbsent(index, key -> new ArrayList<>()).add(column);
+                }
+            }
+            List<String> legacy = new ArrayList<>();
+            columns.forEach((index, indexColumns) -> {
+                if (indexColumns.size() == 1 && indexColumns.get(0).equalsIgnoreCase("transaction_key")) legacy.add(index);
+            });
+            return legacy;
+        });
+    }
+
+    private boolean isMariaDb()
+    {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && (product.equalsIgnoreCase("MariaDB") || product.equalsIgnoreCase("MySQL"));
+    }
+}
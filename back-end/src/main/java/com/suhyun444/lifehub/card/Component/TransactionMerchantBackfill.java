@@ -0,0 +1,66 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Repository.MerchantDictionary;
+
+import lombok.extern.slf4j.Slf4j;
+
+// merchant 사전이 생기기 전에 저장된 행의 merchantId를 채운다. TransactionKeyBackfill과 같은 방식이다.
+@Slf4j
+@Component
+public class TransactionMerchantBackfill {
+    private final JdbcTemplate jdbcTemplate;
+    private final MerchantDictionary merchantDictionary;
+    private final int batchSize;
+
+    public TransactionMerchantBackfill(JdbcTemplate jdbcTemplate,
+                                       MerchantDictionary merchantDictionary,
+                                       @Value("${transaction.merchant-backfill.batch-size:1000}") int batchSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.merchantDictionary = merchantDictionary;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        Thread.ofVirtual().name("merchant-id-backfill").start(() -> {
+            try {
+                int filled = backfill();
+                if (filled > 0) log.info("Filled merchant id for {} transactions", filled);
+            } catch (RuntimeException e) {
+                log.warn("Merchant id backfill stopped", e);
+            }
+        });
+    }
+
+    public int backfill()
+    {
+        long lastId = 0;
+        int filled = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(
+                "SELECT id, merchant FROM transaction WHERE id > ? AND merchant_id IS NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{rs.getString(2), rs.getLong(1)},
+                lastId, batchSize);
+            if (batch.isEmpty()) return filled;
+
+            Map<String, Integer> ids = merchantDictionary.resolve(batch.stream().map(row -> (String) row[0]).distinct().toList());
+            List<Object[]> updates = new ArrayList<>(batch.size());
+            for (Object[] row : batch) updates.add(new Object[]{ids.get((String) row[0]), row[1]});
+            jdbcTemplate.batchUpdate("UPDATE transaction SET merchant_id = ? WHERE id = ? AND merchant_id IS NULL", updates);
+            filled += batch.size();
+            lastId = (Long) batch.get(batch.size() - 1)[1];
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+
+import lombok.extern.slf4j.Slf4j;
+
+// MariaDB에서 transaction 테이블을 transaction_date 기준 월별 RANGE COLUMNS 파티션으로 나누고, 앞으로 쓸 달의 파티션을 미리 만든다.
+// 월/기간 조회는 transaction_date >= ? AND transaction_date < ? 형태라 해당 달의 파티션만 읽는다.
+// 파티션 테이블은 모든 유일 키에 파티션 컬럼이 있어야 하고 외래 키를 쓸 수 없어서, 처음 나눌 때
+// 기본 키를 (id, transaction_date)로, (user_id, key_hash) 유일 키를 (user_id, key_hash, transaction_date)로 바꾸고 user 외래 키를 지운다.
+// transactionKey에 날짜가 들어 있으므로 중복 판단은 그대로다.
+// 켜져 있을 때만 돈다(transaction.partitioning.enabled). 테이블 전체를 다시 쓰므로 처음 나누는 것은 한가한 시간에 한다.
+// 엔티티는 나누지 않은 테이블 기준으로 (user_id, key_hash) 유일 키와 user 외래 키를 선언하고 있어서, ddl-auto=update면 기동할 때마다
+// 지운 키를 다시 만들려고 한다. 그래서 파티션을 켠 채 ddl-auto=update로 뜨면 기동을 멈춘다. validate나 none으로 돌린다.
+@Slf4j
+@Component
+public class TransactionPartitioner {
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final String UNDATED_PARTITION = "p_undated";
+    private static final String UNIQUE_KEY = "uk_transaction_user_key_date";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionDateBackfill dateBackfill;
+    private final boolean enabled;
+    private final int monthsAhead;
+
+    public TransactionPartitioner(JdbcTemplate jdbcTemplate,
+                                  TransactionDateBackfill dateBackfill,
+                                  @Value("${transaction.partitioning.enabled:false}") boolean enabled,
+                                  @Value("${transaction.partitioning.months-ahead:3}") int monthsAhead,
+                                  @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto)
+    {
+        if (enabled && "update".equalsIgnoreCase(ddlAuto.trim())) {
+            throw new IllegalStateException("transaction.partitioning.enabled requires spring.jpa.hibernate.ddl-auto=validate or none, "
+                + "update would re-create the keys dropped for partitioning");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dateBackfill = dateBackfill;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        if (!enabled) return;
+        if (!isMariaDb()) {
+            log.warn("Transaction partitioning is enabled but the database is not MariaDB/MySQL, skipping");
+            return;
+        }
+        Thread.ofVirtual().name("transaction-partitioner").start(() -> {
+            try {
+                if (!isPartitioned()) partitionTable(YearMonth.now());
+                int added = addFuturePartitions(YearMonth.now());
+                if (added > 0) log.info("Added {} monthly transaction partitions", added);
+            } catch (RuntimeException e) {
+                log.warn("Transaction partitioning stopped", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${transaction.partitioning.cron:0 0 3 * * *}")
+    public void scheduledRun()
+    {
+        if (!enabled || !isMariaDb() || !isPartitioned()) return;
+        try {
+            int added = addFuturePartitions(YearMonth.now());
+            if (added > 0) log.info("Added {} monthly transaction partitions", added);
+        } catch (RuntimeException e) {
+            log.warn("Adding transaction partitions failed", e);
+        }
+    }
+
+    // 파티션이 없는 테이블을 가장 오래된 달부터 이번 달 + monthsAhead까지 나눈다.
+    public void partitionTable(YearMonth current)
+    {
+        // 키에 들어갈 컬럼이라 비어 있는 날짜를 먼저 채운다. 형식을 알 수 없는 날짜는 UNDATED로 둔다.
+        dateBackfill.backfill();
+        jdbcTemplate.update("UPDATE transaction SET transaction_date = ? WHERE transaction_date IS NULL", StatementDates.UNDATED);
+
+        for (String foreignKey : jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS "
+                    + "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'transaction'", String.class)) {
+            jdbcTemplate.execute("ALTER TABLE transaction DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+
+        List<String> keyChanges = new ArrayList<>();
+        keyChanges.add("MODIFY transaction_date DATE NOT NULL DEFAULT '" + StatementDates.UNDATED + "'");
+        keyChanges.add("DROP PRIMARY KEY, ADD PRIMARY KEY (id, transaction_date)");
+        for (String uniqueKey : jdbcTemplate.queryForList(
+                "SELECT DISTINCT INDEX_NAME FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() "
+                    + "AND TABLE_NAME = 'transaction' AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'", String.class)) {
+            keyChanges.add("DROP INDEX `" + uniqueKey + "`");
+        }
+        keyChanges.add("ADD UNIQUE KEY " + UNIQUE_KEY + " (user_id, key_hash, transaction_date)");
+        jdbcTemplate.execute("ALTER TABLE transaction " + String.join(", ", keyChanges));
+
+        LocalDate oldest = jdbcTemplate.queryForObject(
+            "SELECT MIN(transaction_date) FROM transaction WHERE transaction_date > ?", LocalDate.class, StatementDates.UNDATED);
+        YearMonth first = oldest == null ? current : YearMonth.from(oldest);
+        jdbcTemplate.execute("ALTER TABLE transaction " + partitionClause(first, current.plusMonths(monthsAhead)));
+        log.info("Partitioned transaction table by month from {}", first);
+    }
+
+    // 마지막 달 파티션 뒤로 이번 달 + monthsAhead까지 빈 파티션을 붙인다. p_future에는 보통 행이 없어서 금방 끝난다.
+    public int addFuturePartitions(YearMonth current)
+    {
+        List<String> names = jdbcTemplate.queryForList(
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                + "AND TABLE_NAME = 'transaction' ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+        List<YearMonth> missing = missingMonths(names, current.plusMonths(monthsAhead));
+        if (missing.isEmpty()) return 0;
+
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month : missing) definitions.add(monthPartition(month));
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE transaction REORGANIZE PARTITION " + FUTURE_PARTITION
+            + " INTO (" + String.join(", ", definitions) + ")");
+        return missing.size();
+    }
+
+    private static String partitionClause(YearMonth first, YearMonth last)
+    {
+        List<String> definitions = new ArrayList<>();
+        definitions.add("PARTITION " + UNDATED_PARTITION + " VALUES LESS THAN ('" + StatementDates.UNDATED.plusDays(1) + "')");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add(monthPartition(month));
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return "PARTITION BY RANGE COLUMNS(transaction_date) (" + String.join(", ", definitions) + ")";
+    }
+
+    // 기존 월 파티션 이름(pYYYYMM) 중 가장 늦은 달 다음부터 last까지를 돌려준다.
+    private static List<YearMonth> missingMonths(List<String> partitionNames, YearMonth last)
+    {
+        YearMonth latest = null;
+        for (String name : partitionNames) {
+            if (!name.matches("p\\d{6}")) continue;
+            YearMonth month = YearMonth.parse(name.substring(1), DateTimeFormatter.ofPattern("yyyyMM"));
+            if (latest == null || month.isAfter(latest)) latest = month;
+        }
+        List<YearMonth> missing = new ArrayList<>();
+        if (latest == null) return missing;
+        for (YearMonth month = latest.plusMonths(1); !month.isAfter(last); month = month.plusMonths(1)) {
+            missing.add(month);
+        }
+        return missing;
+    }
+
+    private static String monthPartition(YearMonth month)
+    {
+        return "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private boolean isPartitioned()
+    {
+        Integer partitions = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                + "AND TABLE_NAME = 'transaction' AND PARTITION_NAME IS NOT NULL", Integer.class);
+        return partitions != null && partitions > 0;
+    }
+
+    private boolean isMariaDb()
+    {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && (product.equalsIgnoreCase("MariaDB") || product.equalsIgnoreCase("MySQL"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.suhyun444.lifehub.card.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Entity.UploadDigest;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.UploadDigestRepository;
+import com.suhyun444.lifehub.card.Upload.UploadProgress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// 사용자별로 이미 가져온 파일의 다이제스트를 기억해서, 같은 파일이면 POI를 열기 전에 끝낸다.
+// 적중 수와 그 덕분에 건너뛴 행 수는 /actuator/metrics의 upload.digest.* 로 볼 수 있다.
+@Component
+public class UploadDigestCache {
+    private final UploadDigestRepository uploadDigestRepository;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter skippedRows;
+
+    public UploadDigestCache(UploadDigestRepository uploadDigestRepository, MeterRegistry meterRegistry)
+    {
+        this.uploadDigestRepository = uploadDigestRepository;
+        this.hits = Counter.builder("upload.digest.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("upload.digest.lookups").tag("result", "miss").register(meterRegistry);
+        this.skippedRows = Counter.builder("upload.digest.skipped.rows").register(meterRegistry);
+    }
+
+    // 호출자의 트랜잭션 안에서 불려야 적중 횟수 갱신이 반영된다.
+    public Optional<UploadDigest> lookup(Long userId, String digest)
+    {
+        Optional<UploadDigest> found = uploadDigestRepository.findByUserIdAndDigest(userId, digest);
+        found.ifPresentOrElse(
+            uploadDigest -> {
+                uploadDigest.recordHit();
+                hits.increment();
+                skippedRows.increment(uploadDigest.getParsedCount());
+            },
+            misses::increment);
+        return found;
+    }
+
+    // 같은 파일이 동시에 들어오면 둘 다 lookup에서 놓치고 여기까지 온다. 저장은 upsert라 나중 요청이 실패하지 않는다.
+    public void record(User user, String digest, UploadProgress progress)
+    {
+        uploadDigestRepository.upsert(user.getId(), digest,
+                progress.getParsed(), progress.getInserted(), progress.getDuplicates(), LocalDateTime.now());
+    }
+
+    // 거래 내역을 비우면 같은 파일을 다시 올렸을 때 다시 가져와야 한다.
+    public void clear(Long userId)
+    {
+        uploadDigestRepository.deleteAllByUserId(userId);
+    }
+}
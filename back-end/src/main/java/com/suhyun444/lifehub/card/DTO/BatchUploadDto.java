@@ -0,0 +1,44 @@
+package com.suhyun444.lifehub.card.DTO;
+
+import java.util.List;
+
+import com.suhyun444.lifehub.card.Upload.UploadProgress;
+
+public class BatchUploadDto {
+
+    public enum FileStatus {
+        imported,
+        cached,
+        failed
+    }
+
+    // 파일(ZIP이면 항목) 하나의 처리 결과
+    public record FileResult(String fileName, FileStatus status, int parsed, int inserted, int duplicates, int skippedZeroAmount, String message) {
+        public static FileResult of(String fileName, FileStatus status, UploadProgress progress, String message) {
+            return new FileResult(
+                fileName,
+                status,
+                progress.getParsed(),
+                progress.getInserted(),
+                progress.getDuplicates(),
+                progress.getSkippedZeroAmount(),
+                message
+            );
+        }
+    }
+
+    // 전체 합계와 새로 들어간 행. 파일이 몇 개든 DB 저장은 한 번에 합쳐서 한다.
+    public record Response(List<FileResult> files, List<TransactionDto> transactions, int parsed, int inserted, int duplicates, int skippedZeroAmount, long dataVersion) {
+        public static Response of(List<FileResult> files, List<TransactionDto> transactions, long dataVersion) {
+            return new Response(
+                files,
+                transactions,
+                files.stream().mapToInt(FileResult::parsed).sum(),
+                files.stream().mapToInt(FileResult::inserted).sum(),
+                files.stream().mapToInt(FileResult::duplicates).sum(),
+                files.stream().mapToInt(FileResult::skippedZeroAmount).sum(),
+                dataVersion
+            );
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.suhyun444.lifehub.card.DTO;
+
+import java.util.List;
+
+public class BulkEditDto {
+
+    public enum ItemStatus {
+        updated,
+        deleted,
+        not_found,
+        invalid
+    }
+
+    // 값이 있는 필드만 바꾼다. deleted가 true면 나머지 필드는 무시하고 지운다.
+    public record Operation(Long id, String category, Integer amount, Boolean deleted) {}
+
+    public record Request(List<Operation> operations) {}
+
+    // 요청 항목 하나의 처리 결과. 바뀐 행은 바뀐 뒤의 값을 담는다.
+    public record ItemResult(Long id, ItemStatus status, TransactionDto transaction, String message) {
+        public static ItemResult of(Long id, ItemStatus status) {
+            return new ItemResult(id, status, null, null);
+        }
+        public static ItemResult invalid(Long id, String message) {
+            return new ItemResult(id, ItemStatus.invalid, null, message);
+        }
+    }
+
+    public record Response(List<ItemResult> results, int updated, int deleted, int failed) {
+        public static Response of(List<ItemResult> results) {
+            return new Response(
+                results,
+                (int) results.stream().filter(result -> result.status() == ItemStatus.updated).count(),
+                (int) results.stream().filter(result -> result.status() == ItemStatus.deleted).count(),
+                (int) results.stream().filter(result -> result.status() == ItemStatus.not_found || result.status() == ItemStatus.invalid).count()
+            );
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.suhyun444.lifehub.card.DTO;
+
+import com.suhyun444.lifehub.card.LedgerClearJob;
+
+public record LedgerClearDto(String jobId, UploadJobStatus status, int deletedTransactions, int deletedAnalyses, String message) {
+    public static LedgerClearDto from(LedgerClearJob job) {
+        return new LedgerClearDto(
+            job.getId(),
+            job.getStatus(),
+            job.getDeletedTransactions(),
+            job.getDeletedAnalyses(),
+            job.getMessage()
+        );
+    }
+}
@@ -1,5 +1,5 @@
 package com.suhyun444.lifehub.card.DTO;
 
 // record를 사용하면 생성자, getter, equals, hashCode 등을 자동으로 만들어줍니다.
-public record MerchantCategoryDto(String merchant, String category) {
-}
\ No newline at end of file
+public record MerchantCategoryDto(Integer merchantId, String category) {
+}
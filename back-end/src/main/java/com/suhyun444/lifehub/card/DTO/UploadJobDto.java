@@ -0,0 +1,18 @@
+package com.suhyun444.lifehub.card.DTO;
+
+import com.suhyun444.lifehub.card.Upload.UploadJob;
+
+public record UploadJobDto(String jobId, UploadJobStatus status, int parsed, int inserted, int duplicates, int skippedZeroAmount, boolean cached, String message) {
+    public static UploadJobDto from(UploadJob job) {
+        return new UploadJobDto(
+            job.getId(),
+            job.getStatus(),
+            job.getProgress().getParsed(),
+            job.getProgress().getInserted(),
+            job.getProgress().getDuplicates(),
+            job.getProgress().getSkippedZeroAmount(),
+            job.getProgress().isCached(),
+            job.getMessage()
+        );
+    }
+}
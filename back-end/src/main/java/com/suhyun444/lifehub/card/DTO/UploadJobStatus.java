@@ -0,0 +1,8 @@
+package com.suhyun444.lifehub.card.DTO;
+
+public enum UploadJobStatus{
+    queued,
+    running,
+    completed,
+    failed
+};
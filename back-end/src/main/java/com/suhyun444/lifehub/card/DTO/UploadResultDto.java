@@ -0,0 +1,20 @@
+package com.suhyun444.lifehub.card.DTO;
+
+import java.util.List;
+
+import com.suhyun444.lifehub.card.Upload.UploadProgress;
+
+// 업로드 응답. 전체 내역 대신 이번 업로드로 새로 들어간 행만 담는다.
+public record UploadResultDto(List<TransactionDto> transactions, int parsed, int inserted, int duplicates, int skippedZeroAmount, boolean cached, long dataVersion) {
+    public static UploadResultDto of(List<TransactionDto> transactions, UploadProgress progress, long dataVersion) {
+        return new UploadResultDto(
+            transactions,
+            progress.getParsed(),
+            progress.getInserted(),
+            progress.getDuplicates(),
+            progress.getSkippedZeroAmount(),
+            progress.isCached(),
+            dataVersion
+        );
+    }
+}
@@ -0,0 +1,5 @@
+package com.suhyun444.lifehub.card.DTO;
+
+public record UploadSessionCreateDto(String fileName, long size, String sha256) {
+    
+}
@@ -0,0 +1,14 @@
+package com.suhyun444.lifehub.card.DTO;
+
+import com.suhyun444.lifehub.card.Upload.UploadSession;
+
+public record UploadSessionDto(String sessionId, String fileName, long size, long offset) {
+    public static UploadSessionDto from(UploadSession session) {
+        return new UploadSessionDto(
+            session.getId(),
+            session.getFileName(),
+            session.getSize(),
+            session.getOffset()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package com.suhyun444.lifehub.card.Entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 카테고리 조회 테이블. 거래 내역은 이름 대신 이 테이블의 smallint id를 저장한다. 읽고 쓰는 것은 CategoryCodes가 JDBC로 한다.
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "category")
+public class Category {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
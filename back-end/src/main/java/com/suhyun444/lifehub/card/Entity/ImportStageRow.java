@@ -0,0 +1,56 @@
+package com.suhyun444.lifehub.card.Entity;
+
+import java.time.LocalDate;
+
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 스테이징 방식으로 가져올 때 파싱한 행을 잠시 담아두는 테이블. 읽고 쓰는 것은 TransactionImportStage가 JDBC로 한다.
+// 가져오기 하나마다 importId가 다르고, 가져오기를 연 트랜잭션 안에서 넣고 지우므로 커밋된 뒤에는 남지 않는다.
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "transaction_import_stage",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"import_id", "key_hash"}),
+       indexes = @Index(columnList = "import_id, merchant"))
+public class ImportStageRow {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String importId;
+
+    // 파일에서 읽은 순서. 최종 INSERT와 결과 목록을 이 순서로 만든다.
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(nullable = false)
+    private String transactionKey;
+    @Column(nullable = false)
+    private long keyHash;
+    @Column(nullable = false)
+    private String date;
+    private LocalDate transactionDate;
+    @Column(nullable = false)
+    private String merchant;
+    private Integer merchantId;
+    @Column(nullable = false)
+    private int amount;
+    private Short categoryCode;
+    private String description;
+    @Column(nullable = false)
+    private PaymentStatus status;
+    @Column(nullable = false)
+    private short paymentMethodCode;
+}
@@ -0,0 +1,90 @@
+package com.suhyun444.lifehub.card.Entity;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.suhyun444.lifehub.card.Component.Converter.KeySetConverter;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 사용자가 한 명세서 출처(파서 + 결제수단)에서 가져온 날짜 구간 [lowDate, highDate].
+// 카드마다 가져온 기간이 달라서 출처별로 따로 둔다.
+// highDate 당일은 명세서를 뽑은 시점에 따라 일부만 들어왔을 수 있어서, 그날 가져온 키를 함께 기억한다.
+// 구간 안의 행은 파싱하면서 DB에 묻지 않고 버리므로, 구간에는 실제로 가져온 날짜만 들어가야 한다.
+// 출처를 나누면서 user_id 유일 키가 있던 예전 import_watermark 대신 새 테이블을 쓴다. 예전 구간은 다시 쌓인다.
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "import_source_watermark",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "source"}))
+public class ImportWatermark {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, length = 150)
+    private String source;
+
+    private LocalDate lowDate;
+    private LocalDate highDate;
+
+    @Convert(converter = KeySetConverter.class)
+    @Column(columnDefinition = "TEXT")
+    private Set<String> boundaryKeys = new HashSet<>();
+
+    public ImportWatermark(User user, String source) {
+        this.user = user;
+        this.source = source;
+    }
+
+    public static String source(String parser, String paymentMethod) {
+        String source = parser + ":" + (paymentMethod == null ? "" : paymentMethod);
+        return source.length() <= 150 ? source : source.substring(0, 150);
+    }
+
+    // 이미 가져온 구간 안의 행이면 true. 구간 밖이나 날짜를 모르는 행은 처음부터 분류한다.
+    public boolean covers(LocalDate date, String transactionKey) {
+        if (date == null || highDate == null) return false;
+        if (date.isBefore(lowDate) || date.isAfter(highDate)) return false;
+        if (date.isBefore(highDate)) return true;
+        return boundaryKeys.contains(transactionKey);
+    }
+
+    // 가져오기가 끝난 파일의 구간을 합친다. 겹치는 파일만 합치고, 떨어진 파일이면 사이의 빈 기간을 덮지 않도록 더 최근 구간 하나만 남긴다.
+    // 파일 첫날이 예전 마지막 날짜 이후면 예전 마지막 날짜에 늦게 들어온 행이 빠져 있을 수 있어서 떨어진 것으로 본다.
+    public void advance(LocalDate fileLow, LocalDate fileHigh, Set<String> fileHighKeys) {
+        if (highDate == null || fileLow.isAfter(highDate)) {
+            lowDate = fileLow;
+            highDate = fileHigh;
+            boundaryKeys = new HashSet<>(fileHighKeys);
+            return;
+        }
+        if (fileHigh.isBefore(lowDate)) return;
+        if (fileLow.isBefore(lowDate)) lowDate = fileLow;
+        if (fileHigh.isAfter(highDate)) {
+            highDate = fileHigh;
+            boundaryKeys = new HashSet<>(fileHighKeys);
+        } else if (fileHigh.equals(highDate)) {
+            Set<String> merged = new HashSet<>(boundaryKeys);
+            merged.addAll(fileHighKeys);
+            boundaryKeys = merged;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.suhyun444.lifehub.card.Entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 상점 이름 사전. 이름마다 한 행이고, 거래 내역은 merchantId로 가리킨다. 읽고 쓰는 것은 MerchantDictionary가 JDBC로 한다.
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "merchant")
+public class Merchant {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -1,24 +1,46 @@
 package com.suhyun444.lifehub.card.Entity;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import com.suhyun444.lifehub.card.Component.Converter.CategoryCodeConverter;
+import com.suhyun444.lifehub.card.Component.Converter.PaymentMethodCodeConverter;
 import com.suhyun444.lifehub.card.DTO.PaymentStatus;
 import com.suhyun444.lifehub.card.DTO.TransactionDto;
+import com.suhyun444.lifehub.card.Parser.StatementDates;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "key_hash"}),
+       indexes = {
+           @Index(name = "idx_transaction_user_live_date", columnList = "user_id, is_deleted, transaction_date"),
+           @Index(name = "idx_transaction_merchant_date", columnList = "merchant_id, transaction_date"),
+           @Index(name = "idx_transaction_user_merchant_date", columnList = "user_id, merchant_id, transaction_date")
+       })
 @Builder
 @Getter
 @Setter
@@ -27,27 +49,59 @@ import jakarta.persistence.ManyToOne;
 public class Transaction {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @Column(unique = true, nullable = false)
+    // 화면과 워터마크에서 쓰는 읽을 수 있는 키. 중복 판단은 keyHash로 한다.
+    @Column(nullable = false)
     private String transactionKey;
+    // transactionKey의 SHA-256 앞 8바이트. 사용자별로 유일하고, 길이가 고정이라 인덱스가 작다.
+    // 예전 행은 TransactionKeyBackfill이 채우기 전까지 비어 있다.
+    private Long keyHash;
+    // 명세서에 적힌 그대로의 날짜 문자열. 화면과 키에 쓴다.
     @Column(nullable = false)
     private String date;
+    // date에서 꺼낸 날짜. 월/기간 조회는 이 컬럼과 (user, isDeleted, transactionDate) 인덱스로 한다.
+    // 형식을 알 수 없는 날짜면 StatementDates.UNDATED이고, 예전 행은 TransactionDateBackfill이 채운다.
+    private LocalDate transactionDate;
     @Column(nullable = false)
     private String merchant;
+    // merchant 사전의 id. 과거 카테고리 조회와 상점별 집계는 이 값으로 한다.
+    // 가져오기 경로가 채우고, 예전 행은 TransactionMerchantBackfill이 채운다.
+    private Integer merchantId;
     @Column(nullable = false)
     private int amount;
-    @Column(nullable = false)
+    // 카테고리와 결제 수단은 조회 테이블의 smallint 코드로 저장하고, 자바에서는 이름 그대로 다룬다.
+    @Convert(converter = CategoryCodeConverter.class)
+    @Column(name = "category_code", nullable = false)
     private String category;
     @Column(nullable = true)
     private String description;
     @Column(nullable = false)
     private PaymentStatus status;
-    @Column(nullable = false)
+    @Convert(converter = PaymentMethodCodeConverter.class)
+    @Column(name = "payment_method_code", nullable = false)
     private String paymentMethod;
     @Builder.Default
     @Column(nullable = false)
     private Boolean isDeleted = false;
+    // 지운 시각. 보관 기간이 지나면 SoftDeleteCompactor가 행을 실제로 지운다.
+    private LocalDateTime deletedAt;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "userId")
     private User user;
+
+    @PrePersist
+    @PreUpdate
+    void fillDerivedColumns() {
+        this.keyHash = hashKey(transactionKey);
+        this.transactionDate = StatementDates.parseDateOrUndated(date);
+    }
+
+    public static long hashKey(String transactionKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(transactionKey.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.suhyun444.lifehub.card.Entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 압축으로 실제로 지운 거래의 (사용자, 키 해시). 같은 명세서를 다시 올려도 지운 행이 되살아나지 않게 가져오기가 확인한다.
+// 읽고 쓰는 것은 TransactionTombstones가 JDBC로 한다.
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "transaction_tombstone",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "key_hash"}))
+public class TransactionTombstone {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long keyHash;
+
+    @Column(nullable = false)
+    private LocalDateTime purgedAt;
+}
@@ -0,0 +1,63 @@
+package com.suhyun444.lifehub.card.Entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 사용자가 이미 가져온 명세서 파일의 SHA-256과 그때의 결과.
+@Entity
+@Getter
+@NoArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "upload_digest",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "digest"}))
+public class UploadDigest {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Column(nullable = false, length = 64)
+    private String digest;
+
+    private int parsedCount;
+    private int insertedCount;
+    private int duplicateCount;
+    private int hitCount;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @Builder
+    public UploadDigest(User user, String digest, int parsedCount, int insertedCount, int duplicateCount) {
+        this.user = user;
+        this.digest = digest;
+        this.parsedCount = parsedCount;
+        this.insertedCount = insertedCount;
+        this.duplicateCount = duplicateCount;
+    }
+
+    public void recordHit() {
+        this.hitCount++;
+    }
+}
@@ -3,6 +3,8 @@ package com.suhyun444.lifehub.card.Entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,7 +12,6 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -18,14 +19,21 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class User {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long Id;
     @Column(nullable = false,unique = true)
     private String email;
+    // 거래 내역에 행이 추가되거나 비워질 때마다 올라간다. 클라이언트는 이 값으로 전체를 다시 받을지 정한다.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long ledgerVersion;
 
+    public User(Long Id, String email) {
+        this.Id = Id;
+        this.email = email;
+    }
     public User(String email) {
         this.email = email;
     }
@@ -0,0 +1,77 @@
+package com.suhyun444.lifehub.card;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.suhyun444.lifehub.card.DTO.UploadJobStatus;
+
+// 백그라운드로 거래 내역을 비우는 작업 한 건. 지운 행 수는 조각이 커밋될 때마다 올라간다.
+public class LedgerClearJob {
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final AtomicInteger deletedTransactions = new AtomicInteger();
+    private final AtomicInteger deletedAnalyses = new AtomicInteger();
+    private volatile UploadJobStatus status = UploadJobStatus.queued;
+    private volatile String message;
+    private volatile Instant finishedAt;
+
+    public LedgerClearJob(Long userId)
+    {
+        this.userId = userId;
+    }
+
+    public void start()
+    {
+        status = UploadJobStatus.running;
+    }
+    public void complete()
+    {
+        status = UploadJobStatus.completed;
+        finishedAt = Instant.now();
+    }
+    public void fail(String message)
+    {
+        this.message = message;
+        status = UploadJobStatus.failed;
+        finishedAt = Instant.now();
+    }
+    public boolean isFinishedBefore(Instant time)
+    {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(time);
+    }
+    public void addDeletedTransactions(int count)
+    {
+        deletedTransactions.addAndGet(count);
+    }
+    public void addDeletedAnalyses(int count)
+    {
+        deletedAnalyses.addAndGet(count);
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+    public Long getUserId()
+    {
+        return userId;
+    }
+    public int getDeletedTransactions()
+    {
+        return deletedTransactions.get();
+    }
+    public int getDeletedAnalyses()
+    {
+        return deletedAnalyses.get();
+    }
+    public UploadJobStatus getStatus()
+    {
+        return status;
+    }
+    public String getMessage()
+    {
+        return message;
+    }
+}
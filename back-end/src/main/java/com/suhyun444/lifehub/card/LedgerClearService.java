@@ -0,0 +1,134 @@
+package com.suhyun444.lifehub.card;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suhyun444.lifehub.User.UserRepository;
+import com.suhyun444.lifehub.card.Component.KnownKeyFilter;
+import com.suhyun444.lifehub.card.Component.UploadDigestCache;
+import com.suhyun444.lifehub.card.DTO.LedgerClearDto;
+import com.suhyun444.lifehub.card.Repository.ImportWatermarkRepository;
+import com.suhyun444.lifehub.card.Repository.LedgerEraser;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 사용자의 거래 내역과 분석 이력을 비운다. 행은 LedgerEraser가 조각마다 따로 커밋하며 지운다.
+// 가져오기 상태(다이제스트, 워터마크, 키 필터)를 먼저 지워서, 비우는 도중 올라온 업로드가 지워질 행을 이미 있다고 건너뛰지 않게 한다.
+// 비우는 도중 끝난 업로드가 남긴 상태도 있으므로 다 지운 뒤 한 번 더 지우고, 같은 트랜잭션에서 데이터 버전을 올린다.
+@Slf4j
+@Service
+public class LedgerClearService {
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    private final LedgerEraser ledgerEraser;
+    private final UploadDigestCache uploadDigestCache;
+    private final ImportWatermarkRepository importWatermarkRepository;
+    private final UserRepository userRepository;
+    private final KnownKeyFilter knownKeyFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, LedgerClearJob> jobs = new ConcurrentHashMap<>();
+
+    public LedgerClearService(LedgerEraser ledgerEraser,
+                              UploadDigestCache uploadDigestCache,
+                              ImportWatermarkRepository importWatermarkRepository,
+                              UserRepository userRepository,
+                              KnownKeyFilter knownKeyFilter,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${ledger.clear.queue-capacity:16}") int queueCapacity)
+    {
+        this.ledgerEraser = ledgerEraser;
+        this.uploadDigestCache = uploadDigestCache;
+        this.importWatermarkRepository = importWatermarkRepository;
+        this.userRepository = userRepository;
+        this.knownKeyFilter = knownKeyFilter;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("ledger-clear-"));
+    }
+
+    public LedgerClearDto clear(Long userId)
+    {
+        LedgerClearJob job = new LedgerClearJob(userId);
+        job.start();
+        run(job);
+        job.complete();
+        return LedgerClearDto.from(job);
+    }
+
+    public LedgerClearDto submit(Long userId)
+    {
+        purgeFinishedJobs();
+        LedgerClearJob job = new LedgerClearJob(userId);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> {
+                job.start();
+                try {
+                    run(job);
+                    job.complete();
+                } catch (Exception e) {
+                    log.error("Ledger clear job {} failed", job.getId(), e);
+                    job.fail("Failed to Clear");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return LedgerClearDto.from(job);
+    }
+
+    // 다른 사용자의 작업 ID는 없는 작업과 똑같이 취급한다.
+    public Optional<LedgerClearDto> getJob(String jobId, Long userId)
+    {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getUserId().equals(userId))
+                .map(LedgerClearDto::from);
+    }
+
+    private void run(LedgerClearJob job)
+    {
+        Long userId = job.getUserId();
+        transactionTemplate.executeWithoutResult(status -> resetImportState(userId));
+        ledgerEraser.deleteTransactions(userId, job::addDeletedTransactions);
+        ledgerEraser.deleteTombstones(userId);
+        ledgerEraser.deleteAnalysisHistory(userId, job::addDeletedAnalyses);
+        transactionTemplate.executeWithoutResult(status -> {
+            resetImportState(userId);
+            userRepository.incrementLedgerVersion(userId);
+        });
+    }
+
+    private void resetImportState(Long userId)
+    {
+        knownKeyFilter.evict(userId);
+        uploadDigestCache.clear(userId);
+        importWatermarkRepository.deleteAllByUserId(userId);
+    }
+
+    private void purgeFinishedJobs()
+    {
+        Instant threshold = Instant.now().minus(RETENTION);
+        jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.suhyun444.lifehub.card.Parser;
+
+// 셀 문자열을 정규식이나 중간 문자열 없이 바로 해석한다.
+// 키를 만드는 StringBuilder를 재사용하므로 행 핸들러마다(즉 파일마다) 하나씩 만들어 쓴다.
+public class CellDecoder {
+    private final StringBuilder key = new StringBuilder(64);
+
+    // Integer.parseInt(value.replaceAll(",", ""))와 같은 값을 돌려주고, 같은 경우에 NumberFormatException을 던진다.
+    public static int parseAmount(String value)
+    {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i = 1;
+        }
+        long result = 0;
+        int digits = 0;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',') continue;
+            if (c < '0' || c > '9') throw new NumberFormatException("For input string: \"" + value + "\"");
+            result = result * 10 + (c - '0');
+            if (result > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException("For input string: \"" + value + "\"");
+            digits++;
+        }
+        if (digits == 0) throw new NumberFormatException("For input string: \"" + value + "\"");
+        if (negative) result = -result;
+        if (result > Integer.MAX_VALUE || result < Integer.MIN_VALUE) {
+            throw new NumberFormatException("For input string: \"" + value + "\"");
+        }
+        return (int) result;
+    }
+
+    // (date + "_" + amount + "_" + merchant).replaceAll("\\s+", "")와 같은 키를 만든다.
+    public String transactionKey(String date, int amount, String merchant)
+    {
+        key.setLength(0);
+        appendWithoutWhitespace(date);
+        key.append('_').append(amount).append('_');
+        appendWithoutWhitespace(merchant);
+        return key.toString();
+    }
+
+    private void appendWithoutWhitespace(String value)
+    {
+        if (value == null) {
+            key.append("null");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isRegexWhitespace(c)) key.append(c);
+        }
+    }
+
+    // 정규식 \s는 UNICODE_CHARACTER_CLASS 없이 ASCII 공백 여섯 글자만 뜻한다.
+    private static boolean isRegexWhitespace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
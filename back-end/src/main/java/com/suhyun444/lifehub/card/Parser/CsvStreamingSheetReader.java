@@ -0,0 +1,148 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// CSV 명세서를 메모리 매핑해서 바이트 단위로 한 번 훑으며 행을 넘겨준다. 줄 번호가 곧 행 번호다.
+// 구분자(, " CR LF)는 UTF-8과 CP949 모두에서 다른 글자의 일부로 나오지 않으므로 바이트 그대로 자르고,
+// 필드만 문자열로 바꾼다. BOM이 없으면 UTF-8로 읽다가 맞지 않는 바이트가 나오는 순간 CP949로 바꾼다.
+public class CsvStreamingSheetReader {
+    private static final Charset CP949 = Charset.forName("MS949");
+
+    public void read(File file, StatementRowHandler handler) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("CSV file is too large");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            new Tokenizer(buffer, handler).run();
+        }
+    }
+
+    private static class Tokenizer {
+        private final MappedByteBuffer buffer;
+        private final StatementRowHandler handler;
+        private final StatementRow row = new StatementRow();
+        private byte[] field = new byte[256];
+        private int fieldLength;
+        private boolean nonAscii;
+        private CharsetDecoder decoder = newDecoder(StandardCharsets.UTF_8);
+        private boolean charsetFixed;
+
+        Tokenizer(MappedByteBuffer buffer, StatementRowHandler handler)
+        {
+            this.buffer = buffer;
+            this.handler = handler;
+        }
+
+        void run()
+        {
+            int limit = buffer.limit();
+            int pos = 0;
+            if (limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+                pos = 3;
+                charsetFixed = true;
+            }
+            int rowNum = 0;
+            int column = 0;
+            boolean rowHasData = false;
+            row.reset(rowNum);
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (b == '"' && fieldLength == 0) {
+                    pos = readQuoted(pos + 1, limit);
+                    rowHasData = true;
+                    continue;
+                }
+                if (b == ',') {
+                    endField(column++);
+                    rowHasData = true;
+                } else if (b == '\n' || b == '\r') {
+                    if (rowHasData || fieldLength > 0) {
+                        endField(column);
+                        handler.handleRow(row);
+                    }
+                    if (b == '\r' && pos + 1 < limit && buffer.get(pos + 1) == '\n') pos++;
+                    rowNum++;
+                    row.reset(rowNum);
+                    column = 0;
+                    rowHasData = false;
+                } else {
+                    append(b);
+                }
+                pos++;
+            }
+            if (rowHasData || fieldLength > 0) {
+                endField(column);
+                handler.handleRow(row);
+            }
+            handler.endSheet();
+        }
+
+        // 따옴표 안의 쉼표와 줄바꿈은 값의 일부이고, ""는 따옴표 한 글자다.
+        private int readQuoted(int pos, int limit)
+        {
+            while (pos < limit) {
+                byte b = buffer.get(pos++);
+                if (b != '"') {
+                    append(b);
+                } else if (pos < limit && buffer.get(pos) == '"') {
+                    append(b);
+                    pos++;
+                } else {
+                    return pos;
+                }
+            }
+            throw new IllegalArgumentException("Unterminated quoted field in CSV file");
+        }
+
+        private void append(byte b)
+        {
+            if (fieldLength == field.length) field = Arrays.copyOf(field, fieldLength * 2);
+            field[fieldLength++] = b;
+            if (b < 0) nonAscii = true;
+        }
+
+        private void endField(int column)
+        {
+            if (fieldLength > 0) row.set(column, decodeField());
+            fieldLength = 0;
+            nonAscii = false;
+        }
+
+        // 처음 만난 비ASCII 필드로 문자셋을 정한다. 정한 뒤에 맞지 않는 바이트가 나오면 텍스트 파일이 아닌 것으로 본다.
+        private String decodeField()
+        {
+            if (!nonAscii) return new String(field, 0, fieldLength, StandardCharsets.ISO_8859_1);
+            try {
+                String value = decoder.decode(ByteBuffer.wrap(field, 0, fieldLength)).toString();
+                charsetFixed = true;
+                return value;
+            } catch (CharacterCodingException e) {
+                if (charsetFixed) throw new IllegalArgumentException("CSV file is not UTF-8 or CP949 text");
+                charsetFixed = true;
+                decoder = newDecoder(CP949);
+                return decodeField();
+            }
+        }
+
+        private static CharsetDecoder newDecoder(Charset charset)
+        {
+            return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        }
+    }
+}
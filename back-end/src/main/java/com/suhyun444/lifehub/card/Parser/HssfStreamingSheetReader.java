@@ -0,0 +1,181 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeSet;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+
+// HSSFWorkbook을 만들지 않고 BIFF8 레코드를 순서대로 받아 첫 번째 시트의 행을 넘겨준다.
+// 행 블록마다 RowRecord(최대 32개)가 셀보다 먼저 나오므로, 들고 있는 것은 그 블록의 행 번호와 현재 행 하나뿐이다.
+public class HssfStreamingSheetReader {
+
+    public void read(File file, StatementRowHandler handler) throws IOException
+    {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            if (fs.getRoot().hasEntry("EncryptedPackage")) {
+                throw new IllegalArgumentException("Encrypted workbook is not supported");
+            }
+            SheetListener listener = new SheetListener(handler);
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(listener);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+            if (!listener.finished) {
+                throw new IllegalArgumentException("Workbook has no sheet");
+            }
+        } catch (HSSFUserException e) {
+            throw new IOException("Failed to read xls sheet", e);
+        }
+    }
+
+    private static class SheetListener extends AbortableHSSFListener {
+        private static final short STOP = 1;
+
+        private final StatementRowHandler handler;
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(record -> {});
+        private final StatementRow row = new StatementRow();
+        private final TreeSet<Integer> pendingRows = new TreeSet<>();
+        private SSTRecord sst;
+        private int worksheetIndex = -1;
+        private boolean inFirstSheet = false;
+        private int currentRow = -1;
+        private FormulaRecord stringFormula;
+        private boolean finished = false;
+
+        SheetListener(StatementRowHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record)
+        {
+            formats.processRecordInternally(record);
+            switch (record.getSid()) {
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    return 0;
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        worksheetIndex++;
+                        inFirstSheet = worksheetIndex == 0;
+                    }
+                    return 0;
+                case EOFRecord.sid:
+                    if (!inFirstSheet) return 0;
+                    finish();
+                    return STOP;
+                default:
+                    break;
+            }
+            if (!inFirstSheet) return 0;
+
+            switch (record.getSid()) {
+                case RowRecord.sid:
+                    int rowNumber = ((RowRecord) record).getRowNumber();
+                    if (rowNumber > currentRow) pendingRows.add(rowNumber);
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    cell(label, sst.getString(label.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord oldLabel = (LabelRecord) record;
+                    moveTo(oldLabel.getRow());
+                    row.set(oldLabel.getColumn(), oldLabel.getValue());
+                    break;
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    cell(number, formats.formatNumberDateCell(number));
+                    break;
+                case FormulaRecord.sid:
+                    formula((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    if (stringFormula != null) {
+                        cell(stringFormula, ((StringRecord) record).getString());
+                        stringFormula = null;
+                    }
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) cell(boolErr, boolErr.getBooleanValue() ? "TRUE" : "FALSE");
+                    else moveTo(boolErr.getRow());
+                    break;
+                case BlankRecord.sid:
+                    moveTo(((BlankRecord) record).getRow());
+                    break;
+                default:
+                    break;
+            }
+            return 0;
+        }
+
+        // 수식은 Workbook 경로와 달리 캐시된 결과값을 쓴다. 문자열 결과는 뒤따르는 StringRecord에 들어있다.
+        private void formula(FormulaRecord formula)
+        {
+            CellType type = formula.getCachedResultTypeEnum();
+            if (type == CellType.STRING) {
+                stringFormula = formula;
+            } else if (type == CellType.BOOLEAN) {
+                cell(formula, formula.getCachedBooleanValue() ? "TRUE" : "FALSE");
+            } else if (type == CellType.NUMERIC) {
+                cell(formula, formats.formatNumberDateCell(formula));
+            } else {
+                moveTo(formula.getRow());
+            }
+        }
+
+        private void cell(CellValueRecordInterface cell, String value)
+        {
+            moveTo(cell.getRow());
+            row.set(cell.getColumn(), value);
+        }
+
+        // 셀은 행 순서대로 나오므로 다른 행의 셀이 오면 현재 행과 그 사이의 빈 행을 넘겨준다.
+        private void moveTo(int rowNumber)
+        {
+            if (rowNumber == currentRow) return;
+            if (currentRow >= 0) handler.handleRow(row);
+            flushPendingBelow(rowNumber);
+            pendingRows.remove(rowNumber);
+            row.reset(rowNumber);
+            currentRow = rowNumber;
+        }
+
+        private void flushPendingBelow(int rowNumber)
+        {
+            while (!pendingRows.isEmpty() && pendingRows.first() < rowNumber) {
+                row.reset(pendingRows.pollFirst());
+                handler.handleRow(row);
+            }
+        }
+
+        private void finish()
+        {
+            if (currentRow >= 0) handler.handleRow(row);
+            flushPendingBelow(Integer.MAX_VALUE);
+            handler.endSheet();
+            finished = true;
+        }
+    }
+}
@@ -2,39 +2,121 @@ package com.suhyun444.lifehub.card.Parser;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+
 import org.apache.poi.ss.usermodel.*;
+import org.springframework.stereotype.Component;
 
 import com.suhyun444.lifehub.card.DTO.PaymentStatus;
 import com.suhyun444.lifehub.card.Entity.Transaction;
 
+@Component
 public class KookminTransactionParser extends TransactionParser {
+    private static final int FIRST_DATA_ROW = 5;
+
+    @Override
+    public int getSniffRows()
+    {
+        return FIRST_DATA_ROW + 1;
+    }
+
+    // 머리글 문구는 내려받을 때마다 조회 기간 등이 달라지므로 6번째 행의 모양으로 알아본다.
+    // 보통은 첫 거래 행(0열 날짜, 4열 금액)이고, 거래가 없는 명세서면 그 자리에 합계 행이 온다.
+    @Override
+    public boolean matches(List<StatementRow> head)
+    {
+        return head.stream()
+            .filter(row -> row.getRowNum() == FIRST_DATA_ROW)
+            .anyMatch(row -> isDataRow(row) || isTotalRow(row));
+    }
+
+    private static boolean isDataRow(StatementRow row)
+    {
+        return StatementDates.parseDate(row.get(0)) != null && isAmount(row.get(4));
+    }
+
+    // 합계 행은 날짜 없이 4열에 합계 금액이나 "합계"가 있다.
+    private static boolean isTotalRow(StatementRow row)
+    {
+        if (StatementDates.parseDate(row.get(0)) != null) return false;
+        if (isAmount(row.get(4))) return true;
+        for (int column = 0; column <= 4; column++) {
+            if (row.get(column).contains("합계")) return true;
+        }
+        return false;
+    }
+
     @Override
     public List<Transaction> parse(Sheet sheet)
     {
         List<Transaction> transactions = new ArrayList<>();
+        StatementRowHandler handler = newRowHandler(transactions::add);
 
         DataFormatter dataFormatter = new DataFormatter();
-        for (int i = 5; i <= sheet.getLastRowNum() - 1; i++) {
+        StatementRow statementRow = new StatementRow();
+        for (int i = 0; i <= sheet.getLastRowNum(); i++) {
             Row row = sheet.getRow(i);
             if (row == null) continue;
-            if(Integer.parseInt(dataFormatter.formatCellValue(row.getCell(4)).replaceAll(",","")) == 0) continue;
-            Transaction transaction = new Transaction();
-            transaction.setId(null);
-            transaction.setDate(dataFormatter.formatCellValue(row.getCell(0)));
-            transaction.setMerchant(dataFormatter.formatCellValue(row.getCell(2)));
-
-            String withdrawalStr = dataFormatter.formatCellValue(row.getCell(4)).replaceAll(",", "");
-            transaction.setAmount(Integer.parseInt(withdrawalStr));
-            transaction.setStatus(PaymentStatus.completed);
-            transaction.setPaymentMethod(dataFormatter.formatCellValue(row.getCell(7)));
-            
-            String transactionKey = transaction.getDate()+"_"+transaction.getAmount()+"_"+transaction.getMerchant();
-            transactionKey = transactionKey.replaceAll("\\s+","");
-            transaction.setTransactionKey(transactionKey);
-
-            transactions.add(transaction);
+            statementRow.reset(i);
+            for (Cell cell : row) {
+                statementRow.set(cell.getColumnIndex(), dataFormatter.formatCellValue(cell));
+            }
+            handler.handleRow(statementRow);
         }
+        handler.endSheet();
 
         return transactions;
     }
+
+    @Override
+    public StatementRowHandler newRowHandler(Consumer<Transaction> sink, Runnable onSkipped)
+    {
+        // 마지막 행은 합계 행이므로 버린다. 다음 행이 들어와야 직전 행이 마지막이 아님을 알 수 있어 한 행을 들고 있는다.
+        return new StatementRowHandler() {
+            private final StatementRow pending = new StatementRow();
+            private final CellDecoder decoder = new CellDecoder();
+            private boolean hasPending = false;
+
+            @Override
+            public void handleRow(StatementRow row)
+            {
+                if (hasPending && pending.getRowNum() >= FIRST_DATA_ROW) {
+                    Transaction transaction = parseRow(pending, decoder);
+                    if (transaction != null) sink.accept(transaction);
+                    else onSkipped.run();
+                }
+                pending.copyFrom(row);
+                hasPending = true;
+            }
+        };
+    }
+
+    // 취소 건은 음수로 나오므로 앞의 '-'를 허용한다. CellDecoder.parseAmount가 읽는 모양과 같다.
+    private static boolean isAmount(String value)
+    {
+        int start = value.startsWith("-") ? 1 : 0;
+        boolean digit = false;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') digit = true;
+            else if (c != ',') return false;
+        }
+        return digit;
+    }
+
+    private Transaction parseRow(StatementRow row, CellDecoder decoder)
+    {
+        int amount = CellDecoder.parseAmount(row.get(4));
+        if(amount == 0) return null;
+        Transaction transaction = new Transaction();
+        transaction.setId(null);
+        transaction.setDate(row.get(0));
+        transaction.setMerchant(row.get(2));
+        transaction.setAmount(amount);
+        transaction.setStatus(PaymentStatus.completed);
+        transaction.setPaymentMethod(row.get(7));
+        transaction.setTransactionKey(decoder.transactionKey(transaction.getDate(), amount, transaction.getMerchant()));
+
+        return transaction;
+    }
 }
@@ -0,0 +1,45 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+// 명세서 날짜 문자열("2024.02.14", "2024-02-14 12:00:00" 등)의 앞 10자리에서 날짜만 꺼낸다.
+public final class StatementDates {
+    // 형식을 알 수 없는 날짜 대신 저장하는 날짜. 파티션 키가 기본 키에 들어가므로 transaction_date는 비워 둘 수 없다.
+    public static final LocalDate UNDATED = LocalDate.EPOCH;
+
+    private StatementDates() {}
+
+    // 형식이 맞지 않으면 null을 돌려준다.
+    public static LocalDate parseDate(String value)
+    {
+        if (value == null || value.length() < 10) return null;
+        if (Character.isDigit(value.charAt(4)) || Character.isDigit(value.charAt(7))) return null;
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < 0 || month < 0 || day < 0) return null;
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    public static LocalDate parseDateOrUndated(String value)
+    {
+        LocalDate date = parseDate(value);
+        return date == null ? UNDATED : date;
+    }
+
+    private static int digits(String value, int from, int to)
+    {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
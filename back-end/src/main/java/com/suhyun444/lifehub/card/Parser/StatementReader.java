@@ -0,0 +1,28 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+// 파일 형식을 보고 스트리밍 리더를 고른다. 어느 쪽도 Workbook 객체 모델을 만들지 않는다.
+// 엑셀도 다른 알려진 바이너리 형식도 아니면 CSV로 읽고, 어떤 파서도 알아보지 못하면 거기서 거절된다.
+public class StatementReader {
+    private final XssfStreamingSheetReader xssfReader = new XssfStreamingSheetReader();
+    private final HssfStreamingSheetReader hssfReader = new HssfStreamingSheetReader();
+    private final CsvStreamingSheetReader csvReader = new CsvStreamingSheetReader();
+
+    public void read(File file, StatementRowHandler handler) throws IOException
+    {
+        FileMagic magic = FileMagic.valueOf(file);
+        if (magic == FileMagic.OOXML) {
+            xssfReader.read(file, handler);
+        } else if (magic == FileMagic.OLE2) {
+            hssfReader.read(file, handler);
+        } else if (magic == FileMagic.UNKNOWN) {
+            csvReader.read(file, handler);
+        } else {
+            throw new IllegalArgumentException("Unsupported file format: " + magic);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.util.Arrays;
+
+// 스트리밍 리더가 행마다 재사용하는 버퍼. 핸들러는 보관이 필요하면 copyFrom으로 복사해야 한다.
+public class StatementRow {
+    private static final String EMPTY = "";
+
+    private int rowNum;
+    private String[] cells = new String[8];
+    private int width;
+
+    public void reset(int rowNum)
+    {
+        Arrays.fill(cells, 0, width, null);
+        this.rowNum = rowNum;
+        this.width = 0;
+    }
+    public void set(int column, String value)
+    {
+        if (column >= cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
+        }
+        cells[column] = value;
+        if (column >= width) width = column + 1;
+    }
+    // DataFormatter.formatCellValue(null)과 같이 비어있는 셀은 ""로 돌려준다.
+    public String get(int column)
+    {
+        if (column >= width || cells[column] == null) return EMPTY;
+        return cells[column];
+    }
+    public int getRowNum()
+    {
+        return rowNum;
+    }
+    public void copyFrom(StatementRow other)
+    {
+        reset(other.rowNum);
+        for (int i = 0; i < other.width; i++) {
+            if (other.cells[i] != null) set(i, other.cells[i]);
+        }
+    }
+}
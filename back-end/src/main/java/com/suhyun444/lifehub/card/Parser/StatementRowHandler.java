@@ -0,0 +1,7 @@
+package com.suhyun444.lifehub.card.Parser;
+
+// 리더는 첫 번째 시트의 실제 존재하는 행을 행 번호 오름차순으로 넘겨주고, 끝나면 endSheet를 호출한다.
+public interface StatementRowHandler {
+    public void handleRow(StatementRow row);
+    public default void endSheet() {}
+}
@@ -1,11 +1,30 @@
 package com.suhyun444.lifehub.card.Parser;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.poi.ss.usermodel.Sheet;
 
 import com.suhyun444.lifehub.card.Entity.Transaction;
 
+// 구현체는 상태 없는 싱글톤 빈이다. 행 사이의 상태는 newRowHandler가 만드는 핸들러가 들고 있는다.
 public abstract class TransactionParser {
     abstract public List<Transaction> parse(Sheet sheet);
+    // 형식을 알아보는 데 필요한 앞부분 행 수. 레지스트리는 모든 파서 중 가장 큰 값만큼 모아서 matches를 부른다.
+    abstract public int getSniffRows();
+    abstract public boolean matches(List<StatementRow> head);
+    // 스트리밍 리더용: 행을 받을 때마다 만들어진 Transaction을 sink로 흘려보낸다.
+    // 금액이 0이라 건너뛴 행은 onSkipped로 알린다.
+    abstract public StatementRowHandler newRowHandler(Consumer<Transaction> sink, Runnable onSkipped);
+
+    // 워터마크를 명세서 출처(파서 + 결제수단)별로 나눌 때 쓰는 이름.
+    public String getName()
+    {
+        return getClass().getSimpleName();
+    }
+
+    public StatementRowHandler newRowHandler(Consumer<Transaction> sink)
+    {
+        return newRowHandler(sink, () -> {});
+    }
 }
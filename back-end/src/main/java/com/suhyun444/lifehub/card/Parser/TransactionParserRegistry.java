@@ -0,0 +1,95 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+
+// 등록된 파서 중 파일 앞부분 몇 행을 보고 형식을 알아보는 것을 고른다.
+// 고르는 동안 앞부분 행만 복사해 두었다가 고른 파서의 핸들러에 그대로 다시 넘기므로 파일은 한 번만 읽는다.
+@Component
+public class TransactionParserRegistry {
+    private final List<TransactionParser> parsers;
+    private final int sniffRows;
+
+    public TransactionParserRegistry(List<TransactionParser> parsers)
+    {
+        this.parsers = List.copyOf(parsers);
+        this.sniffRows = parsers.stream().mapToInt(TransactionParser::getSniffRows).max().orElse(0);
+    }
+
+    public StatementRowHandler newRowHandler(Consumer<Transaction> sink, Runnable onSkipped)
+    {
+        return new SniffingRowHandler((parser, transaction) -> sink.accept(transaction), onSkipped);
+    }
+
+    // 행마다 그 행을 만든 파서의 이름을 같이 넘긴다.
+    public StatementRowHandler newSourcedRowHandler(BiConsumer<String, Transaction> sink, Runnable onSkipped)
+    {
+        return new SniffingRowHandler(sink, onSkipped);
+    }
+
+    private TransactionParser find(List<StatementRow> head)
+    {
+        for (TransactionParser parser : parsers) {
+            if (parser.matches(head)) return parser;
+        }
+        return null;
+    }
+
+    private class SniffingRowHandler implements StatementRowHandler {
+        private final BiConsumer<String, Transaction> sink;
+        private final Runnable onSkipped;
+        private final List<StatementRow> head = new ArrayList<>();
+        private StatementRowHandler delegate;
+
+        SniffingRowHandler(BiConsumer<String, Transaction> sink, Runnable onSkipped)
+        {
+            this.sink = sink;
+            this.onSkipped = onSkipped;
+        }
+
+        @Override
+        public void handleRow(StatementRow row)
+        {
+            if (delegate != null) {
+                delegate.handleRow(row);
+                return;
+            }
+            StatementRow copy = new StatementRow();
+            copy.copyFrom(row);
+            head.add(copy);
+            if (row.getRowNum() < sniffRows - 1) return;
+
+            TransactionParser parser = find(head);
+            if (parser == null) {
+                throw new IllegalArgumentException("Unsupported statement format");
+            }
+            replayTo(parser);
+        }
+
+        // 고를 만큼 행이 모이기 전에 시트가 끝났다면 데이터 행이 없는 파일이다. 맞는 파서가 없으면 아무것도 내보내지 않는다.
+        @Override
+        public void endSheet()
+        {
+            if (delegate == null) {
+                TransactionParser parser = find(head);
+                if (parser == null) return;
+                replayTo(parser);
+            }
+            delegate.endSheet();
+        }
+
+        private void replayTo(TransactionParser parser)
+        {
+            String name = parser.getName();
+            delegate = parser.newRowHandler(transaction -> sink.accept(name, transaction), onSkipped);
+            head.forEach(delegate::handleRow);
+            head.clear();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.suhyun444.lifehub.card.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import com.suhyun444.lifehub.card.Upload.UploadLimitExceededException;
+
+// XSSFWorkbook을 만들지 않고 첫 번째 시트 XML을 SAX로 읽어 한 행씩 넘겨준다.
+// 메모리에는 공유 문자열 테이블과 현재 행 하나만 남는다.
+public class XssfStreamingSheetReader {
+
+    public void read(File file, StatementRowHandler handler) throws IOException
+    {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Workbook has no sheet");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, strings, new RowForwarder(handler), new DataFormatter(), false));
+                xmlReader.parse(new InputSource(sheet));
+            }
+            handler.endSheet();
+        } catch (SAXException e) {
+            // 행 핸들러가 던진 예외는 SAX가 감싸서 올려보내므로 원래 예외로 되돌린다.
+            if (e.getException() instanceof RuntimeException cause) throw cause;
+            if (e.getException() instanceof IOException cause) throw translate(cause);
+            throw new IOException("Failed to read xlsx sheet", e);
+        } catch (OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Failed to read xlsx sheet", e);
+        } catch (IOException e) {
+            throw translate(e);
+        }
+    }
+
+    // ZipSecureFile은 한도를 넘으면 메시지만 다른 IOException을 던진다. 업로드 제한 위반으로 바꿔서 4xx로 나가게 한다.
+    private static IOException translate(IOException e)
+    {
+        String message = e.getMessage();
+        if (message != null && (message.startsWith("Zip bomb detected") || message.startsWith("The file appears to be potentially malicious"))) {
+            throw new UploadLimitExceededException("Workbook expands beyond the allowed size");
+        }
+        return e;
+    }
+
+    private static class RowForwarder implements SheetContentsHandler {
+        private final StatementRowHandler handler;
+        private final StatementRow row = new StatementRow();
+
+        RowForwarder(StatementRowHandler handler)
+        {
+            this.handler = handler;
+        }
+        @Override
+        public void startRow(int rowNum)
+        {
+            row.reset(rowNum);
+        }
+        @Override
+        public void endRow(int rowNum)
+        {
+            handler.handleRow(row);
+        }
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment)
+        {
+            row.set(new CellReference(cellReference).getCol(), formattedValue);
+        }
+    }
+}
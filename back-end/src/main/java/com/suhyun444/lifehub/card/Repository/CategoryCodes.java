@@ -0,0 +1,27 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.util.regex.Pattern;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class CategoryCodes extends CodeTable {
+    public static final int MAX_NAME_LENGTH = 30;
+    static final int MAX_CODES = 1000;
+    private static final Pattern ALLOWED = Pattern.compile("[\\p{L}\\p{N} &/()·._-]+");
+
+    public CategoryCodes(JdbcTemplate jdbcTemplate)
+    {
+        super(jdbcTemplate, "category", MAX_NAME_LENGTH, MAX_CODES);
+    }
+
+    // 사용자가 보낸 카테고리 이름을 확인한다. 문제가 없으면 null, 있으면 400으로 돌려줄 메시지다.
+    public static String validate(String name)
+    {
+        if (name == null || name.isBlank()) return "Category is blank";
+        if (name.length() > MAX_NAME_LENGTH) return "Category is too long (max " + MAX_NAME_LENGTH + ")";
+        if (!ALLOWED.matcher(name).matches()) return "Category contains unsupported characters";
+        return null;
+    }
+}
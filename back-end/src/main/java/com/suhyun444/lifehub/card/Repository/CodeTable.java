@@ -0,0 +1,100 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// 이름 몇십 개짜리 조회 테이블을 smallint 코드로 바꾼다. 행이 적어서 테이블 전체를 메모리에 들고 있고, 모르는 이름이나 코드가 오면 다시 읽는다.
+// 새 이름은 MerchantDictionary처럼 호출한 쪽 트랜잭션 안에서 넣고, 커밋된 뒤에야 공용 맵에 넣는다.
+// 테이블은 모든 사용자가 같이 쓰므로 이름 길이와 코드 수에 상한을 둔다. 넘으면 IllegalArgumentException이다.
+public abstract class CodeTable {
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final int maxNameLength;
+    private final int maxCodes;
+    private volatile Map<String, Short> codes = Map.of();
+    private volatile Map<Short, String> names = Map.of();
+
+    protected CodeTable(JdbcTemplate jdbcTemplate, String table, int maxNameLength, int maxCodes)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.maxNameLength = maxNameLength;
+        this.maxCodes = maxCodes;
+    }
+
+    public short code(String name)
+    {
+        Short code = codes.get(name);
+        if (code != null) return code;
+        PendingIds uncommitted = PendingIds.peek(this);
+        if (uncommitted != null && uncommitted.get(name) != null) return uncommitted.get(name).shortValue();
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException(table + " name is blank");
+        }
+        if (name.length() > maxNameLength) {
+            throw new IllegalArgumentException(table + " name is too long (max " + maxNameLength + ")");
+        }
+        reload();
+        code = codes.get(name);
+        if (code != null) return code;
+        if (codes.size() + (uncommitted == null ? 0 : uncommitted.size()) >= maxCodes) {
+            throw new IllegalArgumentException("Too many " + table + " names (max " + maxCodes + ")");
+        }
+        jdbcTemplate.update("INSERT INTO " + table + " (name) VALUES (?) ON DUPLICATE KEY UPDATE id = id", name);
+        Map<String, Integer> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " WHERE name = ?", rs -> {
+            stored.put(rs.getString(2), rs.getInt(1));
+        }, name);
+        // DB가 이름을 바꿔 저장했으면(잘림, 대조 규칙) 같은 이름으로 다시 찾을 수 없다.
+        if (!stored.containsKey(name)) throw new IllegalStateException("Could not store " + table + " name " + name);
+
+        PendingIds current = PendingIds.bind(this, this::cache);
+        if (current == null) cache(Map.of(name, stored.get(name)));
+        else current.putAll(Map.of(name, stored.get(name)));
+        return stored.get(name).shortValue();
+    }
+
+    // 0은 코드를 아직 채우지 않은 예전 행이다. TransactionCodeMigration이 옮기기 전까지 이름 없이 읽힌다.
+    public String name(short code)
+    {
+        if (code == 0) return null;
+        String name = names.get(code);
+        if (name != null) return name;
+        PendingIds uncommitted = PendingIds.peek(this);
+        name = uncommitted == null ? null : uncommitted.name(code);
+        if (name != null) return name;
+        reload();
+        name = names.get(code);
+        if (name == null) throw new IllegalStateException("Unknown " + table + " code " + code);
+        return name;
+    }
+
+    // 지금 트랜잭션에서 넣고 아직 커밋하지 않은 이름은 이 연결에서만 보이므로 공용 맵에 넣지 않는다.
+    private synchronized void reload()
+    {
+        PendingIds uncommitted = PendingIds.peek(this);
+        Map<String, Short> loadedCodes = new HashMap<>();
+        Map<Short, String> loadedNames = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table, rs -> {
+            if (uncommitted != null && uncommitted.contains(rs.getString(2))) return;
+            loadedCodes.put(rs.getString(2), rs.getShort(1));
+            loadedNames.put(rs.getShort(1), rs.getString(2));
+        });
+        codes = loadedCodes;
+        names = loadedNames;
+    }
+
+    private synchronized void cache(Map<String, Integer> committed)
+    {
+        Map<String, Short> cachedCodes = new HashMap<>(codes);
+        Map<Short, String> cachedNames = new HashMap<>(names);
+        committed.forEach((name, id) -> {
+            cachedCodes.put(name, id.shortValue());
+            cachedNames.put(id.shortValue(), name);
+        });
+        codes = cachedCodes;
+        names = cachedNames;
+    }
+}
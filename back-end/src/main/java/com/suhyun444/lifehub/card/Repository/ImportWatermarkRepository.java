@@ -0,0 +1,20 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.suhyun444.lifehub.card.Entity.ImportWatermark;
+
+@Repository
+public interface ImportWatermarkRepository extends JpaRepository<ImportWatermark,Long> {
+    List<ImportWatermark> findAllByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ImportWatermark w WHERE w.user.id = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+}
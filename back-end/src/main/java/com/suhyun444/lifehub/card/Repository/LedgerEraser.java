@@ -0,0 +1,50 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// 사용자의 거래 내역과 분석 이력을 엔티티를 읽지 않고 DELETE ... LIMIT 문장으로 나눠 지운다.
+// 트랜잭션 밖에서 부르면 문장마다 자동 커밋되므로, 락은 한 번에 chunkSize 행만 잡고 중간에 멈춰도 지운 만큼은 남는다.
+@Repository
+public class LedgerEraser {
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    public LedgerEraser(JdbcTemplate jdbcTemplate,
+                        @Value("${ledger.clear.chunk-size:1000}") int chunkSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    // 조각마다 지운 행 수를 onChunk로 알려주고, 모두 지운 행 수를 돌려준다.
+    public int deleteTransactions(Long userId, IntConsumer onChunk)
+    {
+        return deleteInChunks("DELETE FROM transaction WHERE user_id = ? LIMIT ?", userId, onChunk);
+    }
+
+    // 비운 뒤 다시 올린 명세서는 그대로 들어가야 하므로 지운 거래의 툼스톤도 지운다.
+    public int deleteTombstones(Long userId)
+    {
+        return deleteInChunks("DELETE FROM transaction_tombstone WHERE user_id = ? LIMIT ?", userId, deleted -> {});
+    }
+
+    public int deleteAnalysisHistory(Long userId, IntConsumer onChunk)
+    {
+        return deleteInChunks("DELETE FROM analysis_history WHERE user_id = ? LIMIT ?", userId, onChunk);
+    }
+
+    private int deleteInChunks(String sql, Long userId, IntConsumer onChunk)
+    {
+        int total = 0;
+        while (true) {
+            int deleted = jdbcTemplate.update(sql, userId, chunkSize);
+            if (deleted == 0) return total;
+            total += deleted;
+            onChunk.accept(deleted);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// 상점 이름을 merchant 테이블의 정수 id로 바꾼다. 한 번 본 이름은 메모리에 들고 있어서 다시 DB에 가지 않는다.
+// 새 이름은 호출한 쪽 트랜잭션 안에서 넣는다. 연결을 하나 더 잡지 않기 위해서다.
+// 그 id는 롤백되면 DB에 없으므로 트랜잭션이 커밋된 뒤에야 캐시에 넣는다(PendingIds).
+@Repository
+public class MerchantDictionary {
+    static final int NAMES_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxCachedNames;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    public MerchantDictionary(JdbcTemplate jdbcTemplate,
+                              @Value("${merchant.cache.max-names:100000}") int maxCachedNames)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxCachedNames = maxCachedNames;
+    }
+
+    // 넘겨받은 이름마다 id를 돌려준다. 사전에 없던 이름은 새로 넣는다.
+    public Map<String, Integer> resolve(Collection<String> names)
+    {
+        Map<String, Integer> resolved = new HashMap<>();
+        PendingIds uncommitted = PendingIds.peek(this);
+        Set<String> missing = new TreeSet<>();
+        for (String name : names) {
+            Integer id = ids.get(name);
+            if (id == null && uncommitted != null) id = uncommitted.get(name);
+            if (id != null) resolved.put(name, id);
+            else missing.add(name);
+        }
+        if (missing.isEmpty()) return resolved;
+
+        List<String> pending = new ArrayList<>(missing);
+        Map<String, Integer> found = select(pending);
+        cache(found);
+        resolved.putAll(found);
+        pending.removeAll(found.keySet());
+        if (pending.isEmpty()) return resolved;
+
+        // 이름 순서대로 넣어서 같은 이름을 넣는 두 가져오기가 서로의 락을 거꾸로 기다리지 않게 한다.
+        // 다른 요청이 같은 이름을 먼저 넣었으면 아무것도 바꾸지 않고, 다시 읽을 때 그 id를 받는다.
+        for (List<String> chunk : chunks(pending)) {
+            jdbcTemplate.update("INSERT INTO merchant (name) VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(), "(?)"))
+                    + " ON DUPLICATE KEY UPDATE id = id", chunk.toArray());
+        }
+        Map<String, Integer> inserted = select(pending);
+        PendingIds current = PendingIds.bind(this, this::cache);
+        if (current == null) cache(inserted);
+        else current.putAll(inserted);
+        resolved.putAll(inserted);
+        return resolved;
+    }
+
+    private void cache(Map<String, Integer> loaded)
+    {
+        if (ids.size() + loaded.size() > maxCachedNames) ids.clear();
+        ids.putAll(loaded);
+    }
+
+    private Map<String, Integer> select(List<String> names)
+    {
+        Map<String, Integer> found = new HashMap<>();
+        for (List<String> chunk : chunks(names)) {
+            jdbcTemplate.query("SELECT id, name FROM merchant WHERE name IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    rs -> {
+                        found.put(rs.getString(2), rs.getInt(1));
+                    }, chunk.toArray());
+        }
+        return found;
+    }
+
+    private static List<List<String>> chunks(List<String> names)
+    {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < names.size(); from += NAMES_PER_STATEMENT) {
+            chunks.add(names.subList(from, Math.min(from + NAMES_PER_STATEMENT, names.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,13 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class PaymentMethodCodes extends CodeTable {
+
+    public PaymentMethodCodes(JdbcTemplate jdbcTemplate)
+    {
+        super(jdbcTemplate, "payment_method", 100, 1000);
+    }
+}
@@ -0,0 +1,76 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 지금 트랜잭션에서 새로 넣은 이름과 id. 롤백되면 DB에 없는 id가 되므로 커밋된 뒤에야 공용 캐시로 옮긴다.
+// 트랜잭션 밖에서 넣은 이름은 바로 커밋되므로 여기에 담지 않는다.
+final class PendingIds {
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private PendingIds() {}
+
+    // 지금 트랜잭션에 묶인 것을 돌려준다. 트랜잭션 밖이거나 아직 넣은 이름이 없으면 null이다.
+    static PendingIds peek(Object owner)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        return (PendingIds) TransactionSynchronizationManager.getResource(owner);
+    }
+
+    // 트랜잭션 밖이면 null이다.
+    static PendingIds bind(Object owner, Consumer<Map<String, Integer>> onCommit)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        PendingIds pending = (PendingIds) TransactionSynchronizationManager.getResource(owner);
+        if (pending != null) return pending;
+
+        PendingIds created = new PendingIds();
+        TransactionSynchronizationManager.bindResource(owner, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit()
+            {
+                onCommit.accept(created.ids);
+            }
+
+            @Override
+            public void afterCompletion(int status)
+            {
+                TransactionSynchronizationManager.unbindResourceIfPossible(owner);
+            }
+        });
+        return created;
+    }
+
+    Integer get(String name)
+    {
+        return ids.get(name);
+    }
+
+    String name(int id)
+    {
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            if (entry.getValue() == id) return entry.getKey();
+        }
+        return null;
+    }
+
+    boolean contains(String name)
+    {
+        return ids.containsKey(name);
+    }
+
+    int size()
+    {
+        return ids.size();
+    }
+
+    void putAll(Map<String, Integer> inserted)
+    {
+        ids.putAll(inserted);
+    }
+}
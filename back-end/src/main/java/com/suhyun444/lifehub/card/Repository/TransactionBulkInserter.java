@@ -0,0 +1,164 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+
+// 업로드로 들어온 행을 JPA 대신 여러 행짜리 INSERT 한 문장으로 넣는다.
+// IDENTITY 키라서 Hibernate는 saveAll을 행마다 한 번씩 보내지만, 여기서는 500행당 한 번만 보낸다.
+// (user, keyHash)가 이미 있는 행은 ON DUPLICATE KEY UPDATE id = id로 DB가 건너뛴다. (MariaDB, 그리고 테스트용 H2 MODE=MySQL)
+// INSERT IGNORE와 달리 잘림이나 NOT NULL 위반은 경고로 넘어가지 않고 오류가 된다.
+@Repository
+public class TransactionBulkInserter {
+    static final int ROWS_PER_STATEMENT = 500;
+    static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE id = id";
+    private static final String INSERT = "INSERT INTO transaction "
+            + "(transaction_key, key_hash, date, transaction_date, merchant, merchant_id, amount, category_code, description, status, payment_method_code, is_deleted, user_id) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryCodes categoryCodes;
+    private final PaymentMethodCodes paymentMethodCodes;
+    private final String fullStatement;
+    private final boolean consecutiveIds;
+
+    public TransactionBulkInserter(JdbcTemplate jdbcTemplate, CategoryCodes categoryCodes, PaymentMethodCodes paymentMethodCodes)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryCodes = categoryCodes;
+        this.paymentMethodCodes = paymentMethodCodes;
+        this.fullStatement = insertStatement(ROWS_PER_STATEMENT);
+        this.consecutiveIds = consecutiveIds(jdbcTemplate);
+    }
+
+    // 실제로 들어간 행만 id를 채워서 돌려준다. 나머지는 DB에 같은 키가 이미 있던 행이다.
+    public List<Transaction> insertIgnoringDuplicates(List<Transaction> transactions, User user)
+    {
+        List<Transaction> inserted = new ArrayList<>();
+        for (int from = 0; from < transactions.size(); from += ROWS_PER_STATEMENT) {
+            List<Transaction> chunk = transactions.subList(from, Math.min(from + ROWS_PER_STATEMENT, transactions.size()));
+            String sql = chunk.size() == ROWS_PER_STATEMENT ? fullStatement : insertStatement(chunk.size());
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
+                bind(ps, chunk, user);
+                return ps;
+            }, keys);
+            Long firstId = firstGeneratedId(keys);
+            if (firstId != null) {
+                collectInserted(chunk, user, firstId, inserted);
+            }
+        }
+        return inserted;
+    }
+
+    // 이 문장이 처음 만든 id. 아무 행도 넣지 않았으면 null이다.
+    static Long firstGeneratedId(KeyHolder keys)
+    {
+        Long first = null;
+        for (Map<String, Object> row : keys.getKeyList()) {
+            for (Object value : row.values()) {
+                if (!(value instanceof Number number) || number.longValue() <= 0) continue;
+                if (first == null || number.longValue() < first) first = number.longValue();
+            }
+        }
+        return first;
+    }
+
+    // 여러 행짜리 INSERT가 자동 증가 id를 문장 단위로 한꺼번에 잡는지 본다. innodb_autoinc_lock_mode 0/1(MariaDB 기본값)이면 그렇고,
+    // 2(MySQL 8 기본값)면 다른 문장과 번갈아 잡아서 사이가 빈다. 값을 읽을 수 없는 DB(H2)는 2로 본다.
+    static boolean consecutiveIds(JdbcTemplate jdbcTemplate)
+    {
+        try {
+            Integer mode = jdbcTemplate.queryForObject("SELECT @@innodb_autoinc_lock_mode", Integer.class);
+            return mode != null && mode < 2;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    // 이 문장이 넣은 행의 id 범위 [처음 만든 id, 끝). 문장이 시작되기 전에 있던 행은 모두 처음 만든 id보다 작다.
+    // id가 연속이면 끝은 처음 만든 id + 행 수라서 동시에 같은 키를 넣은 다른 요청의 행도 빠진다.
+    // 연속이 아니면 끝을 열어 두고, 그런 행은 (user_id, key_hash)와 처음 만든 id로만 거른다.
+    static long idLimit(boolean consecutiveIds, long firstId, int rows)
+    {
+        return consecutiveIds ? firstId + rows : Long.MAX_VALUE;
+    }
+
+    // 어느 행이 들어갔는지는 키로 다시 읽어 id를 받는다.
+    private void collectInserted(List<Transaction> chunk, User user, long firstId, List<Transaction> inserted)
+    {
+        String sql = "SELECT id, key_hash FROM transaction WHERE user_id = ? AND id >= ? AND id < ? AND key_hash IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+        Map<Long, Long> ids = new HashMap<>();
+        jdbcTemplate.query(sql, ps -> {
+            ps.setLong(1, user.getId());
+            ps.setLong(2, firstId);
+            ps.setLong(3, idLimit(consecutiveIds, firstId, chunk.size()));
+            for (int i = 0; i < chunk.size(); i++) ps.setLong(i + 4, Transaction.hashKey(chunk.get(i).getTransactionKey()));
+        }, rs -> {
+            ids.put(rs.getLong(2), rs.getLong(1));
+        });
+        for (Transaction transaction : chunk) {
+            Long id = ids.get(Transaction.hashKey(transaction.getTransactionKey()));
+            if (id == null) continue;
+            transaction.setId(id);
+            transaction.setUser(user);
+            inserted.add(transaction);
+        }
+    }
+
+    private void bind(PreparedStatement ps, List<Transaction> chunk, User user) throws SQLException
+    {
+        int index = 1;
+        for (Transaction transaction : chunk) {
+            ps.setString(index++, transaction.getTransactionKey());
+            ps.setLong(index++, Transaction.hashKey(transaction.getTransactionKey()));
+            ps.setString(index++, transaction.getDate());
+            setDate(ps, index++, StatementDates.parseDateOrUndated(transaction.getDate()));
+            ps.setString(index++, transaction.getMerchant());
+            setInteger(ps, index++, transaction.getMerchantId());
+            ps.setInt(index++, transaction.getAmount());
+            ps.setShort(index++, categoryCodes.code(transaction.getCategory()));
+            ps.setString(index++, transaction.getDescription());
+            // 엔티티의 status는 @Enumerated 없이 순번으로 저장된다.
+            ps.setInt(index++, transaction.getStatus().ordinal());
+            ps.setShort(index++, paymentMethodCodes.code(transaction.getPaymentMethod()));
+            ps.setBoolean(index++, Boolean.TRUE.equals(transaction.getIsDeleted()));
+            ps.setLong(index++, user.getId());
+        }
+    }
+
+    static void setDate(PreparedStatement ps, int index, LocalDate date) throws SQLException
+    {
+        if (date == null) ps.setNull(index, Types.DATE);
+        else ps.setObject(index, date);
+    }
+
+    static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException
+    {
+        if (value == null) ps.setNull(index, Types.INTEGER);
+        else ps.setInt(index, value);
+    }
+
+    private static String insertStatement(int rows)
+    {
+        return INSERT + String.join(", ", Collections.nCopies(rows, ROW)) + ON_DUPLICATE;
+    }
+}
@@ -0,0 +1,171 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+
+// 업로드 전체를 transaction_import_stage에 먼저 넣고, 중복 확인과 과거 카테고리 조회를 조인으로 한 번에 한다.
+// 키나 상점 이름을 IN 목록으로 바인딩하지 않으므로 업로드가 커져도 문장 하나의 파라미터 수는 그대로다.
+// upload.import.staged=true일 때만 쓴다. 문법은 TransactionBulkInserter와 같이 MariaDB(H2 MODE=MySQL) 기준이다.
+@Repository
+public class TransactionImportStage {
+    static final int ROWS_PER_STATEMENT = 500;
+    private static final String STAGE = "INSERT IGNORE INTO transaction_import_stage "
+            + "(import_id, seq, transaction_key, key_hash, date, transaction_date, merchant, merchant_id, amount, description, status, payment_method_code) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryCodes categoryCodes;
+    private final PaymentMethodCodes paymentMethodCodes;
+    private final boolean enabled;
+    private final boolean consecutiveIds;
+
+    public TransactionImportStage(JdbcTemplate jdbcTemplate,
+                                  CategoryCodes categoryCodes,
+                                  PaymentMethodCodes paymentMethodCodes,
+                                  @Value("${upload.import.staged:false}") boolean enabled)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryCodes = categoryCodes;
+        this.paymentMethodCodes = paymentMethodCodes;
+        this.enabled = enabled;
+        this.consecutiveIds = TransactionBulkInserter.consecutiveIds(jdbcTemplate);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    // 파일 순서 firstSeq부터 번호를 붙여 넣는다. 같은 가져오기 안에서 키가 겹치면 먼저 들어온 행만 남고, 남은 행 수를 돌려준다.
+    public int stage(String importId, long firstSeq, List<Transaction> transactions)
+    {
+        int staged = 0;
+        for (int from = 0; from < transactions.size(); from += ROWS_PER_STATEMENT) {
+            List<Transaction> chunk = transactions.subList(from, Math.min(from + ROWS_PER_STATEMENT, transactions.size()));
+            long chunkSeq = firstSeq + from;
+            String sql = STAGE + String.join(", ", Collections.nCopies(chunk.size(), ROW));
+            staged += jdbcTemplate.update(sql, ps -> bind(ps, importId, chunkSeq, chunk));
+        }
+        return staged;
+    }
+
+    // 이 사용자의 거래 내역에 이미 있는 키를 스테이징에서 지우고, 지운 행 수를 돌려준다.
+    public int removeExisting(String importId, User user)
+    {
+        return jdbcTemplate.update("DELETE FROM transaction_import_stage WHERE import_id = ? "
+                + "AND (EXISTS (SELECT 1 FROM transaction t WHERE t.user_id = ? AND t.key_hash = transaction_import_stage.key_hash) "
+                + "OR EXISTS (SELECT 1 FROM transaction_tombstone d WHERE d.user_id = ? AND d.key_hash = transaction_import_stage.key_hash))",
+                importId, user.getId(), user.getId());
+    }
+
+    public List<String> findMerchants(String importId)
+    {
+        return jdbcTemplate.queryForList("SELECT DISTINCT merchant FROM transaction_import_stage WHERE import_id = ?", String.class, importId);
+    }
+
+    // 이 사용자의 거래에서 상점마다 가장 최근 거래의 카테고리. TransactionRepository.findLatestCategoriesByMerchantIds와 같은 기준이다.
+    // 비교는 merchant_id로 하고, 상점마다 한 행만 받아서 이름으로 돌려준다.
+    public Map<String, String> findHistoryCategories(String importId, User user)
+    {
+        Map<String, String> categories = new HashMap<>();
+        jdbcTemplate.query("SELECT latest.name, latest.category_code FROM ("
+                + "SELECT m.name, t.category_code, "
+                + "ROW_NUMBER() OVER (PARTITION BY t.merchant_id ORDER BY t.transaction_date DESC, t.id DESC) AS rn "
+                + "FROM transaction t JOIN merchant m ON m.id = t.merchant_id "
+                + "WHERE t.user_id = ? "
+                + "AND t.merchant_id IN (SELECT s.merchant_id FROM transaction_import_stage s WHERE s.import_id = ?)"
+                + ") latest WHERE latest.rn = 1", rs -> {
+            categories.put(rs.getString(1), categoryCodes.name(rs.getShort(2)));
+        }, user.getId(), importId);
+        return categories;
+    }
+
+    // 카테고리는 상점으로만 정해지므로 행이 아니라 상점마다 한 번씩 갱신한다.
+    public void applyCategories(String importId, Map<String, String> categories)
+    {
+        List<Object[]> updates = new ArrayList<>(categories.size());
+        categories.forEach((merchant, category) -> updates.add(new Object[]{categoryCodes.code(category), importId, merchant}));
+        jdbcTemplate.batchUpdate("UPDATE transaction_import_stage SET category_code = ? WHERE import_id = ? AND merchant = ?", updates);
+    }
+
+    // 남은 행을 INSERT ... SELECT 한 문장으로 옮기고, 실제로 들어간 행을 파일 순서대로 돌려준다.
+    // 그사이 다른 요청이 같은 키를 넣었으면 ON DUPLICATE KEY UPDATE로 DB가 건너뛴다. 잘림이나 NOT NULL 위반은 오류가 된다.
+    // 넣은 행은 TransactionBulkInserter처럼 키와 id 범위로 다시 읽는다.
+    // INSERT ... SELECT는 innodb_autoinc_lock_mode 0/1이면 문장이 끝날 때까지 AUTO-INC 락을 잡아서 id가 연속이다.
+    public List<Transaction> insertNew(String importId, User user)
+    {
+        Integer remaining = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM transaction_import_stage WHERE import_id = ?", Integer.class, importId);
+        if (remaining == null || remaining == 0) return List.of();
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("INSERT INTO transaction "
+                + "(transaction_key, key_hash, date, transaction_date, merchant, merchant_id, amount, category_code, description, status, payment_method_code, is_deleted, user_id) "
+                + "SELECT s.transaction_key, s.key_hash, s.date, s.transaction_date, s.merchant, s.merchant_id, s.amount, s.category_code, s.description, s.status, s.payment_method_code, FALSE, ? "
+                + "FROM transaction_import_stage s WHERE s.import_id = ? ORDER BY s.seq "
+                + "ON DUPLICATE KEY UPDATE transaction.id = transaction.id", new String[]{"id"});
+            ps.setLong(1, user.getId());
+            ps.setString(2, importId);
+            return ps;
+        }, keys);
+        Long firstId = TransactionBulkInserter.firstGeneratedId(keys);
+        if (firstId == null) return List.of();
+
+        return jdbcTemplate.query("SELECT t.id, t.transaction_key, t.date, t.merchant, t.amount, t.category_code, t.description, t.status, t.payment_method_code "
+                + "FROM transaction_import_stage s JOIN transaction t ON t.user_id = ? AND t.key_hash = s.key_hash "
+                + "WHERE s.import_id = ? AND t.id >= ? AND t.id < ? ORDER BY s.seq", (rs, rowNum) -> Transaction.builder()
+                    .id(rs.getLong(1))
+                    .transactionKey(rs.getString(2))
+                    .date(rs.getString(3))
+                    .merchant(rs.getString(4))
+                    .amount(rs.getInt(5))
+                    .category(categoryCodes.name(rs.getShort(6)))
+                    .description(rs.getString(7))
+                    .status(PaymentStatus.values()[rs.getInt(8)])
+                    .paymentMethod(paymentMethodCodes.name(rs.getShort(9)))
+                    .user(user)
+                    .build(), user.getId(), importId, firstId, TransactionBulkInserter.idLimit(consecutiveIds, firstId, remaining));
+    }
+
+    public void clear(String importId)
+    {
+        jdbcTemplate.update("DELETE FROM transaction_import_stage WHERE import_id = ?", importId);
+    }
+
+    private void bind(PreparedStatement ps, String importId, long firstSeq, List<Transaction> chunk) throws SQLException
+    {
+        int index = 1;
+        long seq = firstSeq;
+        for (Transaction transaction : chunk) {
+            ps.setString(index++, importId);
+            ps.setLong(index++, seq++);
+            ps.setString(index++, transaction.getTransactionKey());
+            ps.setLong(index++, Transaction.hashKey(transaction.getTransactionKey()));
+            ps.setString(index++, transaction.getDate());
+            TransactionBulkInserter.setDate(ps, index++, StatementDates.parseDateOrUndated(transaction.getDate()));
+            ps.setString(index++, transaction.getMerchant());
+            TransactionBulkInserter.setInteger(ps, index++, transaction.getMerchantId());
+            ps.setInt(index++, transaction.getAmount());
+            ps.setString(index++, transaction.getDescription());
+            ps.setInt(index++, transaction.getStatus().ordinal());
+            ps.setShort(index++, paymentMethodCodes.code(transaction.getPaymentMethod()));
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.suhyun444.lifehub.card.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -14,15 +18,66 @@ import com.suhyun444.lifehub.card.Entity.Transaction;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction,Long>{
-    @Query("SELECT new com.suhyun444.lifehub.card.DTO.MerchantCategoryDto(t.merchant, t.category) " +
+    // 이 사용자의 거래에서 상점마다 가장 최근 거래(날짜, 같으면 id 순) 한 행의 카테고리. TransactionImportStage.findHistoryCategories와 같은 기준이다.
+    // (user_id, merchant_id, transaction_date) 인덱스를 쓴다.
+    @Query("SELECT new com.suhyun444.lifehub.card.DTO.MerchantCategoryDto(t.merchantId, t.category) " +
            "FROM Transaction t " +
-           "WHERE t.merchant IN :merchants " +
-           "ORDER BY t.date DESC")
-    List<MerchantCategoryDto> findCategoriesByMerchantsOrderByDateDesc(@Param("merchants") List<String> merchants);
+           "WHERE t.user.id = :userId AND t.merchantId IN :merchantIds " +
+           "AND NOT EXISTS (SELECT 1 FROM Transaction n WHERE n.user.id = :userId AND n.merchantId = t.merchantId " +
+           "AND (n.transactionDate > t.transactionDate OR (n.transactionDate = t.transactionDate AND n.id > t.id)))")
+    List<MerchantCategoryDto> findLatestCategoriesByMerchantIds(@Param("userId") Long userId, @Param("merchantIds") List<Integer> merchantIds);
 
-    @Query("SELECT t.transactionKey FROM Transaction t WHERE t.transactionKey IN :keys")
-    Set<String> findExistingKeys(@Param("keys") List<String> keys);
+    // (user, keyHash) 유니크 인덱스로 찾는다. 해시가 같은 다른 키는 돌려준 키 문자열로 구분된다.
+    // 날짜 범위 [from, to)는 파티션을 나눈 테이블에서 업로드에 들어 있는 달의 파티션만 읽게 한다.
+    @Query("SELECT t.transactionKey FROM Transaction t WHERE t.user.id = :userId AND t.keyHash IN :hashes "
+         + "AND t.transactionDate >= :from AND t.transactionDate < :to")
+    Set<String> findExistingKeys(@Param("userId") Long userId, @Param("hashes") List<Long> hashes,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+    // 백필이 끝나기 전에 쓴다. 해시가 빈 예전 행은 키 문자열로 찾고, 날짜가 빈 행도 있어서 기간으로 좁히지 않는다.
+    @Query("SELECT t.transactionKey FROM Transaction t WHERE t.user.id = :userId "
+         + "AND (t.keyHash IN :hashes OR (t.keyHash IS NULL AND t.transactionKey IN :keys))")
+    Set<String> findExistingKeysIncludingLegacy(@Param("userId") Long userId, @Param("hashes") List<Long> hashes,
+                                                @Param("keys") List<String> keys);
+
+    // 키 필터를 만들 때 쓴다. 아직 해시가 채워지지 않은 예전 행은 키 문자열로 받아서 직접 해시한다.
+    @Query("SELECT t.keyHash FROM Transaction t WHERE t.user.id = :userId AND t.keyHash IS NOT NULL")
+    List<Long> findKeyHashes(@Param("userId") Long userId);
+    @Query("SELECT t.transactionKey FROM Transaction t WHERE t.user.id = :userId AND t.keyHash IS NULL")
+    List<String> findKeysWithoutHash(@Param("userId") Long userId);
 
-    void deleteByUserId(Long userId);
     List<Transaction> findByUserIdAndIsDeletedFalse(Long userId);
+
+    // (user_id, is_deleted, transaction_date) 인덱스의 범위 조회. 기간은 [from, to)이다.
+    // 파티션을 나눈 테이블에서는 이 조건으로 해당 달의 파티션만 읽는다(TransactionPartitioner).
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.isDeleted = false "
+         + "AND t.transactionDate >= :from AND t.transactionDate < :to ORDER BY t.transactionDate, t.id")
+    List<Transaction> findLiveInRange(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    default List<Transaction> findLiveInMonth(Long userId, YearMonth month) {
+        return findLiveInRange(userId, month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    // 양 끝 날짜를 모두 포함한다.
+    default List<Transaction> findLiveBetween(Long userId, LocalDate first, LocalDate last) {
+        return findLiveInRange(userId, first, last.plusDays(1));
+    }
+
+    // 일괄 수정용. 모두 사용자 조건을 같이 걸어서 다른 사용자의 행은 건드리지 않는다.
+    @Query("SELECT t.id FROM Transaction t WHERE t.user.id = :userId AND t.id IN :ids AND t.isDeleted = false")
+    Set<Long> findLiveIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<Transaction> findAllByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.category = :category WHERE t.user.id = :userId AND t.id IN :ids")
+    int updateCategory(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("category") String category);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.amount = :amount WHERE t.user.id = :userId AND t.id IN :ids")
+    int updateAmount(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("amount") int amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.isDeleted = true, t.deletedAt = :deletedAt WHERE t.user.id = :userId AND t.id IN :ids")
+    int softDelete(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
 }
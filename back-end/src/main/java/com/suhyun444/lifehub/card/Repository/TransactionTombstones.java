@@ -0,0 +1,52 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// 지운 거래의 키 해시를 남기고 찾는다. 거래 내역을 모두 비우면 함께 지워서 다시 올린 명세서가 그대로 들어가게 한다.
+@Repository
+public class TransactionTombstones {
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionTombstones(JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // rows는 {user_id, key_hash} 쌍이다. 이미 남아 있는 키는 건너뛴다.
+    public void record(List<Object[]> rows, LocalDateTime purgedAt)
+    {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO transaction_tombstone (user_id, key_hash, purged_at) VALUES (?, ?, ?)",
+            rows.stream().map(row -> new Object[]{row[0], row[1], purgedAt}).toList());
+    }
+
+    // 넘겨받은 해시 중 지운 적이 있는 것만 돌려준다.
+    public Set<Long> findPurged(Long userId, Collection<Long> hashes)
+    {
+        Set<Long> purged = new HashSet<>();
+        if (hashes.isEmpty()) return purged;
+        Object[] args = new Object[hashes.size() + 1];
+        args[0] = userId;
+        int i = 1;
+        for (Long hash : hashes) args[i++] = hash;
+        jdbcTemplate.query("SELECT key_hash FROM transaction_tombstone WHERE user_id = ? AND key_hash IN ("
+                + String.join(", ", Collections.nCopies(hashes.size(), "?")) + ")",
+                rs -> {
+                    purged.add(rs.getLong(1));
+                }, args);
+        return purged;
+    }
+
+    public List<Long> findHashes(Long userId)
+    {
+        return jdbcTemplate.queryForList("SELECT key_hash FROM transaction_tombstone WHERE user_id = ?", Long.class, userId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.suhyun444.lifehub.card.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.suhyun444.lifehub.card.Entity.UploadDigest;
+
+@Repository
+public interface UploadDigestRepository extends JpaRepository<UploadDigest,Long> {
+    Optional<UploadDigest> findByUserIdAndDigest(Long userId, String digest);
+
+    // 같은 파일을 동시에 올린 두 요청이 둘 다 기록해도 유일 키 위반이 나지 않게 한다. 먼저 들어간 결과를 그대로 둔다.
+    @Modifying
+    @Query(value = "INSERT INTO upload_digest (user_id, digest, parsed_count, inserted_count, duplicate_count, hit_count, created_at) "
+                 + "VALUES (:userId, :digest, :parsedCount, :insertedCount, :duplicateCount, 0, :createdAt) "
+                 + "ON DUPLICATE KEY UPDATE hit_count = hit_count", nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("digest") String digest,
+               @Param("parsedCount") int parsedCount, @Param("insertedCount") int insertedCount,
+               @Param("duplicateCount") int duplicateCount, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM UploadDigest d WHERE d.user.id = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+}
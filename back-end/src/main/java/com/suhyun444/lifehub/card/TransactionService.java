@@ -1,37 +1,78 @@
 package com.suhyun444.lifehub.card;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.suhyun444.lifehub.User.UserRepository;
+import com.suhyun444.lifehub.card.Component.KnownKeyFilter;
+import com.suhyun444.lifehub.card.Component.ParseAdmission;
 import com.suhyun444.lifehub.card.Component.SpendingAnalyzer;
 import com.suhyun444.lifehub.card.Component.TransactionCategorizer;
+import com.suhyun444.lifehub.card.Component.TransactionDateBackfill;
+import com.suhyun444.lifehub.card.Component.TransactionKeyBackfill;
+import com.suhyun444.lifehub.card.Component.UploadDigestCache;
 import com.suhyun444.lifehub.card.DTO.AnalysisDto;
+import com.suhyun444.lifehub.card.DTO.BatchUploadDto;
+import com.suhyun444.lifehub.card.DTO.BatchUploadDto.FileResult;
+import com.suhyun444.lifehub.card.DTO.BatchUploadDto.FileStatus;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto.ItemResult;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto.ItemStatus;
 import com.suhyun444.lifehub.card.DTO.CategoryUpdateDto;
 import com.suhyun444.lifehub.card.DTO.MerchantCategoryDto;
 import com.suhyun444.lifehub.card.DTO.TransactionDto;
+import com.suhyun444.lifehub.card.DTO.UploadResultDto;
 import com.suhyun444.lifehub.card.Entity.AnalysisHistory;
+import com.suhyun444.lifehub.card.Entity.ImportWatermark;
 import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.UploadDigest;
 import com.suhyun444.lifehub.card.Entity.User;
-import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
-import com.suhyun444.lifehub.card.Parser.TransactionParser;
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+import com.suhyun444.lifehub.card.Parser.StatementReader;
+import com.suhyun444.lifehub.card.Parser.TransactionParserRegistry;
 import com.suhyun444.lifehub.card.Repository.AnalysisHistoryRepository;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.ImportWatermarkRepository;
+import com.suhyun444.lifehub.card.Repository.MerchantDictionary;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionImportStage;
 import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.card.Repository.TransactionTombstones;
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+import com.suhyun444.lifehub.card.Upload.StatementBatch;
+import com.suhyun444.lifehub.card.Upload.StatementCoverage;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+import com.suhyun444.lifehub.card.Upload.UploadPipeline;
+import com.suhyun444.lifehub.card.Upload.UploadProgress;
 
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 public class TransactionService {
     private final TransactionRepository transactionRepository;
@@ -39,6 +80,22 @@ public class TransactionService {
     private final AnalysisHistoryRepository analysisHistoryRepository;
     private final TransactionCategorizer transactionCategorizer;
     private final SpendingAnalyzer spendingAnalyzer;
+    private final UploadPipeline uploadPipeline;
+    private final UploadDigestCache uploadDigestCache;
+    private final ImportWatermarkRepository importWatermarkRepository;
+    private final TransactionParserRegistry parserRegistry;
+    private final ParseAdmission parseAdmission;
+    private final UploadLimits uploadLimits;
+    private final TransactionBulkInserter transactionBulkInserter;
+    private final TransactionImportStage transactionImportStage;
+    private final KnownKeyFilter knownKeyFilter;
+    private final MerchantDictionary merchantDictionary;
+    private final TransactionTombstones transactionTombstones;
+    private final TransactionKeyBackfill transactionKeyBackfill;
+    private final TransactionDateBackfill transactionDateBackfill;
+    private final StatementReader statementReader = new StatementReader();
+    private static final int MAX_BATCH_FILES = 20;
+    private static final int MAX_BULK_EDITS = 500;
     private static final Set<String> AMBIGUOUS_MERCHANTS = Set.of(
         "네이버페이", "카카오페이", "토스", "PAYCO", 
         "KG이니시스", "다날", "NICE페이", "KCP"
@@ -48,37 +105,189 @@ public class TransactionService {
                               UserRepository userRepository,
                               TransactionCategorizer transactionCategorizer,
                               SpendingAnalyzer spendingAnalyzer,
-                              AnalysisHistoryRepository analysisHistoryRepository) {
+                              AnalysisHistoryRepository analysisHistoryRepository,
+                              UploadPipeline uploadPipeline,
+                              UploadDigestCache uploadDigestCache,
+                              ImportWatermarkRepository importWatermarkRepository,
+                              TransactionParserRegistry parserRegistry,
+                              ParseAdmission parseAdmission,
+                              UploadLimits uploadLimits,
+                              TransactionBulkInserter transactionBulkInserter,
+                              TransactionImportStage transactionImportStage,
+                              KnownKeyFilter knownKeyFilter,
+                              MerchantDictionary merchantDictionary,
+                              TransactionTombstones transactionTombstones,
+                              TransactionKeyBackfill transactionKeyBackfill,
+                              TransactionDateBackfill transactionDateBackfill) {
         this.transactionRepository = transactionRepository;
         this.userRepository = userRepository;
         this.transactionCategorizer = transactionCategorizer;
         this.spendingAnalyzer = spendingAnalyzer;
         this.analysisHistoryRepository = analysisHistoryRepository;
+        this.uploadPipeline = uploadPipeline;
+        this.uploadDigestCache = uploadDigestCache;
+        this.importWatermarkRepository = importWatermarkRepository;
+        this.parserRegistry = parserRegistry;
+        this.parseAdmission = parseAdmission;
+        this.uploadLimits = uploadLimits;
+        this.transactionBulkInserter = transactionBulkInserter;
+        this.transactionImportStage = transactionImportStage;
+        this.knownKeyFilter = knownKeyFilter;
+        this.transactionTombstones = transactionTombstones;
+        this.merchantDictionary = merchantDictionary;
+        this.transactionKeyBackfill = transactionKeyBackfill;
+        this.transactionDateBackfill = transactionDateBackfill;
     }   
 
     @Transactional
     public List<TransactionDto> uploadAndParseExcel(MultipartFile file, Long userId) throws Exception
     {
-        TransactionParser parser = new KookminTransactionParser();
-        List<Transaction> transactions;
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File is empty or null");
         }
 
-        try (InputStream is = file.getInputStream();
-            Workbook workbook = WorkbookFactory.create(is)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            transactions = parser.parse(sheet);
-            categorizeTransactions(transactions);
-            
-            User user = userRepository.findById(userId).orElseThrow();
-            
-            importTransactions(transactions,user);
-            List<TransactionDto> result = transactionRepository.findByUserIdAndIsDeletedFalse(user.getId()).stream().map(TransactionDto::from).collect(Collectors.toList());
+        try (SpooledUpload upload = uploadLimits.spool(file)) {
+            importStatement(upload, userId, new UploadProgress(), transaction -> {});
+
+            List<TransactionDto> result = transactionRepository.findByUserIdAndIsDeletedFalse(userId).stream().map(TransactionDto::from).collect(Collectors.toList());
             return result;
         }
     }
+    // 업로드로 새로 들어간 행과 처리 건수만 돌려준다. 나머지는 클라이언트가 이미 들고 있다.
+    @Transactional
+    public UploadResultDto uploadStatement(MultipartFile file, Long userId) throws Exception
+    {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty or null");
+        }
+
+        try (SpooledUpload upload = uploadLimits.spool(file)) {
+            return importUpload(upload, userId);
+        }
+    }
+    // 이미 스풀된 파일을 가져온다. 파일은 호출한 쪽이 닫는다.
+    @Transactional
+    public UploadResultDto importUpload(SpooledUpload upload, Long userId) throws Exception
+    {
+        UploadProgress progress = new UploadProgress();
+        List<TransactionDto> inserted = new ArrayList<>();
+        importStatement(upload, userId, progress, transaction -> inserted.add(TransactionDto.from(transaction)));
+        return UploadResultDto.of(inserted, progress, getDataVersion(userId));
+    }
+    // 여러 명세서(또는 ZIP)를 파일마다 가상 스레드에서 따로 파싱하고, 합친 결과를 한 번에 중복 제거해서 저장한다.
+    // 카드가 여러 장이면 날짜 구간이 서로 겹치므로 사용자 단위 워터마크는 건너뛰고 키 비교만 한다.
+    @Transactional
+    public BatchUploadDto.Response uploadStatementBatch(List<MultipartFile> files, Long userId) throws Exception
+    {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("File is empty or null");
+        }
+
+        try (StatementBatch batch = uploadLimits.spoolBatch(files, MAX_BATCH_FILES)) {
+            User user = userRepository.findById(userId).orElseThrow();
+            List<BatchFile> batchFiles = parseAll(batch.getUploads(), userId);
+
+            // 어느 파일에서 온 행인지 기억해 두었다가 저장된 건수를 파일별로 나눈다.
+            Map<Transaction, UploadProgress> origins = new IdentityHashMap<>();
+            List<Transaction> merged = new ArrayList<>();
+            for (BatchFile batchFile : batchFiles) {
+                if (batchFile.rows == null) continue;
+                batchFile.rows.forEach(transaction -> origins.put(transaction, batchFile.progress));
+                merged.addAll(batchFile.rows);
+            }
+
+            UploadProgress total = new UploadProgress();
+            List<TransactionDto> inserted = new ArrayList<>();
+            Map<String, String> keywordCache = new ConcurrentHashMap<>();
+            Map<Integer, String> categoryCache = new HashMap<>();
+            Set<String> seenKeys = new HashSet<>();
+            uploadPipeline.run(
+                sink -> merged.forEach(sink),
+                chunk -> suggestCategories(chunk, keywordCache),
+                chunk -> importTransactions(chunk, user, seenKeys, total, transaction -> {
+                    origins.get(transaction).addInserted(1);
+                    inserted.add(TransactionDto.from(transaction));
+                }, newTransactions -> categorizeTransactions(newTransactions, user.getId(), categoryCache)));
+
+            List<FileResult> results = new ArrayList<>();
+            for (BatchFile batchFile : batchFiles) {
+                if (batchFile.status == FileStatus.imported) {
+                    batchFile.progress.addDuplicates(batchFile.progress.getParsed() - batchFile.progress.getInserted());
+                    uploadDigestCache.record(user, batchFile.upload.getDigest(), batchFile.progress);
+                }
+                results.add(FileResult.of(batchFile.upload.getName(), batchFile.status, batchFile.progress, batchFile.message));
+            }
+            if (total.getInserted() > 0) {
+                userRepository.incrementLedgerVersion(userId);
+            }
+            return BatchUploadDto.Response.of(results, inserted, getDataVersion(userId));
+        }
+    }
+    // 비동기 업로드 작업도 이 메서드를 프록시를 통해 호출하므로 작업 스레드에서도 트랜잭션이 열린다.
+    @Transactional
+    public void importStatement(SpooledUpload upload, Long userId, UploadProgress progress, Consumer<Transaction> onInserted) throws Exception
+    {
+        Optional<UploadDigest> previous = uploadDigestCache.lookup(userId, upload.getDigest());
+        if (previous.isPresent()) {
+            progress.markCached(previous.get().getParsedCount());
+            return;
+        }
+
+        User user = userRepository.findById(userId).orElseThrow();
+        // 파서 스레드에서 DB를 보지 않도록 이 사용자의 워터마크를 미리 모두 읽어 둔다. 출처(파서 + 결제수단)마다 하나다.
+        Map<String, ImportWatermark> watermarks = new HashMap<>();
+        importWatermarkRepository.findAllByUserId(userId).forEach(watermark -> watermarks.put(watermark.getSource(), watermark));
+        Map<String, StatementCoverage> coverages = new HashMap<>();
+
+        // 배치마다 같은 상점을 다시 조회하지 않도록 업로드 단위로 상점 이름마다 키워드 결과를, 상점 id마다 정한 카테고리를 기억한다.
+        Map<String, String> keywordCache = new ConcurrentHashMap<>();
+        Map<Integer, String> categoryCache = new HashMap<>();
+        Set<String> seenKeys = new HashSet<>();
+        // 다이제스트로 끝나지 않은 파일만 힙 예산을 잡는다. 예산이 모자라면 잠시 기다리거나 거절된다.
+        UploadPipeline.Source source = sink -> statementReader.read(upload.getFile(), uploadLimits.limitRows(parserRegistry.newSourcedRowHandler((parser, transaction) -> {
+            progress.addParsed(1);
+            LocalDate date = StatementDates.parseDate(transaction.getDate());
+            String statementSource = ImportWatermark.source(parser, transaction.getPaymentMethod());
+            coverages.computeIfAbsent(statementSource, key -> new StatementCoverage()).add(transaction, date);
+            // 같은 출처에서 이미 가져온 구간의 행은 DB에 묻지 않고 여기서 버린다.
+            ImportWatermark watermark = watermarks.get(statementSource);
+            if (watermark != null && watermark.covers(date, transaction.getTransactionKey())) {
+                progress.addDuplicates(1);
+                return;
+            }
+            sink.accept(transaction);
+        }, () -> progress.addSkippedZeroAmount(1))));
+        try (ParseAdmission.Permit permit = parseAdmission.acquire(upload)) {
+            // 스테이징 방식은 key_hash로만 중복을 찾으므로 백필이 끝난 뒤에만 쓴다.
+            if (transactionImportStage.isEnabled() && legacyRowsBackfilled()) {
+                importStaged(source, user, progress, onInserted);
+            } else {
+                // 분류 워커는 DB 없이 키워드만 맞춰 둔다.
+                // 상점 id와 과거 카테고리 조회는 저장 스레드에서 DB에 없는 행만 한다.
+                uploadPipeline.run(
+                    source,
+                    batch -> suggestCategories(batch, keywordCache),
+                    batch -> importTransactions(batch, user, seenKeys, progress, onInserted,
+                        newTransactions -> categorizeTransactions(newTransactions, user.getId(), categoryCache)));
+            }
+        }
+
+        coverages.forEach((statementSource, coverage) -> {
+            if (coverage.isEmpty()) return;
+            ImportWatermark watermark = watermarks.computeIfAbsent(statementSource, key -> new ImportWatermark(user, key));
+            watermark.advance(coverage.getFirstDate(), coverage.getLastDate(), coverage.getLastDateKeys());
+            importWatermarkRepository.save(watermark);
+        });
+        if (progress.getInserted() > 0) {
+            userRepository.incrementLedgerVersion(userId);
+        }
+        uploadDigestCache.record(user, upload.getDigest(), progress);
+    }
+    @Transactional
+    public long getDataVersion(Long userId)
+    {
+        return userRepository.findLedgerVersion(userId).orElse(0L);
+    }
     @Transactional
     public List<TransactionDto> getTransactions(Long userId)
     {
@@ -86,62 +295,296 @@ public class TransactionService {
         List<TransactionDto> result = transactions.stream().map(TransactionDto::from).collect(Collectors.toList());
         return result;
     } 
+    // 양 끝 날짜를 모두 포함한다. 날짜를 알 수 없는 행은 나오지 않는다.
+    @Transactional
+    public List<TransactionDto> getTransactions(Long userId, LocalDate first, LocalDate last)
+    {
+        if (last.isBefore(first)) {
+            throw new IllegalArgumentException("Range end is before its start");
+        }
+        return transactionRepository.findLiveBetween(userId, first, last).stream().map(TransactionDto::from).collect(Collectors.toList());
+    }
     @Transactional
     public void updateAmount(Long id,int amount)
     {
         Transaction transaction = transactionRepository.findById(id).orElseThrow();
         transaction.setAmount(amount);
+        userRepository.incrementLedgerVersion(transaction.getUser().getId());
     }
     @Transactional
     public void deleteTransaction(Long id)
     {
         Transaction transaction = transactionRepository.findById(id).orElseThrow();
         transaction.setIsDeleted(true);
+        transaction.setDeletedAt(LocalDateTime.now());
+        userRepository.incrementLedgerVersion(transaction.getUser().getId());
     }
     @Transactional
     public TransactionDto updateCategory(Long id,String newCategory)
     {
+        String problem = CategoryCodes.validate(newCategory);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
         Transaction transaction = transactionRepository.findById(id).orElseThrow();
         transaction.setCategory(newCategory);
+        userRepository.incrementLedgerVersion(transaction.getUser().getId());
 
         return TransactionDto.from(transaction);
     }
+
+    // 같은 값으로 바꾸는 항목끼리 묶어 UPDATE ... WHERE id IN (...) 한 문장씩 보낸다.
+    // 한 페이지를 고치면 보통 카테고리 몇 종류라 항목 수와 상관없이 문장 수가 몇 개로 끝난다.
     @Transactional
-    public void clearTransactions(Long userId) throws Exception
+    public BulkEditDto.Response bulkEdit(List<BulkEditDto.Operation> operations, Long userId)
     {
-        transactionRepository.deleteByUserId(userId);
-        return;
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No operations");
+        }
+        if (operations.size() > MAX_BULK_EDITS) {
+            throw new IllegalArgumentException("Too many operations (max " + MAX_BULK_EDITS + ")");
+        }
+
+        ItemResult[] results = new ItemResult[operations.size()];
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BulkEditDto.Operation operation = operations.get(i);
+            String problem = validateEdit(operation);
+            if (problem == null && indexById.putIfAbsent(operation.id(), i) != null) problem = "Duplicate id";
+            if (problem != null) results[i] = ItemResult.invalid(operation == null ? null : operation.id(), problem);
+        }
+        if (indexById.isEmpty()) return BulkEditDto.Response.of(Arrays.asList(results));
+
+        Set<Long> liveIds = transactionRepository.findLiveIds(userId, indexById.keySet());
+        Map<String, List<Long>> byCategory = new HashMap<>();
+        Map<Integer, List<Long>> byAmount = new HashMap<>();
+        List<Long> deletes = new ArrayList<>();
+        List<Long> updates = new ArrayList<>();
+        indexById.forEach((id, index) -> {
+            BulkEditDto.Operation operation = operations.get(index);
+            if (!liveIds.contains(id)) {
+                results[index] = ItemResult.of(id, ItemStatus.not_found);
+            } else if (Boolean.TRUE.equals(operation.deleted())) {
+                deletes.add(id);
+                results[index] = ItemResult.of(id, ItemStatus.deleted);
+            } else {
+                if (operation.category() != null) byCategory.computeIfAbsent(operation.category(), key -> new ArrayList<>()).add(id);
+                if (operation.amount() != null) byAmount.computeIfAbsent(operation.amount(), key -> new ArrayList<>()).add(id);
+                updates.add(id);
+            }
+        });
+
+        byCategory.forEach((category, ids) -> transactionRepository.updateCategory(userId, ids, category));
+        byAmount.forEach((amount, ids) -> transactionRepository.updateAmount(userId, ids, amount));
+        if (!deletes.isEmpty()) transactionRepository.softDelete(userId, deletes, LocalDateTime.now());
+        // 하나라도 바꿨으면 데이터 버전을 올려서 다른 화면이 다시 불러오게 한다.
+        if (!deletes.isEmpty() || !updates.isEmpty()) userRepository.incrementLedgerVersion(userId);
+
+        if (!updates.isEmpty()) {
+            for (Transaction transaction : transactionRepository.findAllByUserIdAndIdIn(userId, updates)) {
+                results[indexById.get(transaction.getId())] = new ItemResult(transaction.getId(), ItemStatus.updated, TransactionDto.from(transaction), null);
+            }
+        }
+        return BulkEditDto.Response.of(Arrays.asList(results));
     }
 
-    private void importTransactions(List<Transaction> transactions,User user)
+    // deleted가 true면 다른 필드는 보지 않는다.
+    private String validateEdit(BulkEditDto.Operation operation)
     {
-        List<String> keys = transactions.stream()
-            .map(Transaction::getTransactionKey)
+        if (operation == null || operation.id() == null) return "Missing id";
+        if (Boolean.TRUE.equals(operation.deleted())) return null;
+        if (operation.category() == null && operation.amount() == null) return "Nothing to change";
+        if (operation.category() != null) return CategoryCodes.validate(operation.category());
+        return null;
+    }
+
+    // 다이제스트 확인은 트랜잭션이 있는 호출 스레드에서 하고, DB를 쓰지 않는 파싱만 파일마다 가상 스레드로 돌린다.
+    // 전체 시간은 가장 오래 걸리는 파일 하나에 가까워진다.
+    private List<BatchFile> parseAll(List<SpooledUpload> uploads, Long userId) throws InterruptedException
+    {
+        List<BatchFile> batchFiles = new ArrayList<>();
+        Set<String> digests = new HashSet<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SpooledUpload upload : uploads) {
+                BatchFile batchFile = new BatchFile(upload);
+                batchFiles.add(batchFile);
+                Optional<UploadDigest> previous = uploadDigestCache.lookup(userId, upload.getDigest());
+                if (previous.isPresent()) {
+                    batchFile.progress.markCached(previous.get().getParsedCount());
+                    batchFile.status = FileStatus.cached;
+                } else if (!digests.add(upload.getDigest())) {
+                    batchFile.status = FileStatus.cached;
+                    batchFile.message = "Same file appears more than once";
+                } else {
+                    batchFile.parsing = executor.submit(() -> parseFile(upload, batchFile.progress));
+                }
+            }
+            for (BatchFile batchFile : batchFiles) {
+                if (batchFile.parsing == null) continue;
+                try {
+                    batchFile.rows = batchFile.parsing.get();
+                    batchFile.status = FileStatus.imported;
+                } catch (ExecutionException e) {
+                    batchFile.status = FileStatus.failed;
+                    if (e.getCause() instanceof IllegalArgumentException) {
+                        batchFile.message = e.getCause().getMessage();
+                    } else if (e.getCause() instanceof RejectedExecutionException) {
+                        batchFile.message = "Server is busy, please retry later";
+                    } else {
+                        log.warn("Failed to parse {}", batchFile.upload.getName(), e.getCause());
+                        batchFile.message = "Failed to parse Excel file";
+                    }
+                }
+            }
+        }
+        return batchFiles;
+    }
+    private List<Transaction> parseFile(SpooledUpload upload, UploadProgress progress) throws IOException, InterruptedException
+    {
+        try (ParseAdmission.Permit permit = parseAdmission.acquire(upload)) {
+            List<Transaction> rows = new ArrayList<>();
+            statementReader.read(upload.getFile(), uploadLimits.limitRows(parserRegistry.newRowHandler(rows::add, () -> progress.addSkippedZeroAmount(1))));
+            progress.addParsed(rows.size());
+            return rows;
+        }
+    }
+    // 파싱한 행을 스테이징 테이블에 모두 넣은 뒤 중복 제거, 과거 카테고리 조회, 저장을 각각 한 문장으로 한다.
+    // 메모리에는 배치 하나와 상점별 카테고리만 남고, 파일 안의 중복 키도 스테이징의 유니크 키가 걸러낸다.
+    private void importStaged(UploadPipeline.Source source, User user, UploadProgress progress, Consumer<Transaction> onInserted) throws Exception
+    {
+        String importId = UUID.randomUUID().toString();
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger staged = new AtomicInteger();
+        try {
+            // 상점 id 조회도 DB를 쓰므로 분류 워커가 아니라 저장 스레드에서 한다.
+            uploadPipeline.run(
+                source,
+                batch -> {},
+                batch -> {
+                    assignMerchantIds(batch);
+                    staged.addAndGet(transactionImportStage.stage(importId, received.getAndAdd(batch.size()), batch));
+                });
+            if (staged.get() == 0) {
+                progress.addDuplicates(received.get());
+                return;
+            }
+            transactionImportStage.removeExisting(importId, user);
+
+            Map<String, String> history = transactionImportStage.findHistoryCategories(importId, user);
+            Map<String, String> categories = new HashMap<>();
+            for (String merchant : transactionImportStage.findMerchants(importId)) {
+                Optional<String> historicalCategory = AMBIGUOUS_MERCHANTS.contains(merchant) ? Optional.empty() : Optional.ofNullable(history.get(merchant));
+                categories.put(merchant, transactionCategorizer.getCategory(merchant, historicalCategory));
+            }
+            transactionImportStage.applyCategories(importId, categories);
+
+            List<Transaction> inserted = transactionImportStage.insertNew(importId, user);
+            knownKeyFilter.add(user.getId(), inserted.stream().map(transaction -> Transaction.hashKey(transaction.getTransactionKey())).toList());
+            progress.addDuplicates(received.get() - inserted.size());
+            progress.addInserted(inserted.size());
+            inserted.forEach(onInserted);
+        } finally {
+            transactionImportStage.clear(importId);
+        }
+    }
+    private void importTransactions(List<Transaction> transactions,User user,Set<String> seenKeys,UploadProgress progress,Consumer<Transaction> onInserted)
+    {
+        importTransactions(transactions, user, seenKeys, progress, onInserted, newTransactions -> {});
+    }
+    // beforeInsert는 DB에 없다고 확인된 행을 저장 직전에 받는다. 분류를 미뤄 둔 행을 여기서 분류한다.
+    private void importTransactions(List<Transaction> transactions,User user,Set<String> seenKeys,UploadProgress progress,Consumer<Transaction> onInserted,
+                                    Consumer<List<Transaction>> beforeInsert)
+    {
+        // 같은 파일 안에서 겹치는 키는 앞의 것만 남긴다. 다른 배치에 있어도 마찬가지다.
+        List<Transaction> candidates = transactions.stream()
+            .filter(transaction -> seenKeys.add(transaction.getTransactionKey()))
             .collect(Collectors.toList());
+        progress.addDuplicates(transactions.size() - candidates.size());
+        if (candidates.isEmpty()) return;
 
-        Set<String> existingKeys = transactionRepository.findExistingKeys(keys);
+        List<Long> hashes = candidates.stream()
+            .map(transaction -> Transaction.hashKey(transaction.getTransactionKey()))
+            .collect(Collectors.toList());
+
+        // 필터가 확실히 없다고 한 키는 DB에 묻지 않는다.
+        List<Long> maybeExisting = knownKeyFilter.mightExist(user.getId(), hashes);
+        Set<String> existingKeys = maybeExisting.isEmpty() ? Set.of() : findExistingKeys(user.getId(), maybeExisting, candidates);
+        knownKeyFilter.recordProbe(maybeExisting.size(), existingKeys.size());
+        // 압축으로 실제로 지운 행은 툼스톤으로 남아 있다. 다시 올려도 되살리지 않는다.
+        Set<Long> purged = maybeExisting.isEmpty() ? Set.of() : transactionTombstones.findPurged(user.getId(), maybeExisting);
 
-        List<Transaction> newTransactions = transactions.stream()
+        List<Transaction> newTransactions = candidates.stream()
                                             .filter(transaction->!existingKeys.contains(transaction.getTransactionKey()))
+                                            .filter(transaction->!purged.contains(Transaction.hashKey(transaction.getTransactionKey())))
                                             .collect(Collectors.toList());
-        newTransactions.forEach(t->t.setUser(user));
-        transactionRepository.saveAll(newTransactions);
+        beforeInsert.accept(newTransactions);
+        // 조회와 저장 사이에 다른 요청이 같은 키를 넣었으면 DB가 건너뛰고, 그 행도 중복으로 센다.
+        List<Transaction> inserted = transactionBulkInserter.insertIgnoringDuplicates(newTransactions, user);
+        knownKeyFilter.add(user.getId(), inserted.stream().map(transaction -> Transaction.hashKey(transaction.getTransactionKey())).toList());
+        progress.addDuplicates(candidates.size() - inserted.size());
+        progress.addInserted(inserted.size());
+        inserted.forEach(onInserted);
         return ;
     }
-    private void categorizeTransactions(List<Transaction> transactions) {
-        List<String> uniqueMerchants = transactions.stream().map(Transaction::getMerchant).filter(m -> !AMBIGUOUS_MERCHANTS.contains(m)).distinct().collect(Collectors.toList());
-        
-        Map<String, String> historyMap = transactionRepository.findCategoriesByMerchantsOrderByDateDesc(uniqueMerchants).stream()
-                                                                .collect(Collectors.toMap(
-                                                                            MerchantCategoryDto::merchant,
-                                                                            MerchantCategoryDto::category,
-                                                                            (existing, replacement) -> existing ));
-
-        transactions.forEach(t -> {
-            Optional<String> historicalCategory = Optional.ofNullable(historyMap.get(t.getMerchant()));
-            String finalCategory = transactionCategorizer.getCategory(t.getMerchant(), historicalCategory);
-            t.setCategory(finalCategory);
-        });
+    // 후보들의 날짜 범위를 같이 넘겨서 그 기간의 행만 찾는다.
+    // 해시나 날짜가 빈 예전 행은 그렇게 찾을 수 없으므로, 백필이 끝나기 전에는 좁히지 않고 키 문자열로도 찾는다.
+    private Set<String> findExistingKeys(Long userId, List<Long> hashes, List<Transaction> candidates)
+    {
+        if (!legacyRowsBackfilled()) {
+            Set<Long> probed = new HashSet<>(hashes);
+            List<String> keys = candidates.stream()
+                .map(Transaction::getTransactionKey)
+                .filter(key -> probed.contains(Transaction.hashKey(key)))
+                .collect(Collectors.toList());
+            return transactionRepository.findExistingKeysIncludingLegacy(userId, hashes, keys);
+        }
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Transaction transaction : candidates) {
+            LocalDate date = StatementDates.parseDateOrUndated(transaction.getDate());
+            if (first == null || date.isBefore(first)) first = date;
+            if (last == null || date.isAfter(last)) last = date;
+        }
+        return transactionRepository.findExistingKeys(userId, hashes, first, last.plusDays(1));
+    }
+    // 분류 워커에서 돈다. DB 커넥션을 잡지 않도록 키워드 매칭만 해서 카테고리 후보로 넣어 둔다.
+    private void suggestCategories(List<Transaction> transactions, Map<String, String> keywordCache) {
+        transactions.forEach(t -> t.setCategory(keywordCache.computeIfAbsent(t.getMerchant(),
+            merchant -> transactionCategorizer.getCategory(merchant, Optional.empty()))));
+    }
+    // 저장 스레드에서 돈다. 과거 카테고리가 있으면 그것을, 없으면 키워드 후보를 쓴다.
+    // 조회는 상점마다 한 번만 하고, 같은 상점의 행은 모두 같은 카테고리가 된다.
+    private void categorizeTransactions(List<Transaction> transactions, Long userId, Map<Integer, String> categoryCache) {
+        if (transactions.isEmpty()) return;
+        Map<String, Integer> merchantIds = assignMerchantIds(transactions);
+        List<Integer> uncached = merchantIds.entrySet().stream()
+            .filter(entry -> !categoryCache.containsKey(entry.getValue()))
+            .filter(entry -> !AMBIGUOUS_MERCHANTS.contains(entry.getKey()))
+            .map(Map.Entry::getValue)
+            .distinct()
+            .collect(Collectors.toList());
+        Map<Integer, String> historyMap = uncached.isEmpty() ? Map.of()
+            : transactionRepository.findLatestCategoriesByMerchantIds(userId, uncached).stream()
+                .collect(Collectors.toMap(MerchantCategoryDto::merchantId, MerchantCategoryDto::category, (existing, replacement) -> existing));
+
+        Map<String, String> suggested = new HashMap<>();
+        transactions.forEach(t -> { if (t.getCategory() != null) suggested.putIfAbsent(t.getMerchant(), t.getCategory()); });
+
+        merchantIds.forEach((merchant, merchantId) -> categoryCache.computeIfAbsent(merchantId, id -> {
+            String historical = historyMap.get(id);
+            if (historical != null) return transactionCategorizer.getCategory(merchant, Optional.of(historical));
+            String keyword = suggested.get(merchant);
+            return keyword != null ? keyword : transactionCategorizer.getCategory(merchant, Optional.empty());
+        }));
+        transactions.forEach(t -> t.setCategory(categoryCache.get(t.getMerchantId())));
+    }
+    private boolean legacyRowsBackfilled() {
+        return transactionKeyBackfill.isComplete() && transactionDateBackfill.isComplete();
+    }
+    private Map<String, Integer> assignMerchantIds(List<Transaction> transactions) {
+        Map<String, Integer> merchantIds = merchantDictionary.resolve(transactions.stream().map(Transaction::getMerchant).collect(Collectors.toSet()));
+        transactions.forEach(t -> t.setMerchantId(merchantIds.get(t.getMerchant())));
+        return merchantIds;
     }
     @Transactional
     public AnalysisDto.Response getMonthlyAnalysis(Long userId,AnalysisDto.Request request) {
@@ -178,4 +621,18 @@ public class TransactionService {
         
         return histories.stream().map(AnalysisDto.Response::from).collect(Collectors.toList());
     }
+
+    private static class BatchFile {
+        private final SpooledUpload upload;
+        private final UploadProgress progress = new UploadProgress();
+        private Future<List<Transaction>> parsing;
+        private List<Transaction> rows;
+        private FileStatus status;
+        private String message;
+
+        BatchFile(SpooledUpload upload)
+        {
+            this.upload = upload;
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+// 업로드 파일을 임시 파일로 내려둔다. POI가 파일 기반으로 열면 ZIP/OLE2 전체를 힙에 올리지 않는다.
+// 내려받는 동안 SHA-256을 같이 계산해서, 같은 파일 재업로드를 파싱 전에 알아볼 수 있게 한다.
+public class SpooledUpload implements AutoCloseable {
+    private final String name;
+    private final Path path;
+    private final long size;
+    private final String digest;
+
+    private SpooledUpload(String name, Path path, long size, String digest)
+    {
+        this.name = name;
+        this.path = path;
+        this.size = size;
+        this.digest = digest;
+    }
+
+    public static SpooledUpload of(String name, InputStream in) throws IOException
+    {
+        return of(name, in, Long.MAX_VALUE, null);
+    }
+
+    // 스트림은 여기서 닫는다. ZIP 항목처럼 닫으면 안 되는 스트림은 호출하는 쪽에서 감싸서 넘긴다.
+    // maxBytes를 넘는 순간 복사를 멈추고 tooLarge가 만든 예외를 던진다. 선언된 크기는 믿지 않는다.
+    public static SpooledUpload of(String name, InputStream in, long maxBytes, Supplier<? extends RuntimeException> tooLarge) throws IOException
+    {
+        Path path = Files.createTempFile("statement-", ".upload");
+        MessageDigest sha256 = newSha256();
+        try (InputStream is = new DigestInputStream(in, sha256);
+             OutputStream os = Files.newOutputStream(path)) {
+            byte[] buffer = new byte[8192];
+            long size = 0;
+            for (int n = is.read(buffer); n >= 0; n = is.read(buffer)) {
+                size += n;
+                if (size > maxBytes) throw tooLarge.get();
+                os.write(buffer, 0, n);
+            }
+            return new SpooledUpload(name, path, size, HexFormat.of().formatHex(sha256.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    // 이어받기 업로드처럼 이미 다 받아서 다이제스트까지 계산해 둔 파일을 넘겨받는다.
+    static SpooledUpload adopt(String name, Path path, long size, String digest)
+    {
+        return new SpooledUpload(name, path, size, digest);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+    public Path getPath()
+    {
+        return path;
+    }
+    public File getFile()
+    {
+        return path.toFile();
+    }
+    public long getSize()
+    {
+        return size;
+    }
+    public String getDigest()
+    {
+        return digest;
+    }
+
+    static MessageDigest newSha256()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,102 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.web.multipart.MultipartFile;
+
+// 한 번에 올라온 명세서 묶음. ZIP은 항목마다 따로 스풀해서 일반 파일과 똑같이 다룬다.
+// xlsx도 ZIP이라 내용으로는 구분할 수 없으므로 확장자가 .zip인 것만 푼다.
+public class StatementBatch implements AutoCloseable {
+    private final List<SpooledUpload> uploads = new ArrayList<>();
+
+    private StatementBatch() {}
+
+    static StatementBatch of(List<MultipartFile> files, int maxFiles, UploadLimits limits) throws IOException
+    {
+        StatementBatch batch = new StatementBatch();
+        try {
+            for (MultipartFile file : files) {
+                if (file == null || file.isEmpty()) continue;
+                if (isZip(file.getOriginalFilename())) {
+                    batch.addArchive(file, maxFiles, limits);
+                } else {
+                    batch.add(limits.spool(file), maxFiles);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            batch.close();
+            throw e;
+        }
+        if (batch.uploads.isEmpty()) {
+            throw new IllegalArgumentException("File is empty or null");
+        }
+        return batch;
+    }
+
+    public List<SpooledUpload> getUploads()
+    {
+        return uploads;
+    }
+
+    // 항목마다 압축 해제 크기를, 묶음 전체로는 압축 파일 크기 대비 풀린 크기의 비율을 센다. 둘 다 실제로 푼 바이트 기준이다.
+    private void addArchive(MultipartFile file, int maxFiles, UploadLimits limits) throws IOException
+    {
+        if (file.getSize() > limits.getMaxUploadBytes()) {
+            throw limits.tooLarge();
+        }
+        long maxTotal = Math.min(limits.getMaxInflatedBytes(), Math.max(file.getSize(), 1) * limits.getMaxInflateRatio());
+        long total = 0;
+        try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (entry.isDirectory() || isHidden(entry.getName())) continue;
+                SpooledUpload upload = SpooledUpload.of(entry.getName(), new FilterInputStream(zip) {
+                    @Override
+                    public void close() {}
+                }, maxTotal - total, limits::inflatesTooMuch);
+                total += upload.getSize();
+                add(upload, maxFiles);
+            }
+        }
+    }
+
+    private void add(SpooledUpload upload, int maxFiles) throws IOException
+    {
+        uploads.add(upload);
+        if (uploads.size() > maxFiles) {
+            throw new IllegalArgumentException("Too many files in one upload (max " + maxFiles + ")");
+        }
+    }
+
+    private static boolean isZip(String name)
+    {
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".zip");
+    }
+
+    // macOS 압축 도구가 넣는 __MACOSX/, ._파일 같은 부속 항목은 명세서가 아니다.
+    private static boolean isHidden(String name)
+    {
+        String baseName = name.substring(name.lastIndexOf('/') + 1);
+        return name.startsWith("__MACOSX/") || baseName.startsWith(".");
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        IOException failure = null;
+        for (SpooledUpload upload : uploads) {
+            try {
+                upload.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+}
@@ -0,0 +1,42 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+
+// 한 번의 업로드가 덮는 날짜 범위와 마지막 날짜의 거래 키를 모은다. 파서 스레드 하나에서만 쓴다.
+public class StatementCoverage {
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private final Set<String> lastDateKeys = new HashSet<>();
+
+    public void add(Transaction transaction, LocalDate date)
+    {
+        if (date == null) return;
+        if (firstDate == null || date.isBefore(firstDate)) firstDate = date;
+        if (lastDate == null || date.isAfter(lastDate)) {
+            lastDate = date;
+            lastDateKeys.clear();
+        }
+        if (date.equals(lastDate)) lastDateKeys.add(transaction.getTransactionKey());
+    }
+
+    public boolean isEmpty()
+    {
+        return lastDate == null;
+    }
+    public LocalDate getFirstDate()
+    {
+        return firstDate;
+    }
+    public LocalDate getLastDate()
+    {
+        return lastDate;
+    }
+    public Set<String> getLastDateKeys()
+    {
+        return lastDateKeys;
+    }
+}
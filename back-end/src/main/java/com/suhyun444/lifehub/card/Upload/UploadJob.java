@@ -0,0 +1,63 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.suhyun444.lifehub.card.DTO.UploadJobStatus;
+
+// 비동기 업로드 한 건의 상태. 작업 스레드가 쓰고 요청 스레드가 읽으므로 상태 필드는 volatile이다.
+public class UploadJob {
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final UploadProgress progress = new UploadProgress();
+    private volatile UploadJobStatus status = UploadJobStatus.queued;
+    private volatile String message;
+    private volatile Instant finishedAt;
+
+    public UploadJob(Long userId)
+    {
+        this.userId = userId;
+    }
+
+    public void start()
+    {
+        status = UploadJobStatus.running;
+    }
+    public void complete()
+    {
+        status = UploadJobStatus.completed;
+        finishedAt = Instant.now();
+    }
+    public void fail(String message)
+    {
+        this.message = message;
+        status = UploadJobStatus.failed;
+        finishedAt = Instant.now();
+    }
+    public boolean isFinishedBefore(Instant time)
+    {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(time);
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+    public Long getUserId()
+    {
+        return userId;
+    }
+    public UploadProgress getProgress()
+    {
+        return progress;
+    }
+    public UploadJobStatus getStatus()
+    {
+        return status;
+    }
+    public String getMessage()
+    {
+        return message;
+    }
+}
@@ -0,0 +1,10 @@
+package com.suhyun444.lifehub.card.Upload;
+
+// 업로드가 크기, 압축 해제 크기, 압축률, 행 수 제한 중 하나를 넘었다.
+// 잘못된 입력이므로 IllegalArgumentException을 그대로 잡는 곳에서는 400으로, 컨트롤러에서는 413으로 나간다.
+public class UploadLimitExceededException extends IllegalArgumentException {
+    public UploadLimitExceededException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,97 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.suhyun444.lifehub.card.Parser.StatementRow;
+import com.suhyun444.lifehub.card.Parser.StatementRowHandler;
+
+// 업로드 하나가 쓸 수 있는 크기를 정해두고, 넘는 순간 읽기를 멈춘다.
+// - 올라온 파일 크기: 스풀하면서 센다.
+// - xlsx 압축 해제 크기와 압축률: POI의 ZipSecureFile이 항목을 풀면서 실제 바이트로 센다. 항목(시트, 공유 문자열) 단위다.
+// - ZIP 묶음 업로드의 압축 해제 크기와 압축률: 항목을 스풀하면서 센다.
+// - 행 수: 리더가 넘겨주는 행을 센다.
+@Component
+public class UploadLimits {
+    private static final long MB = 1024 * 1024;
+
+    private final long maxUploadBytes;
+    private final long maxInflatedBytes;
+    private final int maxInflateRatio;
+    private final int maxRows;
+
+    public UploadLimits(@Value("${upload.limits.max-upload-bytes:20971520}") long maxUploadBytes,
+                        @Value("${upload.limits.max-inflated-bytes:104857600}") long maxInflatedBytes,
+                        @Value("${upload.limits.max-inflate-ratio:100}") int maxInflateRatio,
+                        @Value("${upload.limits.max-rows:100000}") int maxRows)
+    {
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxInflatedBytes = maxInflatedBytes;
+        this.maxInflateRatio = maxInflateRatio;
+        this.maxRows = maxRows;
+        // POI 전역 설정이다. 이 애플리케이션에서 POI로 여는 파일은 업로드된 명세서뿐이다.
+        ZipSecureFile.setMaxEntrySize(maxInflatedBytes);
+        ZipSecureFile.setMinInflateRatio(1.0d / maxInflateRatio);
+    }
+
+    public SpooledUpload spool(MultipartFile file) throws IOException
+    {
+        if (file.getSize() > maxUploadBytes) {
+            throw tooLarge();
+        }
+        return SpooledUpload.of(file.getOriginalFilename(), file.getInputStream(), maxUploadBytes, this::tooLarge);
+    }
+
+    public StatementBatch spoolBatch(List<MultipartFile> files, int maxFiles) throws IOException
+    {
+        return StatementBatch.of(files, maxFiles, this);
+    }
+
+    public long getMaxUploadBytes()
+    {
+        return maxUploadBytes;
+    }
+    public long getMaxInflatedBytes()
+    {
+        return maxInflatedBytes;
+    }
+    public int getMaxInflateRatio()
+    {
+        return maxInflateRatio;
+    }
+
+    UploadLimitExceededException tooLarge()
+    {
+        return new UploadLimitExceededException("File is larger than " + maxUploadBytes / MB + "MB");
+    }
+    UploadLimitExceededException inflatesTooMuch()
+    {
+        return new UploadLimitExceededException("Archive expands beyond the allowed size");
+    }
+
+    public StatementRowHandler limitRows(StatementRowHandler handler)
+    {
+        return new StatementRowHandler() {
+            private int rows = 0;
+
+            @Override
+            public void handleRow(StatementRow row)
+            {
+                if (++rows > maxRows) {
+                    throw new UploadLimitExceededException("Statement has more than " + maxRows + " rows");
+                }
+                handler.handleRow(row);
+            }
+            @Override
+            public void endSheet()
+            {
+                handler.endSheet();
+            }
+        };
+    }
+}
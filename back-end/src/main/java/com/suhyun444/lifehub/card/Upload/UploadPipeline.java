@@ -0,0 +1,187 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+
+import jakarta.annotation.PreDestroy;
+
+// 파싱 -> 분류 -> 저장을 배치 단위로 겹쳐서 돌린다.
+// 단계 사이 큐의 크기가 정해져 있어 DB가 느리면 파서가 put에서 기다리고, 메모리는 큐 크기만큼만 쓴다.
+// 저장 단계는 호출한 스레드에서 돌기 때문에 호출자의 트랜잭션에 그대로 참여한다.
+// 분류 단계는 업로드마다 워커가 따로 떠서 커넥션 풀을 다 잡을 수 있으므로 DB를 쓰지 않는 일만 넘긴다.
+@Component
+public class UploadPipeline {
+    private static final Batch END = new Batch(-1, List.of());
+    private static final long POLL_MILLIS = 50;
+
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int categorizerWorkers;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UploadPipeline(@Value("${upload.pipeline.batch-size:500}") int batchSize,
+                          @Value("${upload.pipeline.queue-capacity:4}") int queueCapacity,
+                          @Value("${upload.pipeline.categorizer-workers:2}") int categorizerWorkers)
+    {
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.categorizerWorkers = categorizerWorkers;
+    }
+
+    @FunctionalInterface
+    public interface Source {
+        void emit(Consumer<Transaction> sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Stage {
+        void accept(List<Transaction> batch) throws Exception;
+    }
+
+    public void run(Source source, Stage categorize, Stage insert) throws Exception
+    {
+        BlockingQueue<Batch> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch> categorized = new ArrayBlockingQueue<>(queueCapacity);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            tasks.add(executor.submit(() -> {
+                produce(source, parsed);
+                return null;
+            }));
+            for (int i = 0; i < categorizerWorkers; i++) {
+                tasks.add(executor.submit(() -> {
+                    categorize(parsed, categorized, categorize);
+                    return null;
+                }));
+            }
+            consume(categorized, insert, tasks);
+            for (Future<?> task : tasks) task.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private void produce(Source source, BlockingQueue<Batch> parsed) throws Exception
+    {
+        Batcher batcher = new Batcher(parsed);
+        source.emit(batcher);
+        batcher.flush();
+        for (int i = 0; i < categorizerWorkers; i++) put(parsed, END);
+    }
+
+    private void categorize(BlockingQueue<Batch> parsed, BlockingQueue<Batch> categorized, Stage stage) throws Exception
+    {
+        while (true) {
+            Batch batch = parsed.take();
+            if (batch == END) {
+                put(categorized, END);
+                return;
+            }
+            stage.accept(batch.items);
+            put(categorized, batch);
+        }
+    }
+
+    // 분류 워커가 여러 개라 배치가 순서 없이 도착한다. 번호 순으로 다시 맞춰서 저장한다.
+    private void consume(BlockingQueue<Batch> categorized, Stage insert, List<Future<?>> tasks) throws Exception
+    {
+        Map<Long, Batch> outOfOrder = new HashMap<>();
+        long nextSeq = 0;
+        int finishedWorkers = 0;
+        while (finishedWorkers < categorizerWorkers) {
+            Batch batch = categorized.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (batch == null) {
+                rethrowFailure(tasks);
+                continue;
+            }
+            if (batch == END) {
+                finishedWorkers++;
+                continue;
+            }
+            outOfOrder.put(batch.seq, batch);
+            for (Batch next = outOfOrder.remove(nextSeq); next != null; next = outOfOrder.remove(nextSeq)) {
+                insert.accept(next.items);
+                nextSeq++;
+            }
+        }
+    }
+
+    private void rethrowFailure(List<Future<?>> tasks) throws Exception
+    {
+        for (Future<?> task : tasks) {
+            if (!task.isDone()) continue;
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e)
+    {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error error) throw error;
+        if (cause instanceof Exception exception) return exception;
+        return e;
+    }
+
+    private static void put(BlockingQueue<Batch> queue, Batch batch)
+    {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Upload pipeline was cancelled");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    private class Batcher implements Consumer<Transaction> {
+        private final BlockingQueue<Batch> queue;
+        private List<Transaction> buffer = new ArrayList<>(batchSize);
+        private long seq = 0;
+
+        Batcher(BlockingQueue<Batch> queue)
+        {
+            this.queue = queue;
+        }
+        @Override
+        public void accept(Transaction transaction)
+        {
+            buffer.add(transaction);
+            if (buffer.size() >= batchSize) flush();
+        }
+        void flush()
+        {
+            if (buffer.isEmpty()) return;
+            put(queue, new Batch(seq++, buffer));
+            buffer = new ArrayList<>(batchSize);
+        }
+    }
+
+    private record Batch(long seq, List<Transaction> items) {}
+}
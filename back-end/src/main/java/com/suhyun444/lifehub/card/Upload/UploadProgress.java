@@ -0,0 +1,56 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 업로드 처리 중 파이프라인 단계들이 갱신하는 카운터. 비동기 작업 조회 시 그대로 읽어간다.
+public class UploadProgress {
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicInteger duplicates = new AtomicInteger();
+    private final AtomicInteger skippedZeroAmount = new AtomicInteger();
+    private volatile boolean cached = false;
+
+    public void addParsed(int count)
+    {
+        parsed.addAndGet(count);
+    }
+    public void addInserted(int count)
+    {
+        inserted.addAndGet(count);
+    }
+    public void addDuplicates(int count)
+    {
+        duplicates.addAndGet(count);
+    }
+    public void addSkippedZeroAmount(int count)
+    {
+        skippedZeroAmount.addAndGet(count);
+    }
+    // 같은 파일을 이미 가져온 적이 있어 파싱 없이 끝난 경우. 모든 행이 중복으로 잡힌다.
+    public void markCached(int parsedCount)
+    {
+        cached = true;
+        parsed.addAndGet(parsedCount);
+        duplicates.addAndGet(parsedCount);
+    }
+    public int getParsed()
+    {
+        return parsed.get();
+    }
+    public int getInserted()
+    {
+        return inserted.get();
+    }
+    public int getDuplicates()
+    {
+        return duplicates.get();
+    }
+    public int getSkippedZeroAmount()
+    {
+        return skippedZeroAmount.get();
+    }
+    public boolean isCached()
+    {
+        return cached;
+    }
+}
@@ -0,0 +1,152 @@
+package com.suhyun444.lifehub.card.Upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+
+// 이어받기 업로드 한 건. 조각은 앞에서부터 차례로만 붙고, 붙일 때마다 파일 전체의 SHA-256을 이어서 계산한다.
+// 이미 받은 구간을 다시 보내면 겹치는 앞부분은 건너뛰고 새 바이트만 붙인다.
+public class UploadSession implements AutoCloseable {
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final String fileName;
+    private final long size;
+    private final String sha256;
+    private final Path path;
+    private final FileChannel channel;
+    private MessageDigest digest = SpooledUpload.newSha256();
+    private long offset = 0;
+    private boolean importing = false;
+    private volatile Instant touchedAt = Instant.now();
+
+    public UploadSession(Long userId, String fileName, long size, String sha256) throws IOException
+    {
+        this.userId = userId;
+        this.fileName = fileName;
+        this.size = size;
+        this.sha256 = sha256.toLowerCase(Locale.ROOT);
+        this.path = Files.createTempFile("statement-", ".chunked");
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE);
+    }
+
+    // 조각을 받아 붙이고 다음에 보내야 할 위치를 돌려준다. 조각 체크섬이 맞지 않으면 붙인 것을 되돌린다.
+    public synchronized long append(long chunkOffset, InputStream body, String chunkSha256) throws IOException
+    {
+        touchedAt = Instant.now();
+        if (chunkOffset < 0) {
+            throw new IllegalArgumentException("Chunk offset must not be negative");
+        }
+        if (importing) {
+            throw new IllegalStateException("Upload session is being imported");
+        }
+        if (chunkOffset > offset) {
+            throw new IllegalStateException("Expected chunk at offset " + offset);
+        }
+
+        long start = offset;
+        MessageDigest running = clone(digest);
+        MessageDigest chunkDigest = SpooledUpload.newSha256();
+        long skip = offset - chunkOffset;
+        long position = offset;
+        byte[] buffer = new byte[8192];
+        try {
+            for (int n = body.read(buffer); n >= 0; n = body.read(buffer)) {
+                chunkDigest.update(buffer, 0, n);
+                int from = (int) Math.min(skip, n);
+                skip -= from;
+                if (from == n) continue;
+                if (position + (n - from) > size) {
+                    throw new IllegalArgumentException("Chunk goes past the declared file size");
+                }
+                running.update(buffer, from, n - from);
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, from, n - from);
+                while (bytes.hasRemaining()) position += channel.write(bytes, position);
+            }
+            if (chunkSha256 != null && !HexFormat.of().formatHex(chunkDigest.digest()).equalsIgnoreCase(chunkSha256)) {
+                throw new IllegalArgumentException("Chunk checksum does not match");
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.truncate(start);
+            throw e;
+        }
+        digest = running;
+        offset = position;
+        return offset;
+    }
+
+    // 모두 받았고 선언한 SHA-256과 같을 때만 파싱할 수 있는 파일로 넘겨준다.
+    // 파일은 세션이 계속 가지고 있다. 가져오기가 끝나면 close로 지우고, 실패하면 endImport로 되돌려 다시 완료할 수 있게 한다.
+    public synchronized SpooledUpload beginImport()
+    {
+        touchedAt = Instant.now();
+        if (importing) {
+            throw new IllegalStateException("Upload session is being imported");
+        }
+        if (offset != size) {
+            throw new IllegalStateException("Expected chunk at offset " + offset);
+        }
+        String actual = HexFormat.of().formatHex(clone(digest).digest());
+        if (!actual.equals(sha256)) {
+            throw new IllegalArgumentException("File checksum does not match");
+        }
+        importing = true;
+        return SpooledUpload.adopt(fileName, path, size, actual);
+    }
+
+    public synchronized void endImport()
+    {
+        touchedAt = Instant.now();
+        importing = false;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+    public Long getUserId()
+    {
+        return userId;
+    }
+    public String getFileName()
+    {
+        return fileName;
+    }
+    public long getSize()
+    {
+        return size;
+    }
+    public synchronized long getOffset()
+    {
+        return offset;
+    }
+    // 가져오는 중인 세션은 오래 걸려도 정리하지 않는다.
+    public synchronized boolean isIdleSince(Instant time)
+    {
+        return !importing && touchedAt.isBefore(time);
+    }
+
+    private static MessageDigest clone(MessageDigest digest)
+    {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+}
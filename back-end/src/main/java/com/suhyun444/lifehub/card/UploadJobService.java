@@ -0,0 +1,105 @@
+package com.suhyun444.lifehub.card;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.suhyun444.lifehub.card.DTO.UploadJobDto;
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+import com.suhyun444.lifehub.card.Upload.UploadJob;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 업로드를 전용 스레드 풀에서 처리하고 요청 스레드는 작업 ID만 돌려준다.
+// 멀티파트 임시 파일은 요청이 끝나면 지워지므로 제출 시점에 먼저 스풀해 둔다.
+@Slf4j
+@Service
+public class UploadJobService {
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    private final TransactionService transactionService;
+    private final UploadLimits uploadLimits;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    public UploadJobService(TransactionService transactionService,
+                            UploadLimits uploadLimits,
+                            @Value("${upload.jobs.workers:2}") int workers,
+                            @Value("${upload.jobs.queue-capacity:16}") int queueCapacity)
+    {
+        this.transactionService = transactionService;
+        this.uploadLimits = uploadLimits;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("upload-job-"));
+    }
+
+    public UploadJobDto submit(MultipartFile file, Long userId) throws IOException
+    {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty or null");
+        }
+        purgeFinishedJobs();
+
+        SpooledUpload upload = uploadLimits.spool(file);
+        UploadJob job = new UploadJob(userId);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            upload.close();
+            throw e;
+        }
+        return UploadJobDto.from(job);
+    }
+
+    // 다른 사용자의 작업 ID는 없는 작업과 똑같이 취급한다.
+    public Optional<UploadJobDto> getJob(String jobId, Long userId)
+    {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getUserId().equals(userId))
+                .map(UploadJobDto::from);
+    }
+
+    private void run(UploadJob job, SpooledUpload upload)
+    {
+        job.start();
+        try (upload) {
+            transactionService.importStatement(upload, job.getUserId(), job.getProgress(), transaction -> {});
+            job.complete();
+        } catch (IllegalArgumentException e) {
+            job.fail(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            job.fail("Server is busy, please retry later");
+        } catch (Exception e) {
+            log.error("Upload job {} failed", job.getId(), e);
+            job.fail("Failed to parse Excel file");
+        }
+    }
+
+    private void purgeFinishedJobs()
+    {
+        Instant threshold = Instant.now().minus(RETENTION);
+        jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
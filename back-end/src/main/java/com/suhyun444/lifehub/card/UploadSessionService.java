@@ -0,0 +1,153 @@
+package com.suhyun444.lifehub.card;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.suhyun444.lifehub.card.DTO.UploadResultDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionCreateDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionDto;
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+import com.suhyun444.lifehub.card.Upload.UploadLimitExceededException;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+import com.suhyun444.lifehub.card.Upload.UploadSession;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 끊겨도 이어서 올릴 수 있는 업로드. 시작 -> 조각 전송(offset 지정) -> 완료 순서로 진행한다.
+// 조각은 이 인스턴스의 임시 파일에 쌓이므로, 서버를 여러 대 띄우면 같은 세션의 요청은 같은 서버로 보내야 한다.
+// 사용자마다 열 수 있는 세션 수를 제한하고, 오래 멈춘 세션은 주기적으로 지운다.
+@Slf4j
+@Service
+public class UploadSessionService {
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private final TransactionService transactionService;
+    private final UploadLimits uploadLimits;
+    private final int maxSessionsPerUser;
+    private final Duration idleTimeout;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public UploadSessionService(TransactionService transactionService,
+                                UploadLimits uploadLimits,
+                                @Value("${upload.sessions.max-per-user:4}") int maxSessionsPerUser,
+                                @Value("${upload.sessions.idle-timeout-minutes:120}") long idleTimeoutMinutes)
+    {
+        this.transactionService = transactionService;
+        this.uploadLimits = uploadLimits;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.idleTimeout = Duration.ofMinutes(idleTimeoutMinutes);
+    }
+
+    public UploadSessionDto create(UploadSessionCreateDto request, Long userId) throws IOException
+    {
+        if (request == null || request.size() <= 0) {
+            throw new IllegalArgumentException("File is empty or null");
+        }
+        if (request.sha256() == null || !SHA256.matcher(request.sha256()).matches()) {
+            throw new IllegalArgumentException("sha256 must be a hex encoded SHA-256 digest");
+        }
+        if (request.size() > uploadLimits.getMaxUploadBytes()) {
+            throw new UploadLimitExceededException("File exceeds the maximum upload size");
+        }
+        purgeIdleSessions();
+
+        // 세어 보고 넣는 사이에 같은 사용자의 다른 요청이 끼어들지 않도록 묶는다.
+        synchronized (this) {
+            long open = sessions.values().stream().filter(session -> session.getUserId().equals(userId)).count();
+            if (open >= maxSessionsPerUser) {
+                throw new RejectedExecutionException("Too many open upload sessions");
+            }
+            UploadSession session = new UploadSession(userId, request.fileName(), request.size(), request.sha256());
+            sessions.put(session.getId(), session);
+            return UploadSessionDto.from(session);
+        }
+    }
+
+    // 다른 사용자의 세션 ID는 없는 세션과 똑같이 취급한다.
+    public Optional<UploadSessionDto> getSession(String sessionId, Long userId)
+    {
+        return find(sessionId, userId).map(UploadSessionDto::from);
+    }
+
+    public Optional<UploadSessionDto> appendChunk(String sessionId, Long userId, long offset, InputStream body, String chunkSha256) throws IOException
+    {
+        Optional<UploadSession> session = find(sessionId, userId);
+        if (session.isEmpty()) return Optional.empty();
+        session.get().append(offset, body, chunkSha256);
+        return session.map(UploadSessionDto::from);
+    }
+
+    // 다 받은 파일을 검증하고 가져온다. 검증에 실패하면 세션을 남겨두어 잘못된 조각부터 다시 보낼 수 있게 한다.
+    // 세션과 파일은 가져오기가 성공한 뒤에만 지운다. 429(파싱 대기 초과)나 파싱 오류가 나면 세션을 되돌려 같은 파일로 다시 완료할 수 있다.
+    public Optional<UploadResultDto> complete(String sessionId, Long userId) throws Exception
+    {
+        Optional<UploadSession> session = find(sessionId, userId);
+        if (session.isEmpty()) return Optional.empty();
+
+        SpooledUpload upload = session.get().beginImport();
+        UploadResultDto result;
+        try {
+            result = transactionService.importUpload(upload, userId);
+        } catch (Exception e) {
+            session.get().endImport();
+            throw e;
+        }
+        sessions.remove(sessionId);
+        closeQuietly(session.get());
+        return Optional.of(result);
+    }
+
+    public boolean cancel(String sessionId, Long userId) throws IOException
+    {
+        Optional<UploadSession> session = find(sessionId, userId);
+        if (session.isEmpty()) return false;
+        sessions.remove(sessionId);
+        session.get().close();
+        return true;
+    }
+
+    private Optional<UploadSession> find(String sessionId, Long userId)
+    {
+        return Optional.ofNullable(sessions.get(sessionId))
+                .filter(session -> session.getUserId().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${upload.sessions.purge-interval-ms:600000}")
+    public void purgeIdleSessions()
+    {
+        Instant threshold = Instant.now().minus(idleTimeout);
+        sessions.values().removeIf(session -> {
+            if (!session.isIdleSince(threshold)) return false;
+            closeQuietly(session);
+            return true;
+        });
+    }
+
+    private void closeQuietly(UploadSession session)
+    {
+        try {
+            session.close();
+        } catch (IOException e) {
+            log.warn("Failed to delete upload session {}", session.getId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        sessions.values().forEach(this::closeQuietly);
+        sessions.clear();
+    }
+}
@@ -6,8 +6,15 @@ import com.suhyun444.lifehub.User.JwtTokenProvider;
 import com.suhyun444.lifehub.User.OAuth2SuccessHandler;
 import com.suhyun444.lifehub.card.DTO.AmountUpdateDto;
 import com.suhyun444.lifehub.card.DTO.AnalysisDto;
+import com.suhyun444.lifehub.card.DTO.BatchUploadDto;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto;
 import com.suhyun444.lifehub.card.DTO.CategoryUpdateDto;
+import com.suhyun444.lifehub.card.DTO.LedgerClearDto;
 import com.suhyun444.lifehub.card.DTO.TransactionDto;
+import com.suhyun444.lifehub.card.DTO.UploadJobDto;
+import com.suhyun444.lifehub.card.DTO.UploadJobStatus;
+import com.suhyun444.lifehub.card.DTO.UploadResultDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionDto;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,10 +29,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -45,6 +55,9 @@ class CardControllerTest {
 
     // 테스트 대상 서비스 Mock
     @MockitoBean private TransactionService transactionService;
+    @MockitoBean private UploadJobService uploadJobService;
+    @MockitoBean private UploadSessionService uploadSessionService;
+    @MockitoBean private LedgerClearService ledgerClearService;
 
     // --- 1. GET /api/transactions (목록 조회) ---
     @Test
@@ -91,6 +104,24 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.category").value("식비"));
     }
 
+    @Test
+    @DisplayName("patchCategory: 카테고리 이름이 잘못되면 400을 돌려준다.")
+    @WithMockUser
+    void patchCategory_InvalidName() throws Exception {
+        // given
+        CategoryUpdateDto request = new CategoryUpdateDto("<script>");
+        given(transactionService.updateCategory(eq(1L), eq("<script>")))
+                .willThrow(new IllegalArgumentException("Category contains unsupported characters"));
+
+        // when & then
+        mockMvc.perform(patch("/api/transactions/{id}/category", 1L)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Category contains unsupported characters"));
+    }
+
     // --- 3. PATCH /api/transactions/{id}/amount (금액 수정) ---
     @Test
     @DisplayName("patchAmount: 거래 내역의 금액을 수정한다.")
@@ -111,6 +142,49 @@ class CardControllerTest {
         verify(transactionService).updateAmount(eq(txId), eq(10000));
     }
 
+    // --- 3-1. PATCH /api/transactions/bulk (일괄 수정) ---
+    @Test
+    @DisplayName("bulkEdit: 여러 항목을 한 번에 수정하고 항목별 결과를 반환한다.")
+    @WithMockUser
+    void bulkEdit() throws Exception {
+        // given
+        BulkEditDto.Request request = new BulkEditDto.Request(List.of(
+            new BulkEditDto.Operation(1L, "식비", null, null),
+            new BulkEditDto.Operation(2L, null, null, true)));
+        TransactionDto updated = new TransactionDto();
+        updated.setId(1L);
+        updated.setCategory("식비");
+        given(transactionService.bulkEdit(eq(request.operations()), any())).willReturn(BulkEditDto.Response.of(List.of(
+            new BulkEditDto.ItemResult(1L, BulkEditDto.ItemStatus.updated, updated, null),
+            BulkEditDto.ItemResult.of(2L, BulkEditDto.ItemStatus.deleted))));
+
+        // when & then
+        mockMvc.perform(patch("/api/transactions/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("updated"))
+                .andExpect(jsonPath("$.results[0].transaction.category").value("식비"))
+                .andExpect(jsonPath("$.results[1].status").value("deleted"))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.deleted").value(1));
+    }
+
+    @Test
+    @DisplayName("bulkEdit: 요청이 잘못되면 400을 반환한다.")
+    @WithMockUser
+    void bulkEdit_BadRequest() throws Exception {
+        given(transactionService.bulkEdit(any(), any())).willThrow(new IllegalArgumentException("No operations"));
+
+        mockMvc.perform(patch("/api/transactions/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No operations"));
+    }
+
     // --- 4. DELETE /api/transactions/{id}/delete (삭제) ---
     @Test
     @DisplayName("deleteTransaction: 거래 내역을 삭제(Soft Delete)한다.")
@@ -148,27 +222,126 @@ class CardControllerTest {
         // any()로 파일과 이메일 파라미터 처리
         given(transactionService.uploadAndParseExcel(any(), any())).willReturn(parsedList);
 
-        // when & then
+        // when & then - full=true는 예전처럼 전체 내역을 돌려준다.
         mockMvc.perform(multipart("/api/transactions/upload")
                         .file(file)
+                        .param("full", "true")
                         .with(csrf()))
                 .andExpect(status().isOk())
                 // 응답 구조가 Map.of("transactions", list) 이므로 $.transactions로 접근
                 .andExpect(jsonPath("$.transactions[0].merchant").value("UploadedItem"));
     }
 
+    @Test
+    @DisplayName("uploadTransactionBatch: 여러 파일을 받아 파일별 결과와 합계를 돌려준다.")
+    @WithMockUser(username = "test@test.com")
+    void uploadTransactionBatch() throws Exception {
+        // given
+        MockMultipartFile first = new MockMultipartFile("files", "a.xls", "application/vnd.ms-excel", "a".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile second = new MockMultipartFile("files", "b.xls", "application/vnd.ms-excel", "b".getBytes(StandardCharsets.UTF_8));
+        List<BatchUploadDto.FileResult> files = List.of(
+                new BatchUploadDto.FileResult("a.xls", BatchUploadDto.FileStatus.imported, 3, 3, 0, 0, null),
+                new BatchUploadDto.FileResult("b.xls", BatchUploadDto.FileStatus.failed, 0, 0, 0, 0, "Unsupported file format"));
+        given(transactionService.uploadStatementBatch(any(), any()))
+                .willReturn(BatchUploadDto.Response.of(files, List.of(), 2L));
+
+        // when & then
+        mockMvc.perform(multipart("/api/transactions/upload-batch")
+                        .file(first)
+                        .file(second)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.files[1].status").value("failed"))
+                .andExpect(jsonPath("$.files[1].message").value("Unsupported file format"))
+                .andExpect(jsonPath("$.inserted").value(3));
+    }
+
+    @Test
+    @DisplayName("uploadTransactionsFromExcel: 기본 응답은 새로 추가된 행과 처리 건수, 데이터 버전만 담는다.")
+    @WithMockUser(username = "test@test.com")
+    void uploadTransactionsFromExcel_Delta() throws Exception {
+        // given
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "test.xls",
+                "application/vnd.ms-excel",
+                "dummy content".getBytes(StandardCharsets.UTF_8)
+        );
+        TransactionDto t1 = new TransactionDto();
+        t1.setMerchant("NewItem");
+        given(transactionService.uploadStatement(any(), any()))
+                .willReturn(new UploadResultDto(List.of(t1), 10, 1, 8, 1, false, 7L));
+
+        // when & then
+        mockMvc.perform(multipart("/api/transactions/upload")
+                        .file(file)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions.length()").value(1))
+                .andExpect(jsonPath("$.transactions[0].merchant").value("NewItem"))
+                .andExpect(jsonPath("$.duplicates").value(8))
+                .andExpect(jsonPath("$.skippedZeroAmount").value(1))
+                .andExpect(jsonPath("$.dataVersion").value(7));
+
+        verify(transactionService, never()).uploadAndParseExcel(any(), any());
+    }
+
+    @Test
+    @DisplayName("uploadTransactionsFromExcel: 파싱 예산이 모자라면 429와 Retry-After를 돌려준다.")
+    @WithMockUser(username = "test@test.com")
+    void uploadTransactionsFromExcel_Busy() throws Exception {
+        // given
+        MockMultipartFile file = new MockMultipartFile("file", "test.xls", "application/vnd.ms-excel", "a".getBytes(StandardCharsets.UTF_8));
+        given(transactionService.uploadStatement(any(), any())).willThrow(new RejectedExecutionException("busy"));
+
+        // when & then
+        mockMvc.perform(multipart("/api/transactions/upload")
+                        .file(file)
+                        .with(csrf()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
     // --- 6. DELETE /api/transactions/clear (전체 삭제) ---
     @Test
     @DisplayName("clearTransactions: 사용자의 모든 거래 내역을 삭제한다.")
     @WithMockUser
     void clearTransactions() throws Exception {
+        // given
+        given(ledgerClearService.clear(any()))
+                .willReturn(new LedgerClearDto("job-1", UploadJobStatus.completed, 120, 2, null));
+
         // when & then
         mockMvc.perform(delete("/api/transactions/clear")
                         .with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Success to Clear"));
+                .andExpect(jsonPath("$.message").value("Success to Clear"))
+                .andExpect(jsonPath("$.deletedTransactions").value(120));
 
-        verify(transactionService).clearTransactions(any());
+        verify(ledgerClearService).clear(any());
+    }
+
+    @Test
+    @DisplayName("clearTransactions: async=true면 백그라운드 작업을 접수하고, 진행 상황은 clear-jobs로 조회한다.")
+    @WithMockUser
+    void clearTransactions_Async() throws Exception {
+        // given
+        given(ledgerClearService.submit(any()))
+                .willReturn(new LedgerClearDto("job-1", UploadJobStatus.queued, 0, 0, null));
+        given(ledgerClearService.getJob(eq("job-1"), any()))
+                .willReturn(Optional.of(new LedgerClearDto("job-1", UploadJobStatus.running, 3000, 0, null)));
+
+        // when & then
+        mockMvc.perform(delete("/api/transactions/clear")
+                        .param("async", "true")
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"));
+        mockMvc.perform(get("/api/transactions/clear-jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("running"))
+                .andExpect(jsonPath("$.deletedTransactions").value(3000));
+        verify(ledgerClearService, never()).clear(any());
     }
 
     // --- 7. POST /api/analysis (월별 AI 분석 요청) ---
@@ -214,4 +387,101 @@ class CardControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].summary").value("과거 기록"));
     }
-}
\ No newline at end of file
+
+    // --- 9. POST /api/transactions/upload-jobs (비동기 업로드) ---
+    @Test
+    @DisplayName("submitUploadJob: 업로드 작업을 접수하고 작업 ID를 바로 돌려준다.")
+    @WithMockUser
+    void submitUploadJob() throws Exception {
+        // given
+        MockMultipartFile file = new MockMultipartFile("file", "test.xlsx", "application/octet-stream", "dummy".getBytes(StandardCharsets.UTF_8));
+        given(uploadJobService.submit(any(), any()))
+                .willReturn(new UploadJobDto("job-1", UploadJobStatus.queued, 0, 0, 0, 0, false, null));
+
+        // when & then
+        mockMvc.perform(multipart("/api/transactions/upload-jobs")
+                        .file(file)
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("queued"));
+    }
+
+    @Test
+    @DisplayName("getUploadJob: 작업 진행 상황을 조회하고, 없는 작업이면 404를 돌려준다.")
+    @WithMockUser
+    void getUploadJob() throws Exception {
+        // given
+        given(uploadJobService.getJob(eq("job-1"), any()))
+                .willReturn(Optional.of(new UploadJobDto("job-1", UploadJobStatus.completed, 10, 7, 3, 0, false, null)));
+        given(uploadJobService.getJob(eq("missing"), any())).willReturn(Optional.empty());
+
+        // when & then
+        mockMvc.perform(get("/api/transactions/upload-jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(7))
+                .andExpect(jsonPath("$.duplicates").value(3));
+        mockMvc.perform(get("/api/transactions/upload-jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    // --- 10. /api/transactions/upload-sessions (이어받기 업로드) ---
+    @Test
+    @DisplayName("createUploadSession: 세션을 만들고 201과 함께 세션 ID를 돌려준다.")
+    @WithMockUser
+    void createUploadSession() throws Exception {
+        // given
+        given(uploadSessionService.create(any(), any()))
+                .willReturn(new UploadSessionDto("session-1", "test.xlsx", 100, 0));
+
+        // when & then
+        mockMvc.perform(post("/api/transactions/upload-sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\":\"test.xlsx\",\"size\":100,\"sha256\":\"" + "a".repeat(64) + "\"}")
+                        .with(csrf()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sessionId").value("session-1"))
+                .andExpect(jsonPath("$.offset").value(0));
+    }
+
+    @Test
+    @DisplayName("putUploadChunk: 조각 순서가 어긋나면 409와 함께 서버가 가진 위치를 알려준다.")
+    @WithMockUser
+    void putUploadChunk_OutOfOrder() throws Exception {
+        // given
+        given(uploadSessionService.appendChunk(eq("session-1"), any(), eq(40L), any(), any()))
+                .willThrow(new IllegalStateException("Expected chunk at offset 20"));
+        given(uploadSessionService.getSession(eq("session-1"), any()))
+                .willReturn(Optional.of(new UploadSessionDto("session-1", "test.xlsx", 100, 20)));
+
+        // when & then
+        mockMvc.perform(put("/api/transactions/upload-sessions/session-1")
+                        .param("offset", "40")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[20])
+                        .with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.offset").value(20));
+    }
+
+    @Test
+    @DisplayName("completeUploadSession: 완료하면 이번에 추가된 행을 돌려주고, 없는 세션이면 404를 돌려준다.")
+    @WithMockUser
+    void completeUploadSession() throws Exception {
+        // given
+        TransactionDto dto = new TransactionDto();
+        dto.setMerchant("이어받기상점");
+        dto.setAmount(1000);
+        given(uploadSessionService.complete(eq("session-1"), any()))
+                .willReturn(Optional.of(new UploadResultDto(List.of(dto), 1, 1, 0, 0, false, 3L)));
+        given(uploadSessionService.complete(eq("missing"), any())).willReturn(Optional.empty());
+
+        // when & then
+        mockMvc.perform(post("/api/transactions/upload-sessions/session-1/complete").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].merchant").value("이어받기상점"))
+                .andExpect(jsonPath("$.inserted").value(1));
+        mockMvc.perform(post("/api/transactions/upload-sessions/missing/complete").with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,46 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Parser.CellDecoder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CellDecoderTest {
+
+    @Test
+    @DisplayName("parseAmount: 쉼표를 지운 뒤 Integer.parseInt 한 것과 같은 값을 돌려준다.")
+    void parseAmount_SameAsReplaceAndParse() {
+        for (String value : List.of("0", "10,000", "1,234,567", "-5,000", "+300", "2,147,483,647", "-2147483648", ",1,")) {
+            assertThat(CellDecoder.parseAmount(value)).isEqualTo(Integer.parseInt(value.replaceAll(",", "")));
+        }
+    }
+
+    @Test
+    @DisplayName("parseAmount: Integer.parseInt가 거부하는 값은 똑같이 NumberFormatException을 던진다.")
+    void parseAmount_RejectsSameInputs() {
+        for (String value : List.of("", ",", "-", "합계", "1.5", "2,147,483,648", "12 000")) {
+            assertThatThrownBy(() -> Integer.parseInt(value.replaceAll(",", ""))).isInstanceOf(NumberFormatException.class);
+            assertThatThrownBy(() -> CellDecoder.parseAmount(value)).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("transactionKey: 정규식으로 공백을 지운 키와 같고, 빌더를 재사용해도 이전 키가 섞이지 않는다.")
+    void transactionKey_SameAsRegex() {
+        CellDecoder decoder = new CellDecoder();
+        String[][] rows = {
+            {"2024.02.14 12:00:00", "스타벅스 동백점"},
+            {"2024.02.14", "\t탭\n줄바꿈\r\f\u000B"},
+            {"2024.02.15", "전각　공백"},
+        };
+        for (String[] row : rows) {
+            String expected = (row[0] + "_" + 5000 + "_" + row[1]).replaceAll("\\s+", "");
+            assertThat(decoder.transactionKey(row[0], 5000, row[1])).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Parser.CsvStreamingSheetReader;
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.StatementReader;
+import com.suhyun444.lifehub.card.Parser.TransactionParserRegistry;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvStreamingSheetReaderTest {
+
+    private static final String STATEMENT = ",,,,\n\n\n\n\n"
+        + "2024.02.14 12:00:00,,멋진상점,,\"10,000\",,,체크카드\n"
+        + "2024.02.14,,취소건,,0,,,카드\n"
+        + "2024.02.14,,\"스타벅스, 동백점\",,\"5,000\",,,카드\r\n"
+        + "2024.02.15,,\"따옴표 \"\"상점\"\"\",,12000,,,카드\n"
+        + ",,,,합계\n";
+
+    private final KookminTransactionParser parser = new KookminTransactionParser();
+    private final CsvStreamingSheetReader reader = new CsvStreamingSheetReader();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("read: 따옴표 안의 쉼표와 따옴표를 값으로 읽고, 같은 내용의 엑셀 시트와 같은 거래를 만든다.")
+    void read_SameRowsAsSheet() throws IOException {
+        // given
+        List<Transaction> expected;
+        try (Workbook workbook = new HSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0);
+            dataRow(sheet, 5, "2024.02.14 12:00:00", "멋진상점", "10,000", "체크카드");
+            dataRow(sheet, 6, "2024.02.14", "취소건", "0", "카드");
+            dataRow(sheet, 7, "2024.02.14", "스타벅스, 동백점", "5,000", "카드");
+            dataRow(sheet, 8, "2024.02.15", "따옴표 \"상점\"", "12000", "카드");
+            sheet.createRow(9).createCell(4).setCellValue("합계");
+            expected = parser.parse(sheet);
+        }
+
+        // when
+        List<Transaction> streamed = read(STATEMENT.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertThat(streamed).hasSize(3);
+        assertThat(streamed).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+        assertThat(streamed.get(1).getTransactionKey()).isEqualTo("2024.02.14_5000_스타벅스,동백점");
+    }
+
+    @Test
+    @DisplayName("read: BOM이 있는 UTF-8과 CP949(EUC-KR) 파일을 모두 읽는다.")
+    void read_Utf8BomAndCp949() throws IOException {
+        // given
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] utf8 = STATEMENT.getBytes(StandardCharsets.UTF_8);
+        byte[] withBom = new byte[bom.length + utf8.length];
+        System.arraycopy(bom, 0, withBom, 0, bom.length);
+        System.arraycopy(utf8, 0, withBom, bom.length, utf8.length);
+
+        // when
+        List<Transaction> fromBom = read(withBom);
+        List<Transaction> fromCp949 = read(STATEMENT.getBytes(Charset.forName("MS949")));
+
+        // then
+        assertThat(fromBom).extracting(Transaction::getMerchant).containsExactly("멋진상점", "스타벅스, 동백점", "따옴표 \"상점\"");
+        assertThat(fromCp949).usingRecursiveFieldByFieldElementComparator().isEqualTo(fromBom);
+    }
+
+    @Test
+    @DisplayName("read: StatementReader는 엑셀이 아닌 텍스트 파일을 CSV로 읽고, 닫히지 않은 따옴표는 거절한다.")
+    void read_DispatchAndBrokenQuote() throws IOException {
+        // given
+        TransactionParserRegistry registry = new TransactionParserRegistry(List.of(parser));
+        Path file = tempDir.resolve("statement.csv");
+        Files.write(file, STATEMENT.getBytes(StandardCharsets.UTF_8));
+        Path broken = tempDir.resolve("broken.csv");
+        Files.write(broken, "2024.02.14,,\"열린 따옴표,,1000\n".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        List<Transaction> result = new ArrayList<>();
+        new StatementReader().read(file.toFile(), registry.newRowHandler(result::add, () -> {}));
+
+        // then
+        assertThat(result).hasSize(3);
+        assertThatThrownBy(() -> reader.read(broken.toFile(), parser.newRowHandler(t -> {})))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Transaction> read(byte[] content) throws IOException {
+        Path file = tempDir.resolve("statement-" + System.nanoTime() + ".csv");
+        Files.write(file, content);
+        List<Transaction> result = new ArrayList<>();
+        reader.read(file.toFile(), parser.newRowHandler(result::add));
+        return result;
+    }
+
+    private void dataRow(Sheet sheet, int index, String date, String merchant, String amount, String method) {
+        Row row = sheet.createRow(index);
+        row.createCell(0).setCellValue(date);
+        row.createCell(2).setCellValue(merchant);
+        row.createCell(4).setCellValue(amount);
+        row.createCell(7).setCellValue(method);
+    }
+}
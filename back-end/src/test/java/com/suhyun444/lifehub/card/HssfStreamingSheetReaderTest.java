@@ -0,0 +1,104 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Parser.HssfStreamingSheetReader;
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HssfStreamingSheetReaderTest {
+
+    private final KookminTransactionParser parser = new KookminTransactionParser();
+    private final HssfStreamingSheetReader reader = new HssfStreamingSheetReader();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("read: 레코드 스트리밍 결과가 Workbook 기반 parse 결과와 같아야 한다.")
+    void read_SameRowsAsSheetParser() throws IOException {
+        // given
+        try (Workbook workbook = new HSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 5; i++) sheet.createRow(i);
+            dataRow(sheet, 5, "2024.02.14 12:00:00", "멋진상점", "10,000", "체크카드");
+            dataRow(sheet, 6, "2024.02.14", "취소건", "0", "카드");
+            dataRow(sheet, 7, "2024.02.14", "스타벅스 동백점", "5,000", "카드");
+            Row numeric = sheet.createRow(9);
+            numeric.createCell(0).setCellValue("2024.02.15");
+            numeric.createCell(2).setCellValue("테스트상점");
+            numeric.createCell(4).setCellValue(12000);
+            numeric.createCell(7).setCellValue("카드");
+            sheet.createRow(10);
+
+            List<Transaction> expected = parser.parse(sheet);
+
+            // when
+            List<Transaction> streamed = stream(workbook);
+
+            // then
+            assertThat(streamed).hasSize(3);
+            assertThat(streamed).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+            assertThat(streamed.get(1).getTransactionKey()).isEqualTo("2024.02.14_5000_스타벅스동백점");
+        }
+    }
+
+    @Test
+    @DisplayName("read: 여러 행 블록에 걸친 시트도 순서대로 읽고, 첫 번째 시트만 읽는다.")
+    void read_AcrossRowBlocks_FirstSheetOnly() throws IOException {
+        // given - 행 블록(32행) 여러 개와 두 번째 시트
+        try (Workbook workbook = new HSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 5; i++) sheet.createRow(i);
+            for (int i = 5; i < 105; i++) {
+                dataRow(sheet, i, "2024.03." + i, "상점" + i, String.valueOf(i * 100), "카드");
+            }
+            sheet.createRow(105).createCell(4).setCellValue("합계");
+            Sheet other = workbook.createSheet();
+            dataRow(other, 0, "2024.01.01", "다른시트", "1,000", "카드");
+
+            List<Transaction> expected = parser.parse(sheet);
+
+            // when
+            List<Transaction> streamed = stream(workbook);
+
+            // then
+            assertThat(streamed).hasSize(100);
+            assertThat(streamed).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+            assertThat(streamed.get(99).getMerchant()).isEqualTo("상점104");
+        }
+    }
+
+    private List<Transaction> stream(Workbook workbook) throws IOException {
+        Path file = tempDir.resolve("statement.xls");
+        try (OutputStream os = Files.newOutputStream(file)) {
+            workbook.write(os);
+        }
+        List<Transaction> result = new ArrayList<>();
+        reader.read(file.toFile(), parser.newRowHandler(result::add));
+        return result;
+    }
+
+    private void dataRow(Sheet sheet, int index, String date, String merchant, String amount, String method) {
+        Row row = sheet.createRow(index);
+        row.createCell(0).setCellValue(date);
+        row.createCell(2).setCellValue(merchant);
+        row.createCell(4).setCellValue(amount);
+        row.createCell(7).setCellValue(method);
+    }
+}
@@ -0,0 +1,82 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.ImportWatermark;
+import com.suhyun444.lifehub.card.Entity.User;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportWatermarkTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2024, 1, 10);
+    private static final LocalDate JAN_31 = LocalDate.of(2024, 1, 31);
+
+    @Test
+    @DisplayName("covers: 처음에는 아무 행도 덮지 않는다.")
+    void covers_Empty() {
+        ImportWatermark watermark = new ImportWatermark(new User("a@a.com"), "parser:카드");
+
+        assertThat(watermark.covers(JAN_10, "k")).isFalse();
+    }
+
+    @Test
+    @DisplayName("covers: 구간 안은 덮고, 마지막 날짜는 가져온 키만, 구간 밖과 날짜 없는 행은 덮지 않는다.")
+    void covers_RangeAndBoundary() {
+        ImportWatermark watermark = new ImportWatermark(new User("a@a.com"), "parser:카드");
+        watermark.advance(JAN_10, JAN_31, Set.of("seen"));
+
+        assertThat(watermark.covers(JAN_10, "k")).isTrue();
+        assertThat(watermark.covers(LocalDate.of(2024, 1, 20), "k")).isTrue();
+        assertThat(watermark.covers(JAN_31, "seen")).isTrue();
+        assertThat(watermark.covers(JAN_31, "new")).isFalse();
+        assertThat(watermark.covers(LocalDate.of(2024, 1, 9), "k")).isFalse();
+        assertThat(watermark.covers(LocalDate.of(2024, 2, 1), "k")).isFalse();
+        assertThat(watermark.covers(null, "k")).isFalse();
+    }
+
+    @Test
+    @DisplayName("advance: 겹치는 파일은 구간을 넓히고, 같은 마지막 날짜의 키는 합친다.")
+    void advance_Overlapping() {
+        ImportWatermark watermark = new ImportWatermark(new User("a@a.com"), "parser:카드");
+        watermark.advance(JAN_10, JAN_31, Set.of("a"));
+
+        watermark.advance(LocalDate.of(2024, 1, 5), JAN_31, Set.of("b"));
+        assertThat(watermark.getLowDate()).isEqualTo(LocalDate.of(2024, 1, 5));
+        assertThat(watermark.getBoundaryKeys()).containsExactlyInAnyOrder("a", "b");
+
+        watermark.advance(JAN_31, LocalDate.of(2024, 2, 20), Set.of("c"));
+        assertThat(watermark.getHighDate()).isEqualTo(LocalDate.of(2024, 2, 20));
+        assertThat(watermark.getBoundaryKeys()).containsExactly("c");
+    }
+
+    @Test
+    @DisplayName("advance: 떨어진 파일은 사이의 빈 기간을 덮지 않는다. 더 오래된 파일은 무시하고, 더 최근 파일은 구간을 바꾼다.")
+    void advance_Disjoint() {
+        ImportWatermark watermark = new ImportWatermark(new User("a@a.com"), "parser:카드");
+        watermark.advance(JAN_10, JAN_31, Set.of("a"));
+
+        watermark.advance(LocalDate.of(2023, 11, 1), LocalDate.of(2023, 11, 30), Set.of("old"));
+        assertThat(watermark.getLowDate()).isEqualTo(JAN_10);
+        assertThat(watermark.getHighDate()).isEqualTo(JAN_31);
+        assertThat(watermark.getBoundaryKeys()).containsExactly("a");
+
+        // 마지막 날짜 바로 다음 날부터 시작하는 파일도 1/31에 늦게 들어온 행이 없을 수 있어서 떨어진 것으로 본다.
+        watermark.advance(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), Set.of("feb"));
+        assertThat(watermark.getLowDate()).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(watermark.getHighDate()).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(watermark.getBoundaryKeys()).containsExactly("feb");
+        assertThat(watermark.covers(LocalDate.of(2024, 1, 20), "k")).isFalse();
+    }
+
+    @Test
+    @DisplayName("source: 파서 이름과 결제수단으로 출처를 만든다.")
+    void source_ParserAndPaymentMethod() {
+        assertThat(ImportWatermark.source("KookminTransactionParser", "카드")).isEqualTo("KookminTransactionParser:카드");
+        assertThat(ImportWatermark.source("KookminTransactionParser", null)).isEqualTo("KookminTransactionParser:");
+    }
+}
@@ -0,0 +1,104 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.KnownKeyFilter;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.card.Repository.TransactionTombstones;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class KnownKeyFilterTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final TransactionTombstones tombstones = mock(TransactionTombstones.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("mightExist: 저장된 키와 툼스톤 키는 빠짐없이 DB 조회 대상으로 남기고, 새 키는 대부분 조회에서 뺀다.")
+    void mightExist_NoFalseNegatives() {
+        // given - 저장된 키 5000개. 아직 해시가 없는 예전 행 하나는 키 문자열로 들어온다.
+        List<Long> stored = hashes(0, 5000);
+        given(transactionRepository.findKeyHashes(1L)).willReturn(stored);
+        given(transactionRepository.findKeysWithoutHash(1L)).willReturn(List.of("old-key"));
+        given(tombstones.findHashes(1L)).willReturn(List.of(Transaction.hashKey("purged-key")));
+        KnownKeyFilter filter = new KnownKeyFilter(transactionRepository, tombstones, 30, 1000, meterRegistry);
+
+        // when
+        List<Long> existing = new ArrayList<>(stored);
+        existing.add(Transaction.hashKey("old-key"));
+        existing.add(Transaction.hashKey("purged-key"));
+        List<Long> maybeStored = filter.mightExist(1L, existing);
+        List<Long> fresh = hashes(5000, 15000);
+        List<Long> maybeFresh = filter.mightExist(1L, fresh);
+        filter.recordProbe(maybeFresh.size(), 0);
+
+        // then
+        assertThat(maybeStored).hasSize(5002);
+        assertThat((double) maybeFresh.size() / fresh.size()).isLessThan(0.02);
+        assertThat(meterRegistry.get("upload.key-filter.probes.saved").counter().count()).isEqualTo(fresh.size() - maybeFresh.size());
+        assertThat(meterRegistry.get("upload.key-filter.false-positive.rate").gauge().value()).isLessThan(0.02);
+        verify(transactionRepository, times(1)).findKeyHashes(1L);
+    }
+
+    @Test
+    @DisplayName("add: 새로 저장한 키를 바로 반영하고, 용량을 넘기면 버렸다가 DB에서 다시 만든다.")
+    void add_ReflectsInsertsAndRebuildsWhenFull() {
+        // given - 빈 내역이면 최소 용량(1024)으로 만든다.
+        given(transactionRepository.findKeyHashes(1L)).willReturn(List.of());
+        given(transactionRepository.findKeysWithoutHash(1L)).willReturn(List.of());
+        KnownKeyFilter filter = new KnownKeyFilter(transactionRepository, tombstones, 30, 1000, meterRegistry);
+        filter.mightExist(1L, List.of());
+
+        // when
+        List<Long> inserted = hashes(0, 1000);
+        filter.add(1L, inserted);
+
+        // then
+        assertThat(filter.mightExist(1L, inserted)).hasSize(1000);
+        filter.add(1L, hashes(1000, 1100));
+        filter.mightExist(1L, List.of());
+        verify(transactionRepository, times(2)).findKeyHashes(1L);
+        assertThat(meterRegistry.get("upload.key-filter.builds").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("mightExist: 사용자 수가 한도를 넘으면 가장 오래 안 쓴 사용자의 필터부터 버린다.")
+    void mightExist_EvictsLeastRecentlyUsed() throws Exception {
+        // given
+        for (long userId = 1; userId <= 3; userId++) {
+            given(transactionRepository.findKeyHashes(userId)).willReturn(List.of());
+            given(transactionRepository.findKeysWithoutHash(userId)).willReturn(List.of());
+        }
+        KnownKeyFilter filter = new KnownKeyFilter(transactionRepository, tombstones, 30, 2, meterRegistry);
+
+        // when
+        filter.mightExist(1L, List.of());
+        Thread.sleep(5);
+        filter.mightExist(2L, List.of());
+        Thread.sleep(5);
+        filter.mightExist(3L, List.of());
+        filter.mightExist(2L, List.of());
+        filter.mightExist(1L, List.of());
+
+        // then
+        verify(transactionRepository, times(2)).findKeyHashes(1L);
+        verify(transactionRepository, times(1)).findKeyHashes(2L);
+        assertThat(meterRegistry.get("upload.key-filter.users").gauge().value()).isLessThanOrEqualTo(3);
+    }
+
+    private static List<Long> hashes(int from, int to) {
+        return LongStream.range(from, to).mapToObj(i -> Transaction.hashKey("key" + i)).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.User.UserRepository;
+import com.suhyun444.lifehub.card.Component.KnownKeyFilter;
+import com.suhyun444.lifehub.card.Component.UploadDigestCache;
+import com.suhyun444.lifehub.card.DTO.LedgerClearDto;
+import com.suhyun444.lifehub.card.DTO.UploadJobStatus;
+import com.suhyun444.lifehub.card.Repository.ImportWatermarkRepository;
+import com.suhyun444.lifehub.card.Repository.LedgerEraser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+class LedgerClearServiceTest {
+
+    private final LedgerEraser ledgerEraser = mock(LedgerEraser.class);
+    private final UploadDigestCache uploadDigestCache = mock(UploadDigestCache.class);
+    private final ImportWatermarkRepository importWatermarkRepository = mock(ImportWatermarkRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final KnownKeyFilter knownKeyFilter = mock(KnownKeyFilter.class);
+    private LedgerClearService service;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        service = new LedgerClearService(ledgerEraser, uploadDigestCache, importWatermarkRepository,
+                userRepository, knownKeyFilter, transactionTemplate, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("clear: 가져오기 상태를 앞뒤로 지우고, 행을 조각으로 지운 뒤 데이터 버전을 올린다.")
+    void clear_ResetsImportStateThenDeletesInChunks() {
+        // given - 거래 내역 2500행이 1000행씩 지워진다.
+        given(ledgerEraser.deleteTransactions(eq(10L), any())).willAnswer(invocation -> {
+            IntConsumer onChunk = invocation.getArgument(1);
+            onChunk.accept(1000);
+            onChunk.accept(1000);
+            onChunk.accept(500);
+            return 2500;
+        });
+        given(ledgerEraser.deleteAnalysisHistory(eq(10L), any())).willAnswer(invocation -> {
+            IntConsumer onChunk = invocation.getArgument(1);
+            onChunk.accept(3);
+            return 3;
+        });
+
+        // when
+        LedgerClearDto result = service.clear(10L);
+
+        // then
+        assertThat(result.status()).isEqualTo(UploadJobStatus.completed);
+        assertThat(result.deletedTransactions()).isEqualTo(2500);
+        assertThat(result.deletedAnalyses()).isEqualTo(3);
+        InOrder order = inOrder(uploadDigestCache, importWatermarkRepository, ledgerEraser, userRepository);
+        order.verify(uploadDigestCache).clear(10L);
+        order.verify(importWatermarkRepository).deleteAllByUserId(10L);
+        order.verify(ledgerEraser).deleteTransactions(eq(10L), any());
+        order.verify(ledgerEraser).deleteTombstones(10L);
+        order.verify(ledgerEraser).deleteAnalysisHistory(eq(10L), any());
+        // 비우는 도중 끝난 업로드가 남긴 다이제스트와 워터마크도 지운다.
+        order.verify(uploadDigestCache).clear(10L);
+        order.verify(importWatermarkRepository).deleteAllByUserId(10L);
+        order.verify(userRepository).incrementLedgerVersion(10L);
+    }
+
+    @Test
+    @DisplayName("submit: 백그라운드로 비우는 동안 지운 행 수를 조회할 수 있고, 다른 사용자는 작업을 볼 수 없다.")
+    void submit_ReportsProgress() throws Exception {
+        // given - 첫 조각을 지운 뒤 멈춰 있다가 풀려난다.
+        CountDownLatch firstChunk = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(ledgerEraser.deleteTransactions(eq(10L), any())).willAnswer(invocation -> {
+            IntConsumer onChunk = invocation.getArgument(1);
+            onChunk.accept(1000);
+            firstChunk.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            onChunk.accept(200);
+            return 1200;
+        });
+
+        // when
+        LedgerClearDto submitted = service.submit(10L);
+        firstChunk.await(5, TimeUnit.SECONDS);
+        LedgerClearDto running = service.getJob(submitted.jobId(), 10L).orElseThrow();
+        release.countDown();
+
+        // then
+        assertThat(running.status()).isEqualTo(UploadJobStatus.running);
+        assertThat(running.deletedTransactions()).isEqualTo(1000);
+        assertThat(service.getJob(submitted.jobId(), 11L)).isEmpty();
+        for (int i = 0; i < 100 && service.getJob(submitted.jobId(), 10L).orElseThrow().status() != UploadJobStatus.completed; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(service.getJob(submitted.jobId(), 10L).orElseThrow().deletedTransactions()).isEqualTo(1200);
+    }
+}
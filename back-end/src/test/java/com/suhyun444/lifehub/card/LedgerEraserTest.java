@@ -0,0 +1,97 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.LedgerEraser;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:ledgereraser;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER,MONTH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "ledger.clear.chunk-size=300"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LedgerEraser.class, TransactionBulkInserter.class, CategoryCodes.class, PaymentMethodCodes.class})
+class LedgerEraserTest {
+
+    @Autowired private LedgerEraser eraser;
+    @Autowired private TransactionBulkInserter inserter;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("deleteTransactions: 그 사용자의 행만 조각 크기씩 나눠 지운다.")
+    void deleteTransactions_InChunksForOneUser() {
+        // given
+        User owner = userRepository.save(new User("owner@test.com"));
+        User other = userRepository.save(new User("other@test.com"));
+        inserter.insertIgnoringDuplicates(transactions("o", 1000), owner);
+        inserter.insertIgnoringDuplicates(transactions("x", 10), other);
+        List<Integer> chunks = new ArrayList<>();
+
+        // when
+        int deleted = eraser.deleteTransactions(owner.getId(), chunks::add);
+
+        // then
+        assertThat(deleted).isEqualTo(1000);
+        assertThat(chunks).containsExactly(300, 300, 300, 100);
+        assertThat(count(owner)).isZero();
+        assertThat(count(other)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("deleteAnalysisHistory: 그 사용자의 분석 이력을 지운다.")
+    void deleteAnalysisHistory() {
+        // given
+        User owner = userRepository.save(new User("history@test.com"));
+        for (String month : List.of("2024-01", "2024-02")) {
+            jdbcTemplate.update("INSERT INTO analysis_history (user_id, month, total_score) VALUES (?, ?, 0)", owner.getId(), month);
+        }
+
+        // when
+        int deleted = eraser.deleteAnalysisHistory(owner.getId(), count -> {});
+
+        // then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analysis_history", Integer.class)).isZero();
+    }
+
+    private int count(User user) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE user_id = ?", Integer.class, user.getId());
+    }
+
+    private List<Transaction> transactions(String prefix, int count) {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(Transaction.builder()
+                .transactionKey(prefix + i)
+                .date("2024.02.15")
+                .merchant("상점")
+                .amount(1000)
+                .category("식비")
+                .status(PaymentStatus.completed)
+                .paymentMethod("카드")
+                .build());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,140 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.TransactionMerchantBackfill;
+import com.suhyun444.lifehub.card.DTO.MerchantCategoryDto;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.MerchantDictionary;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:merchantdictionary;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MerchantDictionary.class, TransactionBulkInserter.class, CategoryCodes.class, PaymentMethodCodes.class})
+class MerchantDictionaryTest {
+
+    @Autowired private MerchantDictionary dictionary;
+    @Autowired private TransactionBulkInserter inserter;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("resolve: 상점 이름마다 한 행만 만들고, 다시 물으면 같은 id를 돌려준다.")
+    void resolve_OneRowPerName() {
+        // when
+        Map<String, Integer> first = dictionary.resolve(List.of("사전상점A", "사전상점B", "사전상점A"));
+        Map<String, Integer> second = dictionary.resolve(List.of("사전상점B", "사전상점C"));
+
+        // then
+        assertThat(first).containsOnlyKeys("사전상점A", "사전상점B");
+        assertThat(first.get("사전상점A")).isNotEqualTo(first.get("사전상점B"));
+        assertThat(second.get("사전상점B")).isEqualTo(first.get("사전상점B"));
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM merchant WHERE name IN ('사전상점A', '사전상점B', '사전상점C')", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("resolve: 롤백된 트랜잭션에서 넣은 이름의 id는 캐시에 남지 않는다.")
+    void resolve_RolledBackIdIsNotCached() {
+        // given - 가져오기 트랜잭션 안에서 새 이름을 넣고 롤백한다.
+        TransactionTemplate importTx = new TransactionTemplate(transactionManager);
+        importTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer rolledBack = importTx.execute(status -> {
+            Integer id = dictionary.resolve(List.of("롤백상점")).get("롤백상점");
+            assertThat(dictionary.resolve(List.of("롤백상점"))).containsEntry("롤백상점", id);
+            status.setRollbackOnly();
+            return id;
+        });
+
+        // when
+        Integer id = dictionary.resolve(List.of("롤백상점")).get("롤백상점");
+
+        // then
+        assertThat(rolledBack).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM merchant WHERE name = '롤백상점'", Integer.class)).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("findLatestCategoriesByMerchantIds: 이 사용자의 거래만 보고, 상점 id마다 가장 최근 거래의 카테고리 한 행을 돌려준다.")
+    void findLatestCategoriesByMerchantIds_OnePerMerchantForUser() {
+        // given - 다른 사용자는 더 최근에 같은 상점을 여행으로 저장했다.
+        User user = userRepository.save(new User("history@test.com"));
+        User other = userRepository.save(new User("history-other@test.com"));
+        Map<String, Integer> ids = dictionary.resolve(List.of("이력상점", "이력상점2"));
+        int merchantId = ids.get("이력상점");
+        inserter.insertIgnoringDuplicates(List.of(
+            transaction("h1", "2024.01.10", "이력상점", merchantId, "식비"),
+            transaction("h2", "2024.03.10", "이력상점", merchantId, "카페"),
+            transaction("h3", "2024.02.10", "이력상점", merchantId, "쇼핑"),
+            transaction("h4", "2024.02.10", "이력상점2", ids.get("이력상점2"), "교통")), user);
+        inserter.insertIgnoringDuplicates(List.of(
+            transaction("o1", "2024.04.10", "이력상점", merchantId, "여행")), other);
+
+        // when
+        List<MerchantCategoryDto> history = transactionRepository.findLatestCategoriesByMerchantIds(user.getId(), List.of(merchantId, ids.get("이력상점2")));
+
+        // then
+        assertThat(history).containsExactlyInAnyOrder(
+            new MerchantCategoryDto(merchantId, "카페"), new MerchantCategoryDto(ids.get("이력상점2"), "교통"));
+    }
+
+    @Test
+    @DisplayName("backfill: merchantId가 비어 있는 예전 행을 상점 이름으로 채운다.")
+    void backfill_FillsMerchantIds() {
+        // given
+        User user = userRepository.save(new User("merchantbackfill@test.com"));
+        inserter.insertIgnoringDuplicates(List.of(
+            transaction("b1", "2024.02.01", "채울상점", null, "식비"),
+            transaction("b2", "2024.02.02", "채울상점", null, "식비"),
+            transaction("b3", "2024.02.03", "다른상점", null, "식비")), user);
+
+        // when
+        int filled = new TransactionMerchantBackfill(jdbcTemplate, dictionary, 2).backfill();
+
+        // then
+        Map<String, Integer> ids = dictionary.resolve(List.of("채울상점", "다른상점"));
+        assertThat(filled).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT merchant_id FROM transaction WHERE user_id = ? ORDER BY id", Integer.class, user.getId()))
+            .containsExactly(ids.get("채울상점"), ids.get("채울상점"), ids.get("다른상점"));
+    }
+
+    private Transaction transaction(String key, String date, String merchant, Integer merchantId, String category) {
+        return Transaction.builder()
+            .transactionKey(key)
+            .date(date)
+            .merchant(merchant)
+            .merchantId(merchantId)
+            .amount(1000)
+            .category(category)
+            .status(PaymentStatus.completed)
+            .paymentMethod("카드")
+            .build();
+    }
+}
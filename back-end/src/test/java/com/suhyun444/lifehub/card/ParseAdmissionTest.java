@@ -0,0 +1,73 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.ParseAdmission;
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseAdmissionTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<SpooledUpload> uploads = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (SpooledUpload upload : uploads) upload.close();
+    }
+
+    @Test
+    @DisplayName("acquire: 예산이 차 있으면 기다리다 거절하고, 앞 업로드가 끝나면 다시 받아준다.")
+    void acquire_RejectsPastBudgetThenAdmits() throws Exception {
+        // given - 텍스트 3MB는 2MB + 3MB = 5MB로 잡힌다. 예산은 8MB라 하나만 들어간다.
+        ParseAdmission admission = new ParseAdmission(8 * MB, 50, meterRegistry);
+        SpooledUpload upload = upload((int) (3 * MB));
+        assertThat(ParseAdmission.estimateBytes(upload)).isEqualTo(5 * MB);
+
+        // when & then
+        ParseAdmission.Permit first = admission.acquire(upload);
+        assertThat(meterRegistry.get("upload.admission.budget.used.bytes").gauge().value()).isEqualTo(5.0 * MB);
+        assertThatThrownBy(() -> admission.acquire(upload)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get("upload.admission.rejected").counter().count()).isEqualTo(1.0);
+
+        first.close();
+        first.close();
+        try (ParseAdmission.Permit second = admission.acquire(upload)) {
+            assertThat(meterRegistry.get("upload.admission.budget.used.bytes").gauge().value()).isEqualTo(5.0 * MB);
+        }
+        assertThat(meterRegistry.get("upload.admission.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("acquire: 예산보다 큰 파일은 예산 전체를 잡고 혼자 돈다.")
+    void acquire_OversizedFileRunsAlone() throws Exception {
+        // given
+        ParseAdmission admission = new ParseAdmission(4 * MB, 50, meterRegistry);
+        SpooledUpload big = upload((int) (3 * MB));
+
+        // when & then
+        try (ParseAdmission.Permit permit = admission.acquire(big)) {
+            assertThat(meterRegistry.get("upload.admission.budget.used.bytes").gauge().value()).isEqualTo(4.0 * MB);
+            assertThatThrownBy(() -> admission.acquire(upload(10))).isInstanceOf(RejectedExecutionException.class);
+        }
+    }
+
+    private SpooledUpload upload(int size) throws IOException {
+        SpooledUpload upload = SpooledUpload.of("statement.csv", new ByteArrayInputStream(new byte[size]));
+        uploads.add(upload);
+        return upload;
+    }
+}
@@ -0,0 +1,123 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.SoftDeleteCompactor;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.ImportWatermark;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.ImportWatermarkRepository;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionTombstones;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:compactor;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionBulkInserter.class, TransactionTombstones.class, CategoryCodes.class, PaymentMethodCodes.class})
+class SoftDeleteCompactorTest {
+
+    @Autowired private TransactionBulkInserter inserter;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ImportWatermarkRepository importWatermarkRepository;
+    @Autowired private TransactionTombstones tombstones;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("compact: 보관 기간이 지났고 워터마크가 덮는 삭제 행만 실제로 지우고, 지운 행의 툼스톤을 남긴다.")
+    void compact_OnlyOldRowsInsideWatermark() {
+        // given - 워터마크는 2024.02.01 ~ 2024.02.28, 경계일에는 b28 키만 가져왔다.
+        User user = userRepository.save(new User("compact@test.com"));
+        ImportWatermark watermark = new ImportWatermark(user, "KookminTransactionParser:카드");
+        watermark.advance(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 28), Set.of("b28"));
+        importWatermarkRepository.save(watermark);
+        inserter.insertIgnoringDuplicates(List.of(
+            transaction("old-inside", "2024.02.10"),
+            transaction("b28", "2024.02.28"),
+            transaction("other28", "2024.02.28"),
+            transaction("old-outside", "2024.03.05"),
+            transaction("recent", "2024.02.11"),
+            transaction("legacy", "2024.02.12"),
+            transaction("alive", "2024.02.13")), user);
+        LocalDateTime old = LocalDateTime.now().minusDays(40);
+        softDelete("old-inside", old);
+        softDelete("b28", old);
+        softDelete("other28", old);
+        softDelete("old-outside", old);
+        softDelete("recent", LocalDateTime.now().minusDays(1));
+        softDelete("legacy", null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SoftDeleteCompactor compactor = new SoftDeleteCompactor(jdbcTemplate, importWatermarkRepository, tombstones, 2, 0, 30, meterRegistry);
+
+        // when
+        SoftDeleteCompactor.Result result = compactor.compact();
+
+        // then
+        assertThat(result.scanned()).isEqualTo(4);
+        assertThat(result.reclaimed()).isEqualTo(2);
+        assertThat(result.kept()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT transaction_key FROM transaction ORDER BY id", String.class))
+            .containsExactly("other28", "old-outside", "recent", "legacy", "alive");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT deleted_at FROM transaction WHERE transaction_key = 'legacy'", LocalDateTime.class)).isNotNull();
+        assertThat(meterRegistry.counter("transaction.compaction.reclaimed").count()).isEqualTo(2);
+        assertThat(tombstones.findPurged(user.getId(), List.of(
+                Transaction.hashKey("old-inside"), Transaction.hashKey("b28"), Transaction.hashKey("other28"))))
+            .containsExactlyInAnyOrder(Transaction.hashKey("old-inside"), Transaction.hashKey("b28"));
+    }
+
+    @Test
+    @DisplayName("compact: 워터마크가 없는 사용자의 삭제 행은 지우지 않는다.")
+    void compact_KeepsRowsWithoutWatermark() {
+        // given
+        User user = userRepository.save(new User("nowatermark@test.com"));
+        inserter.insertIgnoringDuplicates(List.of(transaction("k1", "2024.02.10")), user);
+        softDelete("k1", LocalDateTime.now().minusDays(40));
+        SoftDeleteCompactor compactor = new SoftDeleteCompactor(jdbcTemplate, importWatermarkRepository, tombstones, 10, 0, 30, new SimpleMeterRegistry());
+
+        // when
+        SoftDeleteCompactor.Result result = compactor.compact();
+
+        // then
+        assertThat(result.reclaimed()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction", Integer.class)).isEqualTo(1);
+    }
+
+    private void softDelete(String key, LocalDateTime deletedAt) {
+        jdbcTemplate.update("UPDATE transaction SET is_deleted = true, deleted_at = ? WHERE transaction_key = ?", deletedAt, key);
+    }
+
+    private Transaction transaction(String key, String date) {
+        return Transaction.builder()
+            .transactionKey(key)
+            .date(date)
+            .merchant("상점")
+            .amount(1000)
+            .category("식비")
+            .status(PaymentStatus.completed)
+            .paymentMethod("카드")
+            .build();
+    }
+}
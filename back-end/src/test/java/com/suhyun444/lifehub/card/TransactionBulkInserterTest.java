@@ -0,0 +1,169 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.TransactionKeyBackfill;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulkinsert;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionBulkInserter.class, CategoryCodes.class, PaymentMethodCodes.class})
+class TransactionBulkInserterTest {
+
+    @Autowired private TransactionBulkInserter inserter;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("insertIgnoringDuplicates: 여러 문장에 걸쳐 저장하고, 저장된 행에는 id를 채워서 돌려준다.")
+    void insert_AcrossStatements() {
+        // given
+        User user = userRepository.save(new User("bulk@test.com"));
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 1234; i++) rows.add(transaction("key" + i, "상점" + i));
+
+        // when
+        List<Transaction> inserted = inserter.insertIgnoringDuplicates(rows, user);
+
+        // then
+        assertThat(inserted).hasSize(1234);
+        assertThat(inserted).allSatisfy(t -> assertThat(t.getId()).isNotNull());
+        List<Transaction> stored = transactionRepository.findByUserIdAndIsDeletedFalse(user.getId());
+        assertThat(stored).hasSize(1234);
+        Transaction first = transactionRepository.findById(inserted.get(0).getId()).orElseThrow();
+        assertThat(first.getMerchant()).isEqualTo("상점0");
+        assertThat(first.getStatus()).isEqualTo(PaymentStatus.completed);
+        assertThat(first.getIsDeleted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("insertIgnoringDuplicates: 이미 있는 키는 DB가 건너뛰고, 실제로 들어간 행만 돌려준다.")
+    void insert_IgnoresExistingKeys() {
+        // given
+        User user = userRepository.save(new User("dup@test.com"));
+        inserter.insertIgnoringDuplicates(List.of(transaction("dup1", "기존상점")), user);
+
+        // when
+        List<Transaction> inserted = inserter.insertIgnoringDuplicates(
+            List.of(transaction("dup1", "새상점"), transaction("dup2", "새상점2")), user);
+
+        // then
+        assertThat(inserted).extracting(Transaction::getTransactionKey).containsExactly("dup2");
+        assertThat(transactionRepository.findByUserIdAndIsDeletedFalse(user.getId()))
+            .extracting(Transaction::getMerchant).containsExactlyInAnyOrder("기존상점", "새상점2");
+    }
+
+    @Test
+    @DisplayName("insertIgnoringDuplicates: 중복은 사용자마다 따로 판단해서, 다른 사용자의 같은 키는 막지 않는다.")
+    void insert_DuplicatesArePerUser() {
+        // given
+        User first = userRepository.save(new User("first@test.com"));
+        User second = userRepository.save(new User("second@test.com"));
+        inserter.insertIgnoringDuplicates(List.of(transaction("shared", "상점")), first);
+
+        // when
+        List<Transaction> inserted = inserter.insertIgnoringDuplicates(List.of(transaction("shared", "상점")), second);
+
+        // then
+        assertThat(inserted).hasSize(1);
+        List<Long> hashes = List.of(Transaction.hashKey("shared"));
+        assertThat(transactionRepository.findExistingKeys(second.getId(), hashes, LocalDate.of(2024, 2, 15), LocalDate.of(2024, 2, 16)))
+            .containsExactly("shared");
+        assertThat(transactionRepository.findExistingKeys(second.getId(), hashes, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1)))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("insertIgnoringDuplicates: 중복이 아닌 오류(컬럼 길이 초과)는 건너뛰지 않고 예외로 알린다.")
+    void insert_SurfacesNonDuplicateErrors() {
+        // given
+        User user = userRepository.save(new User("toolong@test.com"));
+
+        // when & then
+        assertThatThrownBy(() -> inserter.insertIgnoringDuplicates(List.of(transaction("long", "상".repeat(300))), user))
+            .isInstanceOf(DataAccessException.class);
+        assertThat(transactionRepository.findByUserIdAndIsDeletedFalse(user.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("TransactionKeyBackfill: 해시가 비어 있는 예전 행을 배치로 나눠 채운다.")
+    void backfill_FillsMissingHashes() {
+        // given - 해시 컬럼이 생기기 전에 들어간 행
+        User user = userRepository.save(new User("old@test.com"));
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO transaction (transaction_key, date, merchant, amount, category_code, status, payment_method_code, is_deleted, user_id) "
+                + "VALUES (?, '2024.02.15', '상점', 1000, 1, 0, 1, FALSE, ?)", "old" + i, user.getId());
+        }
+
+        TransactionKeyBackfill backfill = new TransactionKeyBackfill(jdbcTemplate, 2);
+        assertThat(backfill.isComplete()).isFalse();
+        // 채우기 전에는 해시로 못 찾고, 키 문자열로는 찾는다.
+        assertThat(transactionRepository.findExistingKeysIncludingLegacy(user.getId(), List.of(Transaction.hashKey("old1")), List.of("old1")))
+            .containsExactly("old1");
+
+        // when
+        int filled = backfill.backfill();
+
+        // then
+        assertThat(filled).isEqualTo(5);
+        assertThat(backfill.isComplete()).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT key_hash FROM transaction WHERE transaction_key = 'old3'", Long.class))
+            .isEqualTo(Transaction.hashKey("old3"));
+        assertThat(new TransactionKeyBackfill(jdbcTemplate, 2).backfill()).isZero();
+    }
+
+    @Test
+    @DisplayName("TransactionKeyBackfill: transaction_key 하나로 된 예전 유일 인덱스를 찾고, 백필 전에는 지우지 않는다.")
+    void backfill_FindsLegacyKeyIndex() {
+        // given - 해시 컬럼이 생기기 전의 전역 유일 인덱스
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_legacy_transaction_key ON transaction (transaction_key)");
+        TransactionKeyBackfill backfill = new TransactionKeyBackfill(jdbcTemplate, 2);
+
+        try {
+            // when & then
+            assertThat(backfill.findLegacyKeyIndexes()).extracting(String::toLowerCase).containsExactly("uk_legacy_transaction_key");
+            assertThat(backfill.dropLegacyKeyIndexes()).isEmpty();
+        } finally {
+            jdbcTemplate.execute("DROP INDEX uk_legacy_transaction_key");
+        }
+    }
+
+    private Transaction transaction(String key, String merchant) {
+        return Transaction.builder()
+            .transactionKey(key)
+            .date("2024.02.15")
+            .merchant(merchant)
+            .amount(1000)
+            .category("식비")
+            .status(PaymentStatus.completed)
+            .paymentMethod("카드")
+            .build();
+    }
+}
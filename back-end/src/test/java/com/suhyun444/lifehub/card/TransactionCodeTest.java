@@ -0,0 +1,190 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.TransactionCodeMigration;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:transactioncode;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CategoryCodes.class, PaymentMethodCodes.class})
+class TransactionCodeTest {
+
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryCodes categoryCodes;
+    @Autowired private PaymentMethodCodes paymentMethodCodes;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManager em;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("code: 이름마다 코드가 하나씩 생기고, name으로 되돌릴 수 있다.")
+    void code_RoundTrip() {
+        // when
+        short food = categoryCodes.code("코드식비");
+        short cafe = categoryCodes.code("코드카페");
+
+        // then
+        assertThat(categoryCodes.code("코드식비")).isEqualTo(food);
+        assertThat(food).isNotEqualTo(cafe);
+        assertThat(categoryCodes.name(cafe)).isEqualTo("코드카페");
+        assertThat(categoryCodes.name((short) 0)).isNull();
+    }
+
+    @Test
+    @DisplayName("code: 롤백된 트랜잭션에서 만든 코드는 공용 맵에 남지 않는다.")
+    void code_RolledBackCodeIsNotCached() {
+        // given - 가져오기 트랜잭션 안에서 새 카테고리를 만들고 롤백한다.
+        TransactionTemplate importTx = new TransactionTemplate(transactionManager);
+        importTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        importTx.executeWithoutResult(status -> {
+            short code = categoryCodes.code("롤백카테고리");
+            assertThat(categoryCodes.code("롤백카테고리")).isEqualTo(code);
+            assertThat(categoryCodes.name(code)).isEqualTo("롤백카테고리");
+            status.setRollbackOnly();
+        });
+
+        // when
+        short code = categoryCodes.code("롤백카테고리");
+
+        // then
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM category WHERE name = '롤백카테고리'", Short.class)).isEqualTo(code);
+    }
+
+    @Test
+    @DisplayName("code: 너무 긴 이름은 테이블에 넣지 않고 IllegalArgumentException을 던진다.")
+    void code_RejectsTooLongName() {
+        // given
+        String longName = "가".repeat(CategoryCodes.MAX_NAME_LENGTH + 1);
+
+        // when & then
+        assertThatThrownBy(() -> categoryCodes.code(longName))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM category WHERE name = ?", Integer.class, longName)).isZero();
+    }
+
+    @Test
+    @DisplayName("validate: 길이와 허용 문자를 벗어난 카테고리 이름을 거른다.")
+    void validate_CategoryNames() {
+        assertThat(CategoryCodes.validate("식비")).isNull();
+        assertThat(CategoryCodes.validate("카페/간식")).isNull();
+        assertThat(CategoryCodes.validate(" ")).isNotNull();
+        assertThat(CategoryCodes.validate("가".repeat(CategoryCodes.MAX_NAME_LENGTH + 1))).isNotNull();
+        assertThat(CategoryCodes.validate("<script>")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("저장/조회: 엔티티는 이름을 쓰고, 테이블에는 smallint 코드만 저장된다.")
+    void persist_StoresCodes() {
+        // given
+        User user = userRepository.save(new User("code@test.com"));
+        Transaction saved = transactionRepository.save(transaction("c1", "식비", "체크카드", user));
+        em.flush();
+        em.clear();
+
+        // when
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT category_code, payment_method_code FROM transaction WHERE id = ?", saved.getId());
+        Transaction loaded = transactionRepository.findById(saved.getId()).orElseThrow();
+
+        // then
+        assertThat(((Number) row.get("category_code")).shortValue()).isEqualTo(categoryCodes.code("식비"));
+        assertThat(((Number) row.get("payment_method_code")).shortValue()).isEqualTo(paymentMethodCodes.code("체크카드"));
+        assertThat(loaded.getCategory()).isEqualTo("식비");
+        assertThat(loaded.getPaymentMethod()).isEqualTo("체크카드");
+    }
+
+    @Test
+    @DisplayName("updateCategory: JPQL 일괄 수정도 카테고리 이름을 코드로 바꿔서 저장한다.")
+    void updateCategory_WritesCode() {
+        // given
+        User user = userRepository.save(new User("codeupdate@test.com"));
+        Transaction saved = transactionRepository.save(transaction("u1", "식비", "카드", user));
+
+        // when
+        transactionRepository.updateCategory(user.getId(), List.of(saved.getId()), "교통");
+
+        // then
+        assertThat(jdbcTemplate.queryForObject("SELECT category_code FROM transaction WHERE id = ?", Short.class, saved.getId()))
+            .isEqualTo(categoryCodes.code("교통"));
+        assertThat(transactionRepository.findById(saved.getId()).orElseThrow().getCategory()).isEqualTo("교통");
+    }
+
+    @Test
+    @DisplayName("migration: 예전 문자열 컬럼을 NULL 허용으로 바꾸고, 그 값을 코드로 옮긴 뒤 비운다.")
+    void migration_MovesLegacyColumns() {
+        // given - ddl-auto=update가 코드 컬럼만 0으로 추가한 예전 DB. ALTER는 바로 커밋되므로 끝나면 컬럼을 지운다.
+        User user = userRepository.save(new User("legacy@test.com"));
+        em.flush();
+        jdbcTemplate.execute("ALTER TABLE transaction ADD COLUMN category VARCHAR(255) DEFAULT '' NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE transaction ADD COLUMN payment_method VARCHAR(255) DEFAULT '' NOT NULL");
+        try {
+            jdbcTemplate.update("INSERT INTO transaction (user_id, transaction_key, date, merchant, amount, status, is_deleted, "
+                + "category, payment_method, category_code, payment_method_code) "
+                + "VALUES (?, 'legacy1', '2024.02.01', '예전상점', 1000, 0, false, '예전카테고리', '예전카드', 0, 0)", user.getId());
+            TransactionCodeMigration migration = new TransactionCodeMigration(jdbcTemplate, categoryCodes, paymentMethodCodes, 1);
+
+            // when
+            boolean relaxed = migration.relaxLegacyColumns();
+            int filled = migration.backfill();
+
+            // then
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT category, payment_method, category_code, payment_method_code FROM transaction WHERE transaction_key = 'legacy1'");
+            assertThat(relaxed).isTrue();
+            assertThat(filled).isEqualTo(1);
+            assertThat(row.get("category")).isNull();
+            assertThat(row.get("payment_method")).isNull();
+            assertThat(categoryCodes.name(((Number) row.get("category_code")).shortValue())).isEqualTo("예전카테고리");
+            assertThat(paymentMethodCodes.name(((Number) row.get("payment_method_code")).shortValue())).isEqualTo("예전카드");
+            assertThat(migration.backfill()).isZero();
+        } finally {
+            jdbcTemplate.execute("DELETE FROM transaction WHERE transaction_key = 'legacy1'");
+            jdbcTemplate.execute("ALTER TABLE transaction DROP COLUMN category");
+            jdbcTemplate.execute("ALTER TABLE transaction DROP COLUMN payment_method");
+        }
+    }
+
+    private Transaction transaction(String key, String category, String paymentMethod, User user) {
+        return Transaction.builder()
+            .transactionKey(key)
+            .date("2024.02.01")
+            .merchant("코드상점")
+            .amount(1000)
+            .category(category)
+            .status(PaymentStatus.completed)
+            .paymentMethod(paymentMethod)
+            .user(user)
+            .build();
+    }
+}
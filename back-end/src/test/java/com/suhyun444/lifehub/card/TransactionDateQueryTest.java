@@ -0,0 +1,139 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.TransactionDateBackfill;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Parser.StatementDates;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:datequery;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.suhyun444.lifehub.card.TransactionDateQueryTest$SqlCapture",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionBulkInserter.class, CategoryCodes.class, PaymentMethodCodes.class})
+class TransactionDateQueryTest {
+
+    @Autowired private TransactionBulkInserter inserter;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    // Hibernate가 실제로 보내는 SQL을 받아서 실행 계획을 확인한다.
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Test
+    @DisplayName("findLiveInMonth: 그 달의 지우지 않은 행만 날짜순으로 돌려준다.")
+    void findLiveInMonth() {
+        // given
+        User user = userRepository.save(new User("month@test.com"));
+        User other = userRepository.save(new User("month-other@test.com"));
+        inserter.insertIgnoringDuplicates(List.of(
+            transaction("a", "2024.02.29 23:59:00", false),
+            transaction("b", "2024.02.01", false),
+            transaction("c", "2024.03.01", false),
+            transaction("d", "2024.01.31", false),
+            transaction("e", "2024.02.10", true),
+            transaction("f", "알수없음", false)), user);
+        inserter.insertIgnoringDuplicates(List.of(transaction("x", "2024.02.15", false)), other);
+
+        // when
+        List<Transaction> february = transactionRepository.findLiveInMonth(user.getId(), YearMonth.of(2024, 2));
+        List<Transaction> range = transactionRepository.findLiveBetween(user.getId(), LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 1));
+
+        // then
+        assertThat(february).extracting(Transaction::getTransactionKey).containsExactly("b", "a");
+        assertThat(range).extracting(Transaction::getTransactionKey).containsExactly("d", "b");
+    }
+
+    @Test
+    @DisplayName("findLiveInRange: (user_id, is_deleted, transaction_date) 인덱스로 범위를 읽는다.")
+    void findLiveInRange_UsesIndex() {
+        // given - 다른 인덱스(user_id, key_hash)보다 날짜 인덱스가 나은지 볼 수 있을 만큼 행을 넣는다.
+        User user = userRepository.save(new User("plan@test.com"));
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(transaction("k" + i, LocalDate.of(2020, 1, 1).plusDays(i).toString().replace('-', '.'), i % 10 == 0));
+        }
+        inserter.insertIgnoringDuplicates(rows, user);
+        SqlCapture.statements.clear();
+
+        // when
+        transactionRepository.findLiveInMonth(user.getId(), YearMonth.of(2021, 3));
+
+        // then
+        String sql = SqlCapture.statements.stream().filter(s -> s.contains("transaction_date")).findFirst().orElseThrow();
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class,
+            user.getId(), LocalDate.of(2021, 3, 1), LocalDate.of(2021, 4, 1));
+        assertThat(plan.toUpperCase()).contains("IDX_TRANSACTION_USER_LIVE_DATE");
+    }
+
+    @Test
+    @DisplayName("backfill: transactionDate가 비어 있는 예전 행을 date 문자열에서 채운다.")
+    void backfill_FillsFromDateString() {
+        // given
+        User user = userRepository.save(new User("datebackfill@test.com"));
+        inserter.insertIgnoringDuplicates(List.of(
+            transaction("old1", "2024.02.14 12:00:00", false),
+            transaction("old2", "2024-03-01", false),
+            transaction("bad", "알수없음", false)), user);
+        jdbcTemplate.update("UPDATE transaction SET transaction_date = NULL");
+
+        TransactionDateBackfill backfill = new TransactionDateBackfill(jdbcTemplate, 2);
+
+        // when
+        int filled = backfill.backfill();
+
+        // then - 형식을 알 수 없는 날짜는 UNDATED로 채워서 빈 행이 남지 않는다.
+        assertThat(filled).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT transaction_date FROM transaction ORDER BY id", LocalDate.class))
+            .containsExactly(LocalDate.of(2024, 2, 14), LocalDate.of(2024, 3, 1), StatementDates.UNDATED);
+        assertThat(backfill.isComplete()).isTrue();
+    }
+
+    private Transaction transaction(String key, String date, boolean deleted) {
+        return Transaction.builder()
+            .transactionKey(key)
+            .date(date)
+            .merchant("상점")
+            .amount(1000)
+            .category("식비")
+            .status(PaymentStatus.completed)
+            .paymentMethod("카드")
+            .isDeleted(deleted)
+            .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.MerchantDictionary;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionImportStage;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:importstage;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "upload.import.staged=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionImportStage.class, TransactionBulkInserter.class, MerchantDictionary.class, CategoryCodes.class, PaymentMethodCodes.class})
+class TransactionImportStageTest {
+
+    @Autowired private TransactionImportStage stage;
+    @Autowired private TransactionBulkInserter inserter;
+    @Autowired private MerchantDictionary merchantDictionary;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("stage -> removeExisting -> insertNew: 파일 안 중복과 이미 있는 키를 조인으로 걸러내고, 새 행만 파일 순서대로 저장한다.")
+    void stagedImport_DedupAndInsert() {
+        // given - 상점1은 이미 저장되어 있고, 파일 안에서 상점3이 두 번 나온다.
+        User user = userRepository.save(new User("stage@test.com"));
+        inserter.insertIgnoringDuplicates(withMerchantIds(List.of(transaction("k1", "상점1", "식비"))), user);
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) rows.add(transaction("k" + i, "상점" + (i % 5), null));
+        rows.add(transaction("k3", "상점3", null));
+        withMerchantIds(rows);
+
+        // when
+        int staged = stage.stage("import-1", 0, rows.subList(0, 700)) + stage.stage("import-1", 700, rows.subList(700, rows.size()));
+        int removed = stage.removeExisting("import-1", user);
+        Map<String, String> history = stage.findHistoryCategories("import-1", user);
+        stage.applyCategories("import-1", Map.of("상점0", "쇼핑", "상점1", "식비", "상점2", "쇼핑", "상점3", "쇼핑", "상점4", "쇼핑"));
+        List<Transaction> inserted = stage.insertNew("import-1", user);
+        stage.clear("import-1");
+
+        // then
+        assertThat(staged).isEqualTo(1200);
+        assertThat(removed).isEqualTo(1);
+        assertThat(history).containsExactly(Map.entry("상점1", "식비"));
+        assertThat(stage.findMerchants("import-1")).isEmpty();
+        assertThat(inserted).hasSize(1199);
+        assertThat(inserted.get(0).getTransactionKey()).isEqualTo("k0");
+        assertThat(inserted.get(1).getTransactionKey()).isEqualTo("k2");
+        assertThat(inserted).allSatisfy(t -> assertThat(t.getId()).isNotNull());
+        assertThat(inserted.get(0).getCategory()).isEqualTo("쇼핑");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE user_id = ?", Integer.class, user.getId())).isEqualTo(1200);
+    }
+
+    @Test
+    @DisplayName("insertNew: 중복 확인 뒤 다른 요청이 먼저 넣은 키는 건너뛰고, 그 행은 결과에 넣지 않는다.")
+    void insertNew_SkipsKeysInsertedConcurrently() {
+        // given - 스테이징에서 중복을 지운 뒤 다른 요청이 k2를 먼저 저장했다.
+        User user = userRepository.save(new User("race@test.com"));
+        stage.stage("import-race", 0, withMerchantIds(List.of(
+            transaction("k1", "상점1", "식비"), transaction("k2", "상점2", "식비"), transaction("k3", "상점3", "식비"))));
+        stage.removeExisting("import-race", user);
+        stage.applyCategories("import-race", Map.of("상점1", "식비", "상점2", "식비", "상점3", "식비"));
+        inserter.insertIgnoringDuplicates(withMerchantIds(List.of(transaction("k2", "다른요청", "식비"))), user);
+
+        // when
+        List<Transaction> inserted = stage.insertNew("import-race", user);
+        stage.clear("import-race");
+
+        // then
+        assertThat(inserted).extracting(Transaction::getTransactionKey).containsExactly("k1", "k3");
+        assertThat(jdbcTemplate.queryForObject("SELECT merchant FROM transaction WHERE transaction_key = 'k2'", String.class)).isEqualTo("다른요청");
+    }
+
+    @Test
+    @DisplayName("findHistoryCategories: 이 사용자의 거래만 보고, 상점마다 가장 최근 거래의 카테고리 하나를 돌려준다.")
+    void findHistoryCategories_LatestPerMerchantForUser() {
+        // given - 다른 사용자가 더 최근에 상점X를 쇼핑으로 저장했다.
+        User user = userRepository.save(new User("history@test.com"));
+        User other = userRepository.save(new User("history-other@test.com"));
+        inserter.insertIgnoringDuplicates(withMerchantIds(List.of(
+            dated(transaction("h1", "상점X", "식비"), "2024.01.10"),
+            dated(transaction("h2", "상점X", "카페"), "2024.02.10"),
+            dated(transaction("h3", "상점Y", "교통"), "2024.01.05"))), user);
+        inserter.insertIgnoringDuplicates(withMerchantIds(List.of(
+            dated(transaction("o1", "상점X", "쇼핑"), "2024.03.01"),
+            dated(transaction("o2", "상점Z", "쇼핑"), "2024.03.01"))), other);
+        stage.stage("import-history", 0, withMerchantIds(List.of(
+            transaction("n1", "상점X", null), transaction("n2", "상점Y", null), transaction("n3", "상점Z", null))));
+
+        // when
+        Map<String, String> history = stage.findHistoryCategories("import-history", user);
+        stage.clear("import-history");
+
+        // then
+        assertThat(history).containsOnly(Map.entry("상점X", "카페"), Map.entry("상점Y", "교통"));
+    }
+
+    @Test
+    @DisplayName("stage: 가져오기마다 importId로 나뉘어서 다른 가져오기의 행과 섞이지 않는다.")
+    void stage_IsolatedByImportId() {
+        // given
+        stage.stage("import-a", 0, List.of(transaction("a1", "상점A", null)));
+        stage.stage("import-b", 0, List.of(transaction("a1", "상점B", null)));
+
+        // when
+        stage.clear("import-a");
+
+        // then
+        assertThat(stage.findMerchants("import-a")).isEmpty();
+        assertThat(stage.findMerchants("import-b")).containsExactly("상점B");
+    }
+
+    private List<Transaction> withMerchantIds(List<Transaction> rows) {
+        Map<String, Integer> ids = merchantDictionary.resolve(rows.stream().map(Transaction::getMerchant).toList());
+        rows.forEach(t -> t.setMerchantId(ids.get(t.getMerchant())));
+        return rows;
+    }
+
+    private Transaction dated(Transaction transaction, String date) {
+        transaction.setDate(date);
+        return transaction;
+    }
+
+    private Transaction transaction(String key, String merchant, String category) {
+        return Transaction.builder()
+            .transactionKey(key)
+            .date("2024.02.15")
+            .merchant(merchant)
+            .amount(1000)
+            .category(category == null ? "기타" : category)
+            .status(PaymentStatus.completed)
+            .paymentMethod("카드")
+            .build();
+    }
+}
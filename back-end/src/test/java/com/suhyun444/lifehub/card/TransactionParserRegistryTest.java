@@ -0,0 +1,149 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.StatementRow;
+import com.suhyun444.lifehub.card.Parser.StatementRowHandler;
+import com.suhyun444.lifehub.card.Parser.TransactionParser;
+import com.suhyun444.lifehub.card.Parser.TransactionParserRegistry;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionParserRegistryTest {
+
+    private final TransactionParserRegistry registry =
+        new TransactionParserRegistry(List.of(new HeaderParser(), new KookminTransactionParser()));
+
+    @Test
+    @DisplayName("newRowHandler: 첫 행 머리글로 형식을 알아본 파서가 앞부분 행까지 모두 받는다.")
+    void newRowHandler_PicksParserByHeader() {
+        // given
+        List<Transaction> result = new ArrayList<>();
+        StatementRowHandler handler = registry.newRowHandler(result::add, () -> {});
+
+        // when
+        feed(handler, new String[]{"테스트은행 거래내역"}, new String[]{"2024.02.15", "상점A", "1000"}, new String[]{"2024.02.16", "상점B", "2000"});
+
+        // then
+        assertThat(result).extracting(Transaction::getMerchant).containsExactly("상점A", "상점B");
+    }
+
+    @Test
+    @DisplayName("newRowHandler: 국민은행 형식은 6번째 행의 날짜와 금액으로 알아보고, 합계 행과 0원 행은 그대로 걸러진다.")
+    void newRowHandler_FallsThroughToKookmin() {
+        // given
+        List<Transaction> result = new ArrayList<>();
+        int[] skipped = {0};
+        StatementRowHandler handler = registry.newRowHandler(result::add, () -> skipped[0]++);
+
+        // when
+        feed(handler,
+            new String[]{}, new String[]{}, new String[]{}, new String[]{}, new String[]{},
+            new String[]{"2024.02.15", "", "상점A", "", "1,000", "", "", "카드"},
+            new String[]{"2024.02.16", "", "상점B", "", "0", "", "", "카드"},
+            new String[]{"2024.02.17", "", "상점C", "", "3,000", "", "", "카드"},
+            new String[]{"", "", "", "", "합계"});
+
+        // then
+        assertThat(result).extracting(Transaction::getMerchant).containsExactly("상점A", "상점C");
+        assertThat(skipped[0]).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("newRowHandler: 첫 거래가 음수 금액인 취소 건이어도 국민은행 형식으로 알아본다.")
+    void newRowHandler_KookminStartingWithCancellation() {
+        // given
+        List<Transaction> result = new ArrayList<>();
+        StatementRowHandler handler = registry.newRowHandler(result::add, () -> {});
+
+        // when
+        feed(handler,
+            new String[]{}, new String[]{}, new String[]{}, new String[]{}, new String[]{},
+            new String[]{"2024.02.15", "", "상점A", "", "-12,000", "", "", "카드"},
+            new String[]{"2024.02.16", "", "상점B", "", "3,000", "", "", "카드"},
+            new String[]{"", "", "", "", "합계"});
+
+        // then
+        assertThat(result).extracting(Transaction::getAmount).containsExactly(-12000, 3000);
+    }
+
+    @Test
+    @DisplayName("newRowHandler: 거래가 없어 6번째 행이 합계 행인 국민은행 명세서는 거절하지 않고 빈 결과로 끝난다.")
+    void newRowHandler_KookminWithoutTransactions() {
+        // given
+        List<Transaction> result = new ArrayList<>();
+        StatementRowHandler amountTotal = registry.newRowHandler(result::add, () -> {});
+        StatementRowHandler labelTotal = registry.newRowHandler(result::add, () -> {});
+
+        // when
+        feed(amountTotal, new String[]{}, new String[]{}, new String[]{}, new String[]{}, new String[]{},
+            new String[]{"", "", "", "", "0"});
+        feed(labelTotal, new String[]{}, new String[]{}, new String[]{}, new String[]{}, new String[]{},
+            new String[]{"", "", "", "", "합계"});
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    @DisplayName("newRowHandler: 어떤 파서도 알아보지 못하면 예외를 던지고, 데이터 행이 없는 파일은 조용히 끝난다.")
+    void newRowHandler_UnknownFormat() {
+        StatementRowHandler unknown = registry.newRowHandler(t -> {}, () -> {});
+        assertThatThrownBy(() -> feed(unknown,
+            new String[]{"다른은행"}, new String[]{}, new String[]{}, new String[]{}, new String[]{}, new String[]{"2024/02/15", "", "", "", "금액없음"}))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        List<Transaction> result = new ArrayList<>();
+        feed(registry.newRowHandler(result::add, () -> {}), new String[]{}, new String[]{});
+        assertThat(result).isEmpty();
+    }
+
+    private void feed(StatementRowHandler handler, String[]... rows) {
+        StatementRow row = new StatementRow();
+        for (int i = 0; i < rows.length; i++) {
+            row.reset(i);
+            for (int c = 0; c < rows[i].length; c++) row.set(c, rows[i][c]);
+            handler.handleRow(row);
+        }
+        handler.endSheet();
+    }
+
+    // 첫 행 머리글이 "테스트은행"으로 시작하는 가상의 형식: 0열 날짜, 1열 상점, 2열 금액
+    private static class HeaderParser extends TransactionParser {
+        @Override
+        public List<Transaction> parse(Sheet sheet) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getSniffRows() {
+            return 1;
+        }
+
+        @Override
+        public boolean matches(List<StatementRow> head) {
+            return !head.isEmpty() && head.get(0).getRowNum() == 0 && head.get(0).get(0).startsWith("테스트은행");
+        }
+
+        @Override
+        public StatementRowHandler newRowHandler(Consumer<Transaction> sink, Runnable onSkipped) {
+            return row -> {
+                if (row.getRowNum() == 0) return;
+                Transaction transaction = new Transaction();
+                transaction.setDate(row.get(0));
+                transaction.setMerchant(row.get(1));
+                transaction.setAmount(Integer.parseInt(row.get(2)));
+                sink.accept(transaction);
+            };
+        }
+    }
+}
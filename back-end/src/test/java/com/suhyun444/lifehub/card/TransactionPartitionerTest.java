@@ -0,0 +1,120 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.TransactionDateBackfill;
+import com.suhyun444.lifehub.card.Component.TransactionPartitioner;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// 파티션 문법은 H2에 없어서 실행되는 SQL만 확인한다.
+class TransactionPartitionerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionDateBackfill dateBackfill = mock(TransactionDateBackfill.class);
+    private final TransactionPartitioner partitioner = new TransactionPartitioner(jdbcTemplate, dateBackfill, true, 2, "validate");
+
+    @Test
+    @DisplayName("partitionTable: 날짜를 채우고 키를 바꾼 뒤, 가장 오래된 달부터 이번 달 + 2개월까지 월별로 나눈다.")
+    void partitionTable_KeysThenMonthlyPartitions() {
+        // given
+        given(jdbcTemplate.queryForList(contains("REFERENTIAL_CONSTRAINTS"), eq(String.class))).willReturn(List.of("FK_user"));
+        given(jdbcTemplate.queryForList(contains("NON_UNIQUE = 0"), eq(String.class))).willReturn(List.of("UK_user_key_hash"));
+        given(jdbcTemplate.queryForObject(contains("MIN(transaction_date)"), eq(LocalDate.class), any()))
+            .willReturn(LocalDate.of(2024, 11, 20));
+
+        // when
+        partitioner.partitionTable(YearMonth.of(2025, 1));
+
+        // then
+        InOrder order = inOrder(dateBackfill, jdbcTemplate);
+        order.verify(dateBackfill).backfill();
+        order.verify(jdbcTemplate).update(contains("transaction_date IS NULL"), eq(LocalDate.EPOCH));
+        order.verify(jdbcTemplate).execute("ALTER TABLE transaction DROP FOREIGN KEY `FK_user`");
+        order.verify(jdbcTemplate).execute("ALTER TABLE transaction "
+            + "MODIFY transaction_date DATE NOT NULL DEFAULT '1970-01-01', "
+            + "DROP PRIMARY KEY, ADD PRIMARY KEY (id, transaction_date), "
+            + "DROP INDEX `UK_user_key_hash`, "
+            + "ADD UNIQUE KEY uk_transaction_user_key_date (user_id, key_hash, transaction_date)");
+        order.verify(jdbcTemplate).execute("ALTER TABLE transaction PARTITION BY RANGE COLUMNS(transaction_date) ("
+            + "PARTITION p_undated VALUES LESS THAN ('1970-01-02'), "
+            + "PARTITION p202411 VALUES LESS THAN ('2024-12-01'), "
+            + "PARTITION p202412 VALUES LESS THAN ('2025-01-01'), "
+            + "PARTITION p202501 VALUES LESS THAN ('2025-02-01'), "
+            + "PARTITION p202502 VALUES LESS THAN ('2025-03-01'), "
+            + "PARTITION p202503 VALUES LESS THAN ('2025-04-01'), "
+            + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    @DisplayName("addFuturePartitions: 마지막 월 파티션 다음 달부터 이번 달 + 2개월까지 p_future를 쪼개서 붙인다.")
+    void addFuturePartitions_ReorganizesFuturePartition() {
+        // given
+        given(jdbcTemplate.queryForList(contains("information_schema.PARTITIONS"), eq(String.class)))
+            .willReturn(List.of("p_undated", "p202412", "p202501", "p_future"));
+
+        // when
+        int added = partitioner.addFuturePartitions(YearMonth.of(2025, 2));
+
+        // then
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).execute(ddl.capture());
+        assertThat(added).isEqualTo(3);
+        assertThat(ddl.getValue()).isEqualTo("ALTER TABLE transaction REORGANIZE PARTITION p_future INTO ("
+            + "PARTITION p202502 VALUES LESS THAN ('2025-03-01'), "
+            + "PARTITION p202503 VALUES LESS THAN ('2025-04-01'), "
+            + "PARTITION p202504 VALUES LESS THAN ('2025-05-01'), "
+            + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    @DisplayName("addFuturePartitions: 이미 앞으로 쓸 달까지 있으면 아무것도 바꾸지 않는다.")
+    void addFuturePartitions_NothingMissing() {
+        // given
+        given(jdbcTemplate.queryForList(contains("information_schema.PARTITIONS"), eq(String.class)))
+            .willReturn(List.of("p_undated", "p202503", "p202504", "p_future"));
+
+        // when
+        int added = partitioner.addFuturePartitions(YearMonth.of(2025, 2));
+
+        // then
+        assertThat(added).isZero();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("start: 꺼져 있으면 DB를 건드리지 않는다.")
+    void start_DisabledByDefault() {
+        // when
+        new TransactionPartitioner(jdbcTemplate, dateBackfill, false, 2, "update").start();
+
+        // then
+        verifyNoInteractions(jdbcTemplate, dateBackfill);
+    }
+
+    @Test
+    @DisplayName("생성: 파티션을 켠 채 ddl-auto=update면 지운 키를 다시 만들려 하므로 기동을 멈춘다.")
+    void constructor_RejectsDdlAutoUpdate() {
+        assertThatThrownBy(() -> new TransactionPartitioner(jdbcTemplate, dateBackfill, true, 2, "update"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
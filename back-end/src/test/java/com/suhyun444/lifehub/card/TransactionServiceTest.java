@@ -1,30 +1,65 @@
 package com.suhyun444.lifehub.card;
 
 import com.suhyun444.lifehub.User.UserRepository;
+import com.suhyun444.lifehub.card.Component.KnownKeyFilter;
+import com.suhyun444.lifehub.card.Component.ParseAdmission;
 import com.suhyun444.lifehub.card.Component.SpendingAnalyzer;
 import com.suhyun444.lifehub.card.Component.TransactionCategorizer;
+import com.suhyun444.lifehub.card.Component.TransactionDateBackfill;
+import com.suhyun444.lifehub.card.Component.TransactionKeyBackfill;
+import com.suhyun444.lifehub.card.Component.UploadDigestCache;
 import com.suhyun444.lifehub.card.DTO.AnalysisDto;
+import com.suhyun444.lifehub.card.DTO.BatchUploadDto.FileStatus;
+import com.suhyun444.lifehub.card.DTO.BatchUploadDto;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto.ItemStatus;
+import com.suhyun444.lifehub.card.DTO.BulkEditDto;
+import com.suhyun444.lifehub.card.DTO.MerchantCategoryDto;
+import com.suhyun444.lifehub.card.DTO.PaymentStatus;
 import com.suhyun444.lifehub.card.DTO.TransactionDto;
+import com.suhyun444.lifehub.card.DTO.UploadResultDto;
 import com.suhyun444.lifehub.card.Entity.AnalysisHistory;
+import com.suhyun444.lifehub.card.Entity.ImportWatermark;
 import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Entity.UploadDigest;
 import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.TransactionParserRegistry;
 import com.suhyun444.lifehub.card.Repository.AnalysisHistoryRepository;
+import com.suhyun444.lifehub.card.Repository.ImportWatermarkRepository;
+import com.suhyun444.lifehub.card.Repository.MerchantDictionary;
+import com.suhyun444.lifehub.card.Repository.TransactionBulkInserter;
+import com.suhyun444.lifehub.card.Repository.TransactionImportStage;
 import com.suhyun444.lifehub.card.Repository.TransactionRepository;
+import com.suhyun444.lifehub.card.Repository.TransactionTombstones;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+import com.suhyun444.lifehub.card.Upload.UploadPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -32,6 +67,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -47,10 +83,44 @@ class TransactionServiceTest {
     @Mock private AnalysisHistoryRepository analysisHistoryRepository;
     @Mock private TransactionCategorizer transactionCategorizer;
     @Mock private SpendingAnalyzer spendingAnalyzer;
+    @Spy private UploadPipeline uploadPipeline = new UploadPipeline(2, 2, 2);
+    @Mock private UploadDigestCache uploadDigestCache;
+    @Mock private ImportWatermarkRepository importWatermarkRepository;
+    @Spy private ParseAdmission parseAdmission = new ParseAdmission(64 * 1024 * 1024, 1000, new SimpleMeterRegistry());
+    @Spy private UploadLimits uploadLimits = new UploadLimits(20L << 20, 100L << 20, 100, 100_000);
+    @Spy private TransactionParserRegistry parserRegistry = new TransactionParserRegistry(List.of(new KookminTransactionParser()));
+    @Mock private TransactionBulkInserter transactionBulkInserter;
+    @Mock private TransactionImportStage transactionImportStage;
+    @Mock private KnownKeyFilter knownKeyFilter;
+    @Mock private MerchantDictionary merchantDictionary;
+    @Mock private TransactionTombstones transactionTombstones;
+    @Mock private TransactionKeyBackfill transactionKeyBackfill;
+    @Mock private TransactionDateBackfill transactionDateBackfill;
+    @Captor private ArgumentCaptor<List<Transaction>> savedCaptor;
+    @Captor private ArgumentCaptor<List<Long>> hashesCaptor;
+    @Captor private ArgumentCaptor<List<String>> keysCaptor;
 
     @InjectMocks
     private TransactionService transactionService;
 
+    // DB가 거부하는 키가 없다고 보고, 넘겨받은 행을 모두 저장된 것으로 돌려준다.
+    // 키 필터는 모든 키가 있을 수도 있다고 답해서 DB 조회를 그대로 거친다. 상점 id는 이름의 hashCode로 준다.
+    // 예전 행의 해시와 날짜 백필은 끝난 것으로 본다.
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionKeyBackfill.isComplete()).thenReturn(true);
+        lenient().when(transactionDateBackfill.isComplete()).thenReturn(true);
+        lenient().when(transactionBulkInserter.insertIgnoringDuplicates(anyList(), any()))
+                .thenAnswer(invocation -> new ArrayList<Transaction>(invocation.getArgument(0)));
+        lenient().when(knownKeyFilter.mightExist(anyLong(), anyList()))
+                .thenAnswer(invocation -> new ArrayList<Long>(invocation.getArgument(1)));
+        lenient().when(merchantDictionary.resolve(anyCollection())).thenAnswer(invocation -> {
+            Map<String, Integer> ids = new HashMap<>();
+            for (String merchant : invocation.<Collection<String>>getArgument(0)) ids.put(merchant, merchant.hashCode());
+            return ids;
+        });
+    }
+
     // ==========================================
     // 1. uploadAndParseExcel (엑셀 업로드)
     // ==========================================
@@ -65,10 +135,10 @@ class TransactionServiceTest {
         MockMultipartFile file = createMockExcelFile();
 
         given(userRepository.findById(userId)).willReturn(Optional.of(user));
-        given(transactionRepository.findExistingKeys(anyList())).willReturn(Collections.emptySet()); // 중복 없음
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Collections.emptySet()); // 중복 없음
         given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
         
-        // saveAll 호출 후, 결과 조회를 위한 Mock
+        // 저장 후, 결과 조회를 위한 Mock
         Transaction t = new Transaction(); t.setAmount(10000); t.setCategory("식비");
         given(transactionRepository.findByUserIdAndIsDeletedFalse(user.getId())).willReturn(List.of(t));
 
@@ -77,7 +147,321 @@ class TransactionServiceTest {
 
         // then
         assertThat(result).hasSize(1);
-        verify(transactionRepository).saveAll(anyList());
+        verify(transactionBulkInserter).insertIgnoringDuplicates(anyList(), eq(user));
+        verify(uploadDigestCache).record(eq(user), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("uploadAndParseExcel: (성공) 이미 가져온 파일과 다이제스트가 같으면 파싱과 중복 조회 없이 끝난다.")
+    void uploadAndParseExcel_DigestHit() throws Exception {
+        // given - 엑셀이 아닌 내용이라 파싱을 시도했다면 실패한다.
+        Long userId = 1L;
+        byte[] content = "already imported".getBytes();
+        MockMultipartFile file = new MockMultipartFile("file", "test.xls", "application/vnd.ms-excel", content);
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        UploadDigest previous = UploadDigest.builder().digest(digest).parsedCount(12).build();
+
+        given(uploadDigestCache.lookup(userId, digest)).willReturn(Optional.of(previous));
+        given(transactionRepository.findByUserIdAndIsDeletedFalse(userId)).willReturn(List.of());
+
+        // when
+        transactionService.uploadAndParseExcel(file, userId);
+
+        // then
+        verify(userRepository, never()).findById(anyLong());
+        verify(transactionRepository, never()).findExistingKeys(anyLong(), anyList(), any(), any());
+        verify(transactionBulkInserter, never()).insertIgnoringDuplicates(anyList(), any());
+        verify(uploadDigestCache, never()).record(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("uploadAndParseExcel: (성공) 여러 배치에 걸친 행이 파일 순서대로 저장되고, 파일 안의 중복 키는 한 번만 저장된다.")
+    void uploadAndParseExcel_BatchesInOrderAndDedupInFile() throws Exception {
+        // given - 배치 크기 2로 5행을 나누고, 마지막 행은 첫 행과 같은 키
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"},
+            new String[]{"2024.02.17", "상점C", "3000"},
+            new String[]{"2024.02.18", "상점D", "4000"},
+            new String[]{"2024.02.15", "상점A", "1000"});
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Collections.emptySet());
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+
+        // when
+        transactionService.uploadAndParseExcel(file, userId);
+
+        // then
+        verify(transactionBulkInserter, atLeastOnce()).insertIgnoringDuplicates(savedCaptor.capture(), eq(user));
+        List<String> merchants = savedCaptor.getAllValues().stream().flatMap(List::stream).map(Transaction::getMerchant).toList();
+        assertThat(merchants).containsExactly("상점A", "상점B", "상점C", "상점D");
+    }
+
+    @Test
+    @DisplayName("uploadAndParseExcel: (성공) 같은 출처의 워터마크 구간 안의 행은 DB에 묻지 않고 버리고, 출처별 워터마크가 앞으로 이동한다.")
+    void uploadAndParseExcel_WatermarkDropsCoveredRows() throws Exception {
+        // given - 같은 카드의 2/1 ~ 2/16 구간을 이미 가져왔고, 2/16에는 상점B 한 건만 들어와 있다.
+        // 다른 카드는 2월 전체를 가져왔지만 이 카드의 행을 가리지 않는다.
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        ImportWatermark watermark = new ImportWatermark(user, "KookminTransactionParser:카드");
+        watermark.advance(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 16), Set.of("2024.02.16_2000_상점B"));
+        ImportWatermark otherCard = new ImportWatermark(user, "KookminTransactionParser:다른카드");
+        otherCard.advance(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 28), Set.of());
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.15", "상점E", "5000"},
+            new String[]{"2024.02.16", "상점B", "2000"},
+            new String[]{"2024.02.16", "상점C", "3000"},
+            new String[]{"2024.02.17", "상점D", "4000"});
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(importWatermarkRepository.findAllByUserId(userId)).willReturn(List.of(watermark, otherCard));
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Set.of());
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+
+        // when
+        transactionService.uploadAndParseExcel(file, userId);
+
+        // then - 구간 안의 상점A, 상점E와 마지막 날짜에 이미 가져온 상점B는 DB에 묻지도 분류하지도 않는다.
+        verify(transactionRepository, atLeastOnce()).findExistingKeys(eq(userId), hashesCaptor.capture(), any(), any());
+        assertThat(hashesCaptor.getAllValues().stream().flatMap(List::stream).toList()).containsExactlyInAnyOrder(
+            Transaction.hashKey("2024.02.16_3000_상점C"), Transaction.hashKey("2024.02.17_4000_상점D"));
+        verify(transactionCategorizer, never()).getCategory(eq("상점A"), any());
+        verify(transactionCategorizer, never()).getCategory(eq("상점B"), any());
+        verify(transactionCategorizer, never()).getCategory(eq("상점E"), any());
+        verify(transactionBulkInserter, atLeastOnce()).insertIgnoringDuplicates(savedCaptor.capture(), eq(user));
+        assertThat(savedCaptor.getAllValues().stream().flatMap(List::stream).map(Transaction::getMerchant).toList())
+            .containsExactlyInAnyOrder("상점C", "상점D");
+        assertThat(savedCaptor.getAllValues().stream().flatMap(List::stream).map(Transaction::getCategory).toList())
+            .containsOnly("식비");
+        assertThat(watermark.getHighDate()).isEqualTo(LocalDate.of(2024, 2, 17));
+        assertThat(watermark.getBoundaryKeys()).containsExactly("2024.02.17_4000_상점D");
+        assertThat(otherCard.getHighDate()).isEqualTo(LocalDate.of(2024, 2, 28));
+        verify(importWatermarkRepository).save(watermark);
+        verify(importWatermarkRepository, never()).save(otherCard);
+    }
+
+    @Test
+    @DisplayName("uploadAndParseExcel: (성공) 압축으로 지워 툼스톤만 남은 행은 다시 올려도 저장하지 않고 중복으로 센다.")
+    void uploadAndParseExcel_TombstonedRowsStayDeleted() throws Exception {
+        // given
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"});
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Collections.emptySet());
+        given(transactionTombstones.findPurged(eq(userId), anyCollection()))
+            .willAnswer(invocation -> invocation.<Collection<Long>>getArgument(1).stream()
+                .filter(hash -> hash == Transaction.hashKey("2024.02.15_1000_상점A")).collect(Collectors.toSet()));
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+
+        // when
+        UploadResultDto result = transactionService.uploadStatement(file, userId);
+
+        // then
+        verify(transactionBulkInserter, atLeastOnce()).insertIgnoringDuplicates(savedCaptor.capture(), eq(user));
+        assertThat(savedCaptor.getAllValues().stream().flatMap(List::stream).map(Transaction::getMerchant).toList()).containsExactly("상점B");
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("uploadAndParseExcel: (성공) 해시 백필이 끝나기 전에는 기간으로 좁히지 않고 해시가 빈 예전 행을 키 문자열로도 찾는다.")
+    void uploadAndParseExcel_LegacyRowsBeforeBackfill() throws Exception {
+        // given - 상점A는 해시가 비어 있는 예전 행으로 저장되어 있다.
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"});
+
+        given(transactionKeyBackfill.isComplete()).willReturn(false);
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionRepository.findExistingKeysIncludingLegacy(eq(userId), anyList(), anyList()))
+            .willReturn(Set.of("2024.02.15_1000_상점A"));
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+
+        // when
+        UploadResultDto result = transactionService.uploadStatement(file, userId);
+
+        // then
+        verify(transactionRepository).findExistingKeysIncludingLegacy(eq(userId), anyList(), keysCaptor.capture());
+        assertThat(keysCaptor.getValue()).containsExactlyInAnyOrder("2024.02.15_1000_상점A", "2024.02.16_2000_상점B");
+        verify(transactionRepository, never()).findExistingKeys(anyLong(), anyList(), any(), any());
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("uploadStatement: (성공) 새로 들어간 행만 돌려주고, 건너뛴 건수와 올라간 데이터 버전을 함께 준다.")
+    void uploadStatement_ReturnsOnlyInsertedRows() throws Exception {
+        // given - 상점B는 이미 저장되어 있고, 상점C는 금액이 0이다.
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"},
+            new String[]{"2024.02.17", "상점C", "0"});
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Set.of("2024.02.16_2000_상점B"));
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+        given(userRepository.findLedgerVersion(userId)).willReturn(Optional.of(4L));
+
+        // when
+        UploadResultDto result = transactionService.uploadStatement(file, userId);
+
+        // then
+        assertThat(result.transactions()).extracting(TransactionDto::getMerchant).containsExactly("상점A");
+        assertThat(result.parsed()).isEqualTo(2);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(1);
+        assertThat(result.skippedZeroAmount()).isEqualTo(1);
+        assertThat(result.dataVersion()).isEqualTo(4L);
+        verify(userRepository).incrementLedgerVersion(userId);
+        verify(transactionRepository, never()).findByUserIdAndIsDeletedFalse(anyLong());
+    }
+
+    @Test
+    @DisplayName("uploadStatement: (성공) 키 필터가 확실히 없다고 한 키는 DB에 묻지 않고 저장한다.")
+    void uploadStatement_KeyFilterSkipsProbe() throws Exception {
+        // given
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"});
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(knownKeyFilter.mightExist(eq(userId), anyList())).willReturn(List.of());
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+
+        // when
+        UploadResultDto result = transactionService.uploadStatement(file, userId);
+
+        // then
+        assertThat(result.inserted()).isEqualTo(2);
+        verify(transactionRepository, never()).findExistingKeys(anyLong(), anyList(), any(), any());
+        verify(knownKeyFilter).add(eq(userId), eq(List.of(Transaction.hashKey("2024.02.15_1000_상점A"), Transaction.hashKey("2024.02.16_2000_상점B"))));
+    }
+
+    @Test
+    @DisplayName("uploadStatement: (성공) 과거 카테고리는 상점 id로 찾고, 같은 상점은 한 번만 분류한다.")
+    void uploadStatement_CategorizesOncePerMerchant() throws Exception {
+        // given - 상점A가 세 번 나오고, 상점A의 과거 카테고리는 카페다.
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점A", "2000"},
+            new String[]{"2024.02.17", "상점A", "3000"},
+            new String[]{"2024.02.17", "상점B", "4000"});
+        int merchantA = "상점A".hashCode();
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Collections.emptySet());
+        Set<Thread> lookupThreads = ConcurrentHashMap.newKeySet();
+        given(transactionRepository.findLatestCategoriesByMerchantIds(anyLong(), anyList())).willAnswer(invocation -> {
+            lookupThreads.add(Thread.currentThread());
+            return List.of(new MerchantCategoryDto(merchantA, "카페"));
+        });
+        given(transactionCategorizer.getCategory("상점A", Optional.empty())).willReturn("기타");
+        given(transactionCategorizer.getCategory("상점A", Optional.of("카페"))).willReturn("카페");
+        given(transactionCategorizer.getCategory("상점B", Optional.empty())).willReturn("기타");
+
+        // when
+        transactionService.uploadStatement(file, userId);
+
+        // then - 키워드 후보는 분류 워커에서, 과거 카테고리 반영은 저장 스레드에서 상점마다 한 번씩 한다.
+        verify(transactionCategorizer, times(1)).getCategory("상점A", Optional.empty());
+        verify(transactionCategorizer, times(1)).getCategory("상점A", Optional.of("카페"));
+        verify(transactionBulkInserter, atLeastOnce()).insertIgnoringDuplicates(savedCaptor.capture(), eq(user));
+        List<Transaction> saved = savedCaptor.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(saved).extracting(Transaction::getCategory).containsExactly("카페", "카페", "카페", "기타");
+        assertThat(saved).extracting(Transaction::getMerchantId).containsOnly(merchantA, "상점B".hashCode());
+        // 과거 카테고리 조회는 분류 워커가 아니라 호출한 스레드(트랜잭션을 가진 스레드)에서 한다.
+        assertThat(lookupThreads).containsOnly(Thread.currentThread());
+        verify(transactionRepository, atLeastOnce()).findLatestCategoriesByMerchantIds(eq(userId), anyList());
+    }
+
+    @Test
+    @DisplayName("uploadStatement: (성공) 스테이징 방식이면 IN 목록 조회 없이 스테이징 테이블로 중복 제거, 분류, 저장을 한다.")
+    void uploadStatement_StagedImport() throws Exception {
+        // given - 파일 안에서 상점A가 두 번 나오고, 스테이징 후 상점B는 이미 저장된 키로 지워진다.
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile file = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"},
+            new String[]{"2024.02.15", "상점A", "1000"});
+        Transaction stored = Transaction.builder().id(10L).transactionKey("2024.02.15_1000_상점A").merchant("상점A").category("식비").status(PaymentStatus.completed).build();
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionImportStage.isEnabled()).willReturn(true);
+        given(transactionImportStage.stage(anyString(), anyLong(), anyList())).willReturn(2);
+        given(transactionImportStage.findHistoryCategories(anyString(), eq(user))).willReturn(Map.of("상점A", "식비"));
+        given(transactionImportStage.findMerchants(anyString())).willReturn(List.of("상점A"));
+        given(transactionCategorizer.getCategory("상점A", Optional.of("식비"))).willReturn("식비");
+        given(transactionImportStage.insertNew(anyString(), eq(user))).willReturn(List.of(stored));
+
+        // when
+        UploadResultDto result = transactionService.uploadStatement(file, userId);
+
+        // then
+        assertThat(result.transactions()).extracting(TransactionDto::getId).containsExactly(10L);
+        assertThat(result.parsed()).isEqualTo(3);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(2);
+        ArgumentCaptor<String> importId = ArgumentCaptor.forClass(String.class);
+        verify(transactionImportStage).applyCategories(importId.capture(), eq(Map.of("상점A", "식비")));
+        verify(transactionImportStage).clear(importId.getValue());
+        verify(transactionRepository, never()).findExistingKeys(anyLong(), anyList(), any(), any());
+        verify(transactionRepository, never()).findLatestCategoriesByMerchantIds(anyLong(), anyList());
+        verify(transactionBulkInserter, never()).insertIgnoringDuplicates(anyList(), any());
+    }
+
+    @Test
+    @DisplayName("uploadStatementBatch: (성공) ZIP 항목과 일반 파일을 함께 파싱해 한 번에 중복 제거하고, 파일별 결과를 돌려준다.")
+    void uploadStatementBatch_MergesFilesAndReportsPerFile() throws Exception {
+        // given - 카드 두 장의 명세서가 같은 거래(상점B) 하나를 공유하고, ZIP 안에 명세서가 아닌 PDF가 하나 있다.
+        Long userId = 1L;
+        User user = new User("test@test.com"); user.setId(1L);
+        MockMultipartFile cardA = createMockExcelFile(
+            new String[]{"2024.02.15", "상점A", "1000"},
+            new String[]{"2024.02.16", "상점B", "2000"});
+        MockMultipartFile cardB = createMockExcelFile(
+            new String[]{"2024.02.16", "상점B", "2000"},
+            new String[]{"2024.02.17", "상점C", "3000"});
+        MockMultipartFile zip = createZip(Map.of("cards/cardA.xls", cardA.getBytes(), "memo.pdf", "%PDF-1.4 memo".getBytes()));
+        MockMultipartFile plain = new MockMultipartFile("files", "cardB.xls", "application/vnd.ms-excel", cardB.getBytes());
+
+        given(userRepository.findById(userId)).willReturn(Optional.of(user));
+        given(transactionRepository.findExistingKeys(anyLong(), anyList(), any(), any())).willReturn(Collections.emptySet());
+        given(transactionCategorizer.getCategory(any(), any())).willReturn("식비");
+        given(userRepository.findLedgerVersion(userId)).willReturn(Optional.of(1L));
+
+        // when
+        BatchUploadDto.Response result = transactionService.uploadStatementBatch(List.of(zip, plain), userId);
+
+        // then
+        assertThat(result.transactions()).extracting(TransactionDto::getMerchant).containsExactly("상점A", "상점B", "상점C");
+        assertThat(result.files()).extracting(BatchUploadDto.FileResult::fileName).containsExactlyInAnyOrder("cards/cardA.xls", "memo.pdf", "cardB.xls");
+        BatchUploadDto.FileResult memo = result.files().stream().filter(f -> f.fileName().equals("memo.pdf")).findFirst().orElseThrow();
+        BatchUploadDto.FileResult second = result.files().stream().filter(f -> f.fileName().equals("cardB.xls")).findFirst().orElseThrow();
+        assertThat(memo.status()).isEqualTo(FileStatus.failed);
+        assertThat(second.status()).isEqualTo(FileStatus.imported);
+        assertThat(second.inserted()).isEqualTo(1);
+        assertThat(second.duplicates()).isEqualTo(1);
+        assertThat(result.inserted()).isEqualTo(3);
+        verify(uploadDigestCache, times(2)).record(eq(user), anyString(), any());
+        verify(userRepository).incrementLedgerVersion(userId);
     }
 
     @Test
@@ -152,6 +536,7 @@ class TransactionServiceTest {
         Long id = 1L;
         int newAmount = 50000;
         Transaction mockTx = new Transaction();
+        mockTx.setUser(owner(7L));
         given(transactionRepository.findById(id)).willReturn(Optional.of(mockTx));
 
         // when
@@ -159,6 +544,7 @@ class TransactionServiceTest {
 
         // then
         assertThat(mockTx.getAmount()).isEqualTo(newAmount);
+        verify(userRepository).incrementLedgerVersion(7L);
     }
 
     @Test
@@ -183,6 +569,7 @@ class TransactionServiceTest {
         Long id = 1L;
         Transaction mockTx = new Transaction();
         mockTx.setIsDeleted(false);
+        mockTx.setUser(owner(7L));
         given(transactionRepository.findById(id)).willReturn(Optional.of(mockTx));
 
         // when
@@ -190,7 +577,9 @@ class TransactionServiceTest {
 
         // then
         assertThat(mockTx.getIsDeleted()).isTrue();
+        assertThat(mockTx.getDeletedAt()).isNotNull();
         verify(transactionRepository, never()).deleteById(anyLong()); // 하드 삭제 호출 안됨 확인
+        verify(userRepository).incrementLedgerVersion(7L);
     }
 
     @Test
@@ -212,6 +601,7 @@ class TransactionServiceTest {
         String newCat = "교통";
         Transaction mockTx = new Transaction();
         mockTx.setCategory("기타");
+        mockTx.setUser(owner(7L));
         given(transactionRepository.findById(id)).willReturn(Optional.of(mockTx));
 
         // when
@@ -220,6 +610,7 @@ class TransactionServiceTest {
         // then
         assertThat(mockTx.getCategory()).isEqualTo(newCat);
         assertThat(result.getCategory()).isEqualTo(newCat);
+        verify(userRepository).incrementLedgerVersion(7L);
     }
 
     @Test
@@ -230,35 +621,66 @@ class TransactionServiceTest {
     }
 
     // ==========================================
-    // 6. clearTransactions (전체 삭제)
+    // 6. bulkEdit (일괄 수정)
     // ==========================================
 
     @Test
-    @DisplayName("clearTransactions: (성공) 사용자의 모든 거래 내역을 삭제해야 한다.")
-    void clearTransactions_Success() throws Exception {
-        // given
-        Long userId = 10L;
-        String email = "user@test.com";
-        User user = new User(email); user.setId(10L);
+    @DisplayName("bulkEdit: 같은 값으로 바꾸는 항목은 한 번의 UPDATE로 묶고, 항목마다 결과를 요청 순서대로 돌려준다.")
+    void bulkEdit_GroupsByTargetValue() {
+        // given - 1, 2, 3은 사용자의 행이고 9는 없는 행이다.
+        Long userId = 1L;
+        List<BulkEditDto.Operation> operations = List.of(
+            new BulkEditDto.Operation(1L, "교통", null, null),
+            new BulkEditDto.Operation(2L, "교통", 3000, null),
+            new BulkEditDto.Operation(3L, "식비", null, true),
+            new BulkEditDto.Operation(9L, "교통", null, null),
+            new BulkEditDto.Operation(1L, "식비", null, null),
+            new BulkEditDto.Operation(4L, null, null, null));
+        given(transactionRepository.findLiveIds(eq(userId), any())).willReturn(Set.of(1L, 2L, 3L));
+        given(transactionRepository.findAllByUserIdAndIdIn(eq(userId), any())).willReturn(List.of(
+            Transaction.builder().id(1L).category("교통").amount(1000).build(),
+            Transaction.builder().id(2L).category("교통").amount(3000).build()));
 
         // when
-        transactionService.clearTransactions(userId);
+        BulkEditDto.Response response = transactionService.bulkEdit(operations, userId);
 
         // then
-        verify(transactionRepository).deleteByUserId(user.getId());
+        verify(transactionRepository).updateCategory(eq(userId), argThat(ids -> new HashSet<>(ids).equals(Set.of(1L, 2L))), eq("교통"));
+        verify(transactionRepository).updateAmount(eq(userId), eq(List.of(2L)), eq(3000));
+        verify(transactionRepository).softDelete(eq(userId), eq(List.of(3L)), any());
+        verify(transactionRepository, never()).findById(anyLong());
+        verify(userRepository).incrementLedgerVersion(userId);
+        assertThat(response.results()).extracting(BulkEditDto.ItemResult::status).containsExactly(
+            ItemStatus.updated, ItemStatus.updated, ItemStatus.deleted, ItemStatus.not_found, ItemStatus.invalid, ItemStatus.invalid);
+        assertThat(response.results().get(1).transaction().getAmount()).isEqualTo(3000);
+        assertThat(response.updated()).isEqualTo(2);
+        assertThat(response.deleted()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(3);
     }
 
     @Test
-    @DisplayName("clearTransactions: (실패) 사용자 정보가 없으면 예외가 발생해야 한다.")
-    void clearTransactions_UserNotFound() {
-        Long invalidUserId = 999L;
+    @DisplayName("bulkEdit: 적용된 항목이 없으면 데이터 버전을 올리지 않는다.")
+    void bulkEdit_NothingAppliedKeepsVersion() {
+        // given
+        given(transactionRepository.findLiveIds(eq(1L), any())).willReturn(Set.of());
 
-        // When & Then
-        // 1. 에러가 터지지 않고 부드럽게 넘어가는지 팩트 체크
-        assertDoesNotThrow(() -> transactionService.clearTransactions(invalidUserId));
-        
-        // 2. (선택적 꼼꼼함) 실제로 repository의 삭제 메서드가 1번 호출되긴 했는지 Mockito로 검증
-        verify(transactionRepository, times(1)).deleteByUserId(invalidUserId);
+        // when
+        BulkEditDto.Response response = transactionService.bulkEdit(List.of(new BulkEditDto.Operation(9L, "교통", null, null)), 1L);
+
+        // then
+        assertThat(response.results()).extracting(BulkEditDto.ItemResult::status).containsExactly(ItemStatus.not_found);
+        verify(userRepository, never()).incrementLedgerVersion(anyLong());
+    }
+
+    @Test
+    @DisplayName("bulkEdit: (실패) 항목이 없거나 한도를 넘으면 예외가 발생해야 한다.")
+    void bulkEdit_RejectsEmptyOrOversized() {
+        List<BulkEditDto.Operation> tooMany = new ArrayList<>();
+        for (long i = 0; i < 501; i++) tooMany.add(new BulkEditDto.Operation(i, "식비", null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.bulkEdit(List.of(), 1L));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.bulkEdit(tooMany, 1L));
+        verifyNoInteractions(transactionRepository);
     }
 
     // ==========================================
@@ -374,6 +796,44 @@ class TransactionServiceTest {
 
 
     // --- Helper Method ---
+    private MockMultipartFile createZip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            for (Map.Entry<String, byte[]> entry : new TreeMap<>(entries).entrySet()) {
+                zos.putNextEntry(new ZipEntry(entry.getKey()));
+                zos.write(entry.getValue());
+                zos.closeEntry();
+            }
+        }
+        return new MockMultipartFile("files", "statements.zip", "application/zip", bos.toByteArray());
+    }
+
+    private User owner(Long id) {
+        User user = new User("owner@test.com");
+        user.setId(id);
+        return user;
+    }
+
+    private MockMultipartFile createMockExcelFile(String[]... rows) throws IOException {
+        try (Workbook workbook = new HSSFWorkbook();
+             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 5; i++) sheet.createRow(i);
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(5 + i);
+                row.createCell(0).setCellValue(rows[i][0]);
+                row.createCell(2).setCellValue(rows[i][1]);
+                row.createCell(4).setCellValue(rows[i][2]);
+                row.createCell(7).setCellValue("카드");
+            }
+            sheet.createRow(5 + rows.length);
+            workbook.write(bos);
+
+            return new MockMultipartFile("file", "test.xls", "application/vnd.ms-excel", bos.toByteArray());
+        }
+    }
+
     private MockMultipartFile createMockExcelFile() throws IOException {
         try (Workbook workbook = new HSSFWorkbook();
              ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
@@ -0,0 +1,81 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Component.UploadDigestCache;
+import com.suhyun444.lifehub.card.Entity.UploadDigest;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.UploadDigestRepository;
+import com.suhyun444.lifehub.card.Upload.UploadProgress;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UploadDigestCacheTest {
+
+    @Mock private UploadDigestRepository uploadDigestRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UploadDigestCache uploadDigestCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        uploadDigestCache = new UploadDigestCache(uploadDigestRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("lookup: 적중하면 적중 횟수와 건너뛴 행 수를 올린다.")
+    void lookup_Hit() {
+        // given
+        UploadDigest digest = UploadDigest.builder().digest("abc").parsedCount(40).build();
+        given(uploadDigestRepository.findByUserIdAndDigest(1L, "abc")).willReturn(Optional.of(digest));
+
+        // when
+        Optional<UploadDigest> result = uploadDigestCache.lookup(1L, "abc");
+
+        // then
+        assertThat(result).containsSame(digest);
+        assertThat(digest.getHitCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("upload.digest.lookups").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("upload.digest.skipped.rows").counter().count()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("lookup: 처음 보는 파일이면 miss로 센다.")
+    void lookup_Miss() {
+        given(uploadDigestRepository.findByUserIdAndDigest(1L, "abc")).willReturn(Optional.empty());
+
+        assertThat(uploadDigestCache.lookup(1L, "abc")).isEmpty();
+        assertThat(meterRegistry.get("upload.digest.lookups").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("record: 업로드 결과 카운터를 upsert로 함께 저장한다.")
+    void record_SavesOutcome() {
+        // given
+        User user = new User("test@test.com"); user.setId(1L);
+        UploadProgress progress = new UploadProgress();
+        progress.addParsed(10);
+        progress.addInserted(7);
+        progress.addDuplicates(3);
+
+        // when
+        uploadDigestCache.record(user, "abc", progress);
+
+        // then
+        verify(uploadDigestRepository).upsert(eq(1L), eq("abc"), eq(10), eq(7), eq(3), any());
+    }
+}
@@ -0,0 +1,53 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.UploadDigest;
+import com.suhyun444.lifehub.card.Entity.User;
+import com.suhyun444.lifehub.card.Repository.CategoryCodes;
+import com.suhyun444.lifehub.card.Repository.PaymentMethodCodes;
+import com.suhyun444.lifehub.card.Repository.UploadDigestRepository;
+import com.suhyun444.lifehub.User.UserRepository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:uploaddigest;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CategoryCodes.class, PaymentMethodCodes.class})
+class UploadDigestRepositoryTest {
+
+    @Autowired private UploadDigestRepository uploadDigestRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("upsert: 같은 파일을 두 번 기록해도 유일 키 위반 없이 먼저 기록한 결과를 남긴다.")
+    void upsert_KeepsFirstRecord() {
+        // given
+        User user = userRepository.save(new User("digest@test.com"));
+
+        // when
+        uploadDigestRepository.upsert(user.getId(), "abc", 10, 7, 3, LocalDateTime.now());
+        uploadDigestRepository.upsert(user.getId(), "abc", 10, 0, 10, LocalDateTime.now());
+
+        // then
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM upload_digest WHERE user_id = ? AND digest = 'abc'", Integer.class, user.getId())).isEqualTo(1);
+        UploadDigest stored = uploadDigestRepository.findByUserIdAndDigest(user.getId(), "abc").orElseThrow();
+        assertThat(stored.getInsertedCount()).isEqualTo(7);
+        assertThat(stored.getCreatedAt()).isNotNull();
+    }
+}
@@ -0,0 +1,111 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.DTO.UploadJobDto;
+import com.suhyun444.lifehub.card.DTO.UploadJobStatus;
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+import com.suhyun444.lifehub.card.Upload.UploadProgress;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class UploadJobServiceTest {
+
+    @Mock private TransactionService transactionService;
+
+    private UploadJobService uploadJobService;
+
+    @BeforeEach
+    void setUp() {
+        uploadJobService = new UploadJobService(transactionService, new UploadLimits(20L << 20, 100L << 20, 100, 100_000), 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadJobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("submit: 작업이 끝나면 진행 카운터와 completed 상태를 조회할 수 있다.")
+    void submit_CompletesWithProgress() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            UploadProgress progress = invocation.getArgument(2);
+            progress.addParsed(5);
+            progress.addInserted(3);
+            progress.addDuplicates(2);
+            return null;
+        }).when(transactionService).importStatement(any(SpooledUpload.class), eq(1L), any(UploadProgress.class), any());
+
+        // when
+        UploadJobDto submitted = uploadJobService.submit(file(), 1L);
+
+        // then
+        UploadJobDto finished = awaitFinished(submitted.jobId(), 1L);
+        assertThat(finished.status()).isEqualTo(UploadJobStatus.completed);
+        assertThat(finished.parsed()).isEqualTo(5);
+        assertThat(finished.inserted()).isEqualTo(3);
+        assertThat(finished.duplicates()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("submit: 잘못된 파일로 실패한 작업은 failed 상태와 원인 메시지를 남긴다.")
+    void submit_FailedJobKeepsMessage() throws Exception {
+        // given
+        doThrow(new IllegalArgumentException("Unsupported file format"))
+            .when(transactionService).importStatement(any(), any(), any(), any());
+
+        // when
+        UploadJobDto submitted = uploadJobService.submit(file(), 1L);
+
+        // then
+        UploadJobDto finished = awaitFinished(submitted.jobId(), 1L);
+        assertThat(finished.status()).isEqualTo(UploadJobStatus.failed);
+        assertThat(finished.message()).isEqualTo("Unsupported file format");
+    }
+
+    @Test
+    @DisplayName("getJob: 다른 사용자의 작업은 조회되지 않는다.")
+    void getJob_OtherUser() throws Exception {
+        UploadJobDto submitted = uploadJobService.submit(file(), 1L);
+
+        assertThat(uploadJobService.getJob(submitted.jobId(), 2L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("submit: 빈 파일은 작업을 만들지 않고 예외를 던진다.")
+    void submit_EmptyFile() {
+        assertThrows(IllegalArgumentException.class, () ->
+            uploadJobService.submit(new MockMultipartFile("file", new byte[0]), 1L));
+    }
+
+    private UploadJobDto awaitFinished(String jobId, Long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            UploadJobDto job = uploadJobService.getJob(jobId, userId).orElseThrow();
+            if (job.status() == UploadJobStatus.completed || job.status() == UploadJobStatus.failed) return job;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("upload job did not finish");
+    }
+
+    private MockMultipartFile file() {
+        return new MockMultipartFile("file", "test.xlsx", "application/octet-stream", new byte[]{1, 2, 3});
+    }
+}
@@ -0,0 +1,104 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.StatementReader;
+import com.suhyun444.lifehub.card.Parser.StatementRow;
+import com.suhyun444.lifehub.card.Parser.StatementRowHandler;
+import com.suhyun444.lifehub.card.Upload.UploadLimitExceededException;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadLimitsTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ZipSecureFile 설정은 전역이라 다른 테스트에 남지 않도록 기본값으로 되돌린다.
+    @AfterEach
+    void tearDown() {
+        new UploadLimits(20L << 20, 100L << 20, 100, 100_000);
+    }
+
+    @Test
+    @DisplayName("spool: 제한보다 큰 파일은 스풀하지 않고 거절한다.")
+    void spool_RejectsLargeFile() throws IOException {
+        UploadLimits limits = new UploadLimits(1024, 100L << 20, 100, 100_000);
+
+        assertThatThrownBy(() -> limits.spool(new MockMultipartFile("file", "a.xls", null, new byte[2048])))
+            .isInstanceOf(UploadLimitExceededException.class);
+        try (var upload = limits.spool(new MockMultipartFile("file", "a.xls", null, new byte[1024]))) {
+            assertThat(upload.getSize()).isEqualTo(1024);
+        }
+    }
+
+    @Test
+    @DisplayName("limitRows: 최대 행 수를 넘는 순간 읽기를 멈춘다.")
+    void limitRows_StopsAtMaxRows() {
+        UploadLimits limits = new UploadLimits(1024, 100L << 20, 100, 3);
+        int[] handled = {0};
+        StatementRowHandler handler = limits.limitRows(row -> handled[0]++);
+        StatementRow row = new StatementRow();
+
+        for (int i = 0; i < 3; i++) handler.handleRow(row);
+        assertThatThrownBy(() -> handler.handleRow(row)).isInstanceOf(UploadLimitExceededException.class);
+        assertThat(handled[0]).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("read: 시트가 압축 해제 한도를 넘는 xlsx는 POI가 풀다가 멈추고 업로드 제한 위반으로 바뀐다.")
+    void read_XlsxInflatesPastLimit() throws IOException {
+        // given - 한도 64KB, 시트 XML은 그보다 훨씬 크다.
+        new UploadLimits(20L << 20, 64 * 1024, 100, 100_000);
+        Path file = tempDir.resolve("big.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream os = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 5000; i++) {
+                Row row = sheet.createRow(i);
+                for (int c = 0; c < 8; c++) row.createCell(c).setCellValue(i * 8 + c);
+            }
+            workbook.write(os);
+        }
+
+        // when & then
+        assertThatThrownBy(() -> new StatementReader().read(file.toFile(), new KookminTransactionParser().newRowHandler(t -> {})))
+            .isInstanceOf(UploadLimitExceededException.class);
+    }
+
+    @Test
+    @DisplayName("spoolBatch: ZIP 항목이 압축률 한도를 넘게 풀리면 거절한다.")
+    void spoolBatch_RejectsArchiveBomb() throws IOException {
+        // given - 1MB짜리 0바이트 항목은 1KB 남짓으로 압축된다. 허용 비율은 10배다.
+        UploadLimits limits = new UploadLimits(20L << 20, 100L << 20, 10, 100_000);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            zos.putNextEntry(new ZipEntry("bomb.csv"));
+            zos.write(new byte[1 << 20]);
+            zos.closeEntry();
+        }
+        MockMultipartFile archive = new MockMultipartFile("files", "statements.zip", "application/zip", bos.toByteArray());
+
+        // when & then
+        assertThatThrownBy(() -> limits.spoolBatch(List.of(archive), 20))
+            .isInstanceOf(UploadLimitExceededException.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Upload.UploadPipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UploadPipelineTest {
+
+    private final UploadPipeline pipeline = new UploadPipeline(10, 2, 3);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    @DisplayName("run: 분류 워커가 순서 없이 끝나도 저장 단계는 파싱 순서대로 받는다.")
+    void run_PreservesOrder() throws Exception {
+        List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+
+        pipeline.run(
+            sink -> { for (int i = 0; i < 95; i++) sink.accept(transaction("k" + i)); },
+            batch -> Thread.sleep(ThreadLocalRandom.current().nextInt(5)),
+            batch -> batch.forEach(t -> inserted.add(t.getTransactionKey())));
+
+        assertThat(inserted).hasSize(95);
+        for (int i = 0; i < 95; i++) assertThat(inserted.get(i)).isEqualTo("k" + i);
+    }
+
+    @Test
+    @DisplayName("run: 저장 단계가 느리면 파서는 큐 크기 이상 앞서가지 않는다.")
+    void run_Backpressure() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger maxLead = new AtomicInteger();
+
+        pipeline.run(
+            sink -> {
+                for (int i = 0; i < 1000; i++) {
+                    sink.accept(transaction("k" + i));
+                    int lead = produced.incrementAndGet() - consumed.get();
+                    maxLead.accumulateAndGet(lead, Math::max);
+                }
+            },
+            batch -> {},
+            batch -> {
+                Thread.sleep(2);
+                consumed.addAndGet(batch.size());
+            });
+
+        // 큐 2개(각 2배치), 워커 3개, 파서가 쥔 배치, 저장 중인 배치, 순서 대기 배치를 합쳐도 20배치를 넘지 않는다.
+        assertThat(consumed.get()).isEqualTo(1000);
+        assertThat(maxLead.get()).isLessThanOrEqualTo(10 * 20);
+    }
+
+    @Test
+    @DisplayName("run: 파싱 단계의 예외는 원래 타입 그대로 호출자에게 전달된다.")
+    void run_PropagatesSourceFailure() {
+        assertThrows(IllegalArgumentException.class, () -> pipeline.run(
+            sink -> { throw new IllegalArgumentException("bad file"); },
+            batch -> {},
+            batch -> {}));
+    }
+
+    @Test
+    @DisplayName("run: 저장 단계가 실패하면 나머지 단계를 멈추고 예외를 던진다.")
+    void run_PropagatesInsertFailure() {
+        assertThatThrownBy(() -> pipeline.run(
+            sink -> { for (int i = 0; i < 10_000; i++) sink.accept(transaction("k" + i)); },
+            batch -> {},
+            batch -> { throw new IllegalStateException("db down"); }))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("db down");
+    }
+
+    private Transaction transaction(String key) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionKey(key);
+        return transaction;
+    }
+}
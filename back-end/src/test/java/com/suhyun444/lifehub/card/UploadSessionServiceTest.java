@@ -0,0 +1,170 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.DTO.UploadResultDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionCreateDto;
+import com.suhyun444.lifehub.card.DTO.UploadSessionDto;
+import com.suhyun444.lifehub.card.Upload.SpooledUpload;
+import com.suhyun444.lifehub.card.Upload.UploadLimitExceededException;
+import com.suhyun444.lifehub.card.Upload.UploadLimits;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class UploadSessionServiceTest {
+
+    private final byte[] content = "2024.02.14,멋진상점,10000\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+    private TransactionService transactionService;
+    private UploadSessionService service;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        service = new UploadSessionService(transactionService, new UploadLimits(1L << 20, 100L << 20, 100, 100_000), 2, 120);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        new UploadLimits(20L << 20, 100L << 20, 100, 100_000);
+    }
+
+    @Test
+    @DisplayName("appendChunk: 끊긴 뒤 겹쳐서 다시 보낸 조각은 새 바이트만 붙이고, 완료하면 원본과 같은 파일을 가져온다.")
+    void appendChunk_ResumeAndComplete() throws Exception {
+        // given
+        UploadSessionDto session = service.create(new UploadSessionCreateDto("statement.csv", content.length, sha256(content)), 1L);
+        ArgumentCaptor<SpooledUpload> captor = ArgumentCaptor.forClass(SpooledUpload.class);
+        byte[][] seen = new byte[1][];
+        given(transactionService.importUpload(captor.capture(), eq(1L))).willAnswer(invocation -> {
+            seen[0] = Files.readAllBytes(captor.getValue().getPath());
+            return new UploadResultDto(List.of(), 200, 1, 199, 0, false, 1L);
+        });
+
+        // when - 첫 조각 뒤 같은 구간을 포함해서 다시 보낸다.
+        service.appendChunk(session.sessionId(), 1L, 0, chunk(0, 1000), null);
+        long offset = service.appendChunk(session.sessionId(), 1L, 500, chunk(500, 3000), sha256(Arrays.copyOfRange(content, 500, 3000))).orElseThrow().offset();
+        service.appendChunk(session.sessionId(), 1L, offset, chunk((int) offset, content.length), null);
+        UploadResultDto result = service.complete(session.sessionId(), 1L).orElseThrow();
+
+        // then
+        assertThat(offset).isEqualTo(3000);
+        assertThat(seen[0]).isEqualTo(content);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(Files.exists(captor.getValue().getPath())).isFalse();
+        assertThat(service.getSession(session.sessionId(), 1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("appendChunk: 건너뛴 위치나 음수 위치의 조각과 체크섬이 틀린 조각은 거부하고 받은 위치를 그대로 둔다.")
+    void appendChunk_RejectsGapAndBadChecksum() throws Exception {
+        // given
+        UploadSessionDto session = service.create(new UploadSessionCreateDto("statement.csv", content.length, sha256(content)), 1L);
+        service.appendChunk(session.sessionId(), 1L, 0, chunk(0, 1000), null);
+
+        // when & then
+        assertThatThrownBy(() -> service.appendChunk(session.sessionId(), 1L, 2000, chunk(2000, 3000), null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.appendChunk(session.sessionId(), 1L, -1, chunk(0, 1000), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.appendChunk(session.sessionId(), 1L, 1000, chunk(1000, 2000), "0".repeat(64)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.complete(session.sessionId(), 1L))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(service.getSession(session.sessionId(), 1L).orElseThrow().offset()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("complete: 다 받은 파일의 SHA-256이 선언과 다르면 가져오지 않는다.")
+    void complete_RejectsDigestMismatch() throws Exception {
+        // given
+        UploadSessionDto session = service.create(new UploadSessionCreateDto("statement.csv", content.length, "0".repeat(64)), 1L);
+        service.appendChunk(session.sessionId(), 1L, 0, chunk(0, content.length), null);
+
+        // when & then
+        assertThatThrownBy(() -> service.complete(session.sessionId(), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("File checksum does not match");
+        assertThat(service.getSession(session.sessionId(), 1L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("complete: 가져오기가 거부되면 세션과 파일을 남겨두어 같은 세션으로 다시 완료할 수 있다.")
+    void complete_RetryAfterRejectedImport() throws Exception {
+        // given
+        UploadSessionDto session = service.create(new UploadSessionCreateDto("statement.csv", content.length, sha256(content)), 1L);
+        service.appendChunk(session.sessionId(), 1L, 0, chunk(0, content.length), null);
+        ArgumentCaptor<SpooledUpload> captor = ArgumentCaptor.forClass(SpooledUpload.class);
+        given(transactionService.importUpload(captor.capture(), eq(1L)))
+                .willThrow(new RejectedExecutionException("Too many uploads are being parsed"))
+                .willReturn(new UploadResultDto(List.of(), 200, 1, 199, 0, false, 1L));
+
+        // when
+        assertThatThrownBy(() -> service.complete(session.sessionId(), 1L))
+                .isInstanceOf(RejectedExecutionException.class);
+        boolean keptAfterFailure = Files.exists(captor.getValue().getPath());
+        UploadResultDto result = service.complete(session.sessionId(), 1L).orElseThrow();
+
+        // then
+        assertThat(keptAfterFailure).isTrue();
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(Files.exists(captor.getValue().getPath())).isFalse();
+        assertThat(service.getSession(session.sessionId(), 1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("create: 업로드 한도를 넘는 크기는 413 예외로 거부하고, 다른 사용자는 세션을 볼 수 없다.")
+    void create_LimitAndOwnership() throws Exception {
+        // when & then
+        assertThatThrownBy(() -> service.create(new UploadSessionCreateDto("big.xlsx", 2L << 20, "0".repeat(64)), 1L))
+                .isInstanceOf(UploadLimitExceededException.class);
+
+        UploadSessionDto session = service.create(new UploadSessionCreateDto("statement.csv", content.length, sha256(content)), 1L);
+        assertThat(service.getSession(session.sessionId(), 2L)).isEmpty();
+        assertThat(service.appendChunk(session.sessionId(), 2L, 0, chunk(0, 10), null)).isEmpty();
+        assertThat(service.cancel(session.sessionId(), 1L)).isTrue();
+        assertThat(service.getSession(session.sessionId(), 1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("create: 사용자마다 열린 세션 수를 넘으면 거부하고, 세션을 닫으면 다시 열 수 있다.")
+    void create_LimitsOpenSessionsPerUser() throws Exception {
+        // given
+        UploadSessionCreateDto request = new UploadSessionCreateDto("statement.csv", content.length, sha256(content));
+        UploadSessionDto first = service.create(request, 1L);
+        service.create(request, 1L);
+
+        // when & then
+        assertThatThrownBy(() -> service.create(request, 1L))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(service.create(request, 2L)).isNotNull();
+        service.cancel(first.sessionId(), 1L);
+        assertThat(service.create(request, 1L)).isNotNull();
+    }
+
+    private ByteArrayInputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(content, from, to));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
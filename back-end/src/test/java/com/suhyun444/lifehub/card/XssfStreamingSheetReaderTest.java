@@ -0,0 +1,91 @@
+package com.suhyun444.lifehub.card;
+
+import com.suhyun444.lifehub.card.Entity.Transaction;
+import com.suhyun444.lifehub.card.Parser.KookminTransactionParser;
+import com.suhyun444.lifehub.card.Parser.XssfStreamingSheetReader;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XssfStreamingSheetReaderTest {
+
+    private final KookminTransactionParser parser = new KookminTransactionParser();
+    private final XssfStreamingSheetReader reader = new XssfStreamingSheetReader();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("read: 스트리밍 결과가 Workbook 기반 parse 결과와 같아야 한다.")
+    void read_SameRowsAsSheetParser() throws IOException {
+        // given - KookminTransactionParserTest와 같은 픽스처에 0원 행과 숫자형 금액을 섞는다.
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 5; i++) sheet.createRow(i);
+            dataRow(sheet, 5, "2024.02.14 12:00:00", "멋진상점", "10,000", "체크카드");
+            dataRow(sheet, 6, "2024.02.14", "취소건", "0", "카드");
+            dataRow(sheet, 7, "2024.02.14", "스타벅스 동백점", "5,000", "카드");
+            Row numeric = sheet.createRow(9);
+            numeric.createCell(0).setCellValue("2024.02.15");
+            numeric.createCell(2).setCellValue("테스트상점");
+            numeric.createCell(4).setCellValue(12000);
+            numeric.createCell(7).setCellValue("카드");
+            sheet.createRow(10).createCell(4).setCellValue("합계");
+
+            List<Transaction> expected = parser.parse(sheet);
+
+            // when
+            List<Transaction> streamed = stream(workbook);
+
+            // then
+            assertThat(streamed).hasSize(3);
+            assertThat(streamed).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+            assertThat(streamed.get(1).getTransactionKey()).isEqualTo("2024.02.14_5000_스타벅스동백점");
+            assertThat(streamed.get(2).getAmount()).isEqualTo(12000);
+        }
+    }
+
+    @Test
+    @DisplayName("read: 헤더만 있는 시트는 빈 결과를 낸다.")
+    void read_HeaderOnly() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 5; i++) sheet.createRow(i);
+            sheet.createRow(5);
+
+            assertThat(stream(workbook)).isEmpty();
+        }
+    }
+
+    private List<Transaction> stream(Workbook workbook) throws IOException {
+        Path file = tempDir.resolve("statement.xlsx");
+        try (OutputStream os = Files.newOutputStream(file)) {
+            workbook.write(os);
+        }
+        List<Transaction> result = new ArrayList<>();
+        reader.read(file.toFile(), parser.newRowHandler(result::add));
+        return result;
+    }
+
+    private void dataRow(Sheet sheet, int index, String date, String merchant, String amount, String method) {
+        Row row = sheet.createRow(index);
+        row.createCell(0).setCellValue(date);
+        row.createCell(2).setCellValue(merchant);
+        row.createCell(4).setCellValue(amount);
+        row.createCell(7).setCellValue(method);
+    }
+}
@@ -38,9 +38,8 @@ export default function DataManagementPage() {
 
     try {
       const data = await api.post("/api/transactions/upload", formData);
-      console.log(data.transactions);
       importTransactions(data.transactions);
-      toast.success("Import complete.")
+      toast.success(`Import complete. ${data.inserted} added, ${data.duplicates} duplicates skipped.`)
     } catch (error) {
       toast.error("Import failed.")
     }
@@ -125,9 +125,11 @@ export function DataProvider({ children }: { children: React.ReactNode }) {
     )
   }
 
+  // 업로드 응답에는 이번에 새로 들어간 행만 오므로 기존 목록에 합친다. 같은 id는 새 값으로 바꾼다.
   const importTransactions = (newTransactions: PaymentTransaction[]) => {
-    setTransactions(newTransactions)
-    extractCategoriesFromTransactions(newTransactions)
+    const incoming = new Set(newTransactions.map((t) => String(t.id)))
+    setTransactions((prev) => [...newTransactions, ...prev.filter((t) => !incoming.has(String(t.id)))])
+    setCategories((prev) => Array.from(new Set([...prev, ...newTransactions.map((t) => t.category)])).sort())
   }
 
   const exportTransactions = () => {